@@ -3,7 +3,11 @@ package com.adriauson.vibecommerce;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
-@SpringBootApplication
+// Por nombre: R2DBC solo está en el classpath al compilar con -P reactive (ver ReactiveVibecommerceApplication),
+// y entonces Spring Boot dejaría de crear el DataSource JDBC que usa esta aplicación
+@SpringBootApplication(excludeName = {
+		"org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+		"org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration"})
 public class VibecommerceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,20 @@
+package com.adriauson.vibecommerce.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/*
+ * 🗄️ Activa Spring Cache. El proveedor es Caffeine (spring.cache.type=caffeine):
+ *  - Acotada por tamaño y con expiración (spring.cache.caffeine.spec)
+ *  - recordStats → Actuator publica hits, misses y evictions como métricas cache.*
+ *  - @Cacheable(sync = true) carga cada clave una sola vez aunque lleguen muchos misses a la vez
+ *  - order: el interceptor de caché envuelve al de @Transactional (LOWEST_PRECEDENCE). Un hit no abre
+ *    transacción, y @CachePut / @CacheEvict actúan después del commit, nunca con datos sin confirmar.
+ */
+@Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheConfig {
+
+    public static final String USERS_CACHE = "users";
+}
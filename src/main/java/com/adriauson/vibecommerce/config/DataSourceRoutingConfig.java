@@ -0,0 +1,60 @@
+package com.adriauson.vibecommerce.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/*
+ * 🪞 Lecturas a la réplica, escrituras al primario. Solo se activa si hay réplica configurada
+ * (vibecommerce.datasource.replica.url); sin ella se queda el DataSource único de Spring Boot.
+ *
+ *  - primario: spring.datasource.* y spring.datasource.hikari.* (igual que sin réplica)
+ *  - réplica:  vibecommerce.datasource.replica.* y vibecommerce.datasource.replica.hikari.*
+ *
+ * ⚠️ La réplica va con retraso: un GET justo después de un POST puede no ver todavía el usuario.
+ * Las lecturas que forman parte de una escritura (p. ej. el re-read de updateUser) van dentro
+ * de su transacción de escritura y por tanto al primario.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "vibecommerce.datasource.replica", name = "url")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // Se enlaza a mano y no como bean: un segundo DataSourceProperties en el contexto confundiría a la autoconfiguración
+    @Bean
+    @ConfigurationProperties("vibecommerce.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(Environment environment) {
+        DataSourceProperties properties = Binder.get(environment)
+                .bind("vibecommerce.datasource.replica", DataSourceProperties.class)
+                .get();
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // El que usan JPA y el gestor de transacciones
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+    }
+}
@@ -0,0 +1,14 @@
+package com.adriauson.vibecommerce.config;
+
+import com.adriauson.vibecommerce.repository.UserRepository;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/*
+ * ⚙️ Repositorios JPA solo del paquete repository: al compilar con el perfil Maven "reactive" el paquete reactive
+ * trae su propio repositorio R2DBC y Spring Data JPA fallaría al intentar crearlo.
+ */
+@Configuration
+@EnableJpaRepositories(basePackageClasses = UserRepository.class)
+public class JpaConfig {
+}
@@ -0,0 +1,29 @@
+package com.adriauson.vibecommerce.config;
+
+import com.adriauson.vibecommerce.metrics.TimedValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Validator;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/*
+ * 📊 Spring MVC valida los @Valid con el validador que devuelve getValidator():
+ * lo envolvemos en TimedValidator para tener el tiempo de validación en /actuator/prometheus.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final Validator validator;
+    private final MeterRegistry meterRegistry;
+
+    public MetricsConfig(Validator validator, MeterRegistry meterRegistry) {
+        this.validator = validator;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public org.springframework.validation.Validator getValidator() {
+        return new TimedValidator(new SpringValidatorAdapter(this.validator), this.meterRegistry);
+    }
+}
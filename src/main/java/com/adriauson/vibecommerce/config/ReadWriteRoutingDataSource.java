@@ -0,0 +1,32 @@
+package com.adriauson.vibecommerce.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/*
+ * 🔀 Elige el pool según la transacción en curso:
+ *  - @Transactional(readOnly = true) → réplica
+ *  - cualquier otra cosa (transacciones de escritura, DDL al arrancar, llamadas sin transacción) → primario
+ *
+ * Spring marca la transacción como read-only DESPUÉS de abrirla, así que este DataSource tiene que ir
+ * envuelto en un LazyConnectionDataSourceProxy: la conexión física se pide con la primera sentencia,
+ * cuando el flag ya está puesto (ver DataSourceRoutingConfig).
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route { PRIMARY, REPLICA }
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.REPLICA : Route.PRIMARY;
+    }
+}
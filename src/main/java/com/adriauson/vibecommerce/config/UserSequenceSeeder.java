@@ -0,0 +1,59 @@
+package com.adriauson.vibecommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/*
+ * 🧮 Adelanta users_seq por encima del MAX(id) de users cuando el esquema lo gestiona Hibernate (ddl-auto=update).
+ *
+ * Una base de datos que venía de los IDs con AUTO_INCREMENT no tiene users_seq: ddl-auto=update la crea
+ * empezando en 1 y los primeros INSERT chocarían con las claves primarias existentes. Con el perfil "prod" eso
+ * lo hace la migración V3 (Flyway); aquí se ejecuta el mismo script en cada arranque. Es idempotente
+ * (GREATEST: nunca hace retroceder la secuencia).
+ *
+ * @DependsOn: tiene que ir después de que Hibernate haya creado la tabla users_seq y antes de que Tomcat
+ * acepte peticiones (se ejecuta al crear el bean, no en el ApplicationReadyEvent).
+ * Con ddl-auto=create (perfil "local") la base de datos está vacía y no hace falta. Solo aplica a la tabla con la
+ * que Hibernate emula la secuencia en MySQL: con secuencias nativas (H2 con su dialecto) no hay nada que hacer.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "spring.jpa.hibernate.ddl-auto", havingValue = "update")
+public class UserSequenceSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSequenceSeeder.class);
+    static final String SCRIPT = "db/migration/V3__seed_users_seq.sql";
+
+    public UserSequenceSeeder(DataSource dataSource) {
+        if (!isTable(dataSource, "users_seq")) {
+            logger.debug("users_seq is not a table, nothing to seed");
+            return;
+        }
+        new ResourceDatabasePopulator(new ClassPathResource(SCRIPT)).execute(dataSource);
+        logger.info("users_seq moved past the highest existing user ID");
+    }
+
+    private static boolean isTable(DataSource dataSource, String name) {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String stored = metaData.storesUpperCaseIdentifiers() ? name.toUpperCase(Locale.ROOT) : name;
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, stored, new String[]{"TABLE"})) {
+                return tables.next();
+            }
+        } catch (SQLException exception) {
+            throw new IllegalStateException("Could not inspect the users_seq table", exception);
+        }
+    }
+}
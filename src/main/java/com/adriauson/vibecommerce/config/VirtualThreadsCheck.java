@@ -0,0 +1,32 @@
+package com.adriauson.vibecommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/*
+ * 🧵 Comprobación del perfil "virtual" (spring.threads.virtual.enabled=true) al arrancar.
+ *
+ * Spring Boot solo usa hilos virtuales en Java 21+; en una JVM anterior ignora la propiedad sin avisar y
+ * Tomcat sigue con su pool de hilos, mientras el resto del perfil (pools de Hikari y semáforo) sí se aplica.
+ * Aquí queda en el log qué modo está atendiendo las peticiones de verdad.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsCheck.class);
+
+    public VirtualThreadsCheck(Environment environment) {
+        int javaVersion = Runtime.version().feature();
+        if (Threading.VIRTUAL.isActive(environment)) {
+            logger.info("Serving requests on virtual threads (Java {})", javaVersion);
+        } else {
+            logger.warn("spring.threads.virtual.enabled=true has no effect on Java {}: virtual threads need Java 21+, "
+                    + "requests stay on the Tomcat thread pool", javaVersion);
+        }
+    }
+}
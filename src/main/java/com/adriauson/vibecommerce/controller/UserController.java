@@ -2,23 +2,56 @@ package com.adriauson.vibecommerce.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 
+import com.adriauson.vibecommerce.dto.BatchRegisterResultDto;
+import com.adriauson.vibecommerce.dto.BulkDeleteResultDto;
 import com.adriauson.vibecommerce.dto.RegisterUserDto;
 import com.adriauson.vibecommerce.dto.UpdateUserDto;
 import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.dto.UserImportStatusDto;
+import com.adriauson.vibecommerce.dto.UserLookupResultDto;
+import com.adriauson.vibecommerce.dto.UserPageDto;
+import com.adriauson.vibecommerce.exception.BatchTooLargeException;
+import com.adriauson.vibecommerce.exception.PreconditionFailedException;
 import com.adriauson.vibecommerce.service.UserService;
+import com.adriauson.vibecommerce.service.support.UserChangeFeed;
+import com.adriauson.vibecommerce.service.support.UserCsvImporter;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 
 @Tag(name = "API USERS", description = "Users CRUD")
@@ -29,51 +62,239 @@ public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     private final UserService userService;
+    private final UserChangeFeed userChangeFeed;
+    private final UserCsvImporter userCsvImporter;
+    private final ObjectMapper objectMapper;
+    private final int batchMaxSize;
 
-    public UserController(UserService userService){
+    public UserController(UserService userService, UserChangeFeed userChangeFeed, UserCsvImporter userCsvImporter,
+                          ObjectMapper objectMapper, @Value("${vibecommerce.users.batch.max-size}") int batchMaxSize){
         this.userService = userService;
+        this.userChangeFeed = userChangeFeed;
+        this.userCsvImporter = userCsvImporter;
+        this.objectMapper = objectMapper;
+        this.batchMaxSize = batchMaxSize;
     }
 
     @PostMapping
-    @Operation(summary = "Register a new user", description = "Creates a new user in the system and returns the created data",
+    @Operation(summary = "Register a new user", description = "Creates a new user in the system and returns the created data. Retries with the same Idempotency-Key and body get the first response again (header Idempotent-Replayed: true) without registering the user twice",
             responses = {
                     @ApiResponse(responseCode = "201", description = "User successfully created"),
-                    @ApiResponse(responseCode = "409", description = "Email already in use"),
-                    @ApiResponse(responseCode = "400", description = "Invalid data provided for user creation")
+                    @ApiResponse(responseCode = "409", description = "Email already in use, or a request with the same Idempotency-Key is still being processed"),
+                    @ApiResponse(responseCode = "400", description = "Invalid data provided for user creation"),
+                    @ApiResponse(responseCode = "422", description = "Idempotency-Key already used with a different request body")
             }
     )
+    @Parameter(in = ParameterIn.HEADER, name = "Idempotency-Key", description = "Client-generated unique key (e.g. a UUID) that makes retries safe", example = "9f1c2e0a-3b7d-4c61-a1f5-0e2d8b6c4a13")
     public ResponseEntity<UserDto> registerUser(@Valid @RequestBody RegisterUserDto registerDto) {
-        logger.info("POST /api/v1/users - Creating user with email: {}", registerDto.getEmail());
+        logger.debug("POST /api/v1/users - Creating user with email: {}", registerDto.getEmail());
         UserDto userDto = this.userService.registerUser(registerDto);
         return ResponseEntity.status(HttpStatus.CREATED).body(userDto);
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Register users in bulk", description = "Registers many users in one request using batched inserts. Each item is validated and reported independently",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Batch processed, see the per-item results"),
+                    @ApiResponse(responseCode = "413", description = "Too many users in one batch")
+            }
+    )
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+            array = @ArraySchema(schema = @Schema(implementation = RegisterUserDto.class))))
+    public ResponseEntity<List<BatchRegisterResultDto>> registerUsers(HttpServletRequest request) throws IOException {
+        List<RegisterUserDto> registerDtos = readBatch(new ServletServerHttpRequest(request));
+        logger.info("POST /api/v1/users/batch - Creating {} users", registerDtos.size());
+        List<BatchRegisterResultDto> results = this.userService.registerUsers(registerDtos);
+        return ResponseEntity.ok(results);
+    }
+
+    // 📦 El array se lee elemento a elemento y se corta en cuanto pasa de batch.max-size. Con @RequestBody List<...>
+    // Jackson materializaba el lote entero (todo lo que el cliente quisiera mandar) antes de que el servicio lo rechazara
+    private List<RegisterUserDto> readBatch(HttpInputMessage inputMessage) throws IOException {
+        try (JsonParser parser = this.objectMapper.createParser(inputMessage.getBody())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new HttpMessageNotReadableException("Expected a JSON array of users", inputMessage);
+            }
+            List<RegisterUserDto> registerDtos = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (registerDtos.size() == this.batchMaxSize) {
+                    throw new BatchTooLargeException("Batch exceeds the maximum of " + this.batchMaxSize + " users", this.batchMaxSize);
+                }
+                registerDtos.add(parser.readValueAs(RegisterUserDto.class));
+            }
+            return registerDtos;
+        } catch (JsonProcessingException exception) {
+            throw new HttpMessageNotReadableException("Malformed batch body", exception, inputMessage);
+        }
+    }
+
+    // 📥 Ficheros CSV de miles o millones de usuarios: se guardan en disco y se procesan en segundo plano
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import users from a CSV file", description = "Uploads a CSV file (header: firstName,lastName,email,address,password and optionally confirmPassword) as the multipart part 'file'. The file is processed asynchronously in chunks, poll the returned status until it is COMPLETED or FAILED",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Import accepted, see the Location header for its status"),
+                    @ApiResponse(responseCode = "413", description = "File larger than the maximum upload size"),
+                    @ApiResponse(responseCode = "503", description = "Too many imports in progress")
+            }
+    )
+    public ResponseEntity<UserImportStatusDto> importUsers(@RequestParam("file") MultipartFile file) {
+        logger.info("POST /api/v1/users/import - Importing {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+        return importAccepted(this.userCsvImporter.submit(file));
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Import users from a CSV request body", description = "Same as the multipart upload but the CSV file is the raw request body (Content-Type: text/csv)",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Import accepted, see the Location header for its status"),
+                    @ApiResponse(responseCode = "413", description = "File larger than the maximum upload size"),
+                    @ApiResponse(responseCode = "503", description = "Too many imports in progress")
+            }
+    )
+    public ResponseEntity<UserImportStatusDto> importUsers(InputStream body,
+                                                           @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength) {
+        logger.info("POST /api/v1/users/import - Importing CSV request body ({} bytes)", contentLength);
+        return importAccepted(this.userCsvImporter.submit(body, contentLength != null ? contentLength : -1));
+    }
+
+    @GetMapping("/import/{jobId}")
+    @Operation(summary = "Get the status of a CSV import", description = "Returns the rows read, written and rejected so far and the throughput of the import",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Import status retrieved successfully"),
+                    @ApiResponse(responseCode = "404", description = "Import not found or expired")
+            }
+    )
+    public ResponseEntity<UserImportStatusDto> getImportStatus(
+            @Parameter(description = "ID returned when the import was accepted", example = "6f1d3c1e-9a0b-4c2e-8f5a-2b7d9e4c1a30")
+            @PathVariable("jobId") String jobId) {
+        logger.debug("GET /api/v1/users/import/{} - Fetching import status", jobId);
+        return ResponseEntity.ok(this.userCsvImporter.getStatus(jobId));
+    }
+
+    @GetMapping(value = "/import/{jobId}/errors", produces = "text/csv")
+    @Operation(summary = "Download the error report of a CSV import", description = "CSV with one line per rejected row (line,email,error). It grows while the import is running",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Error report streamed successfully"),
+                    @ApiResponse(responseCode = "404", description = "Import not found or expired")
+            }
+    )
+    public ResponseEntity<Resource> getImportErrors(
+            @Parameter(description = "ID returned when the import was accepted", example = "6f1d3c1e-9a0b-4c2e-8f5a-2b7d9e4c1a30")
+            @PathVariable("jobId") String jobId) {
+        logger.debug("GET /api/v1/users/import/{}/errors - Downloading error report", jobId);
+        Resource report = new FileSystemResource(this.userCsvImporter.getErrorReport(jobId));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + jobId + "-errors.csv\"")
+                .body(report);
+    }
+
     @GetMapping
-    @Operation(summary = "Get all users", description = "Returns all existing users from the database",
+    @Operation(summary = "Get users (paginated)", description = "Returns a page of users ordered by ID using keyset pagination. Use 'nextCursor' from the response as 'after' to fetch the next page",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "User page retrieved successfully")
+            }
+    )
+    public ResponseEntity<UserPageDto> getAllUsers(
+            @Parameter(description = "Return users with an ID greater than this cursor", example = "42")
+            @RequestParam(name = "after", required = false) Long after,
+            @Parameter(description = "Page size (capped by the server maximum)", example = "20")
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.debug("GET /api/v1/users - Fetching users after {} (limit {})", after, limit);
+        UserPageDto userPage = this.userService.getAllUsers(after, limit);
+        logger.debug("Number of users retrieved: {}", userPage.getContent().size());
+        return ResponseEntity.ok(userPage);
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get several users by ID", description = "Returns the users with the given IDs in the order they were requested, using cached users first and a few IN queries for the rest. IDs that do not exist are listed in 'missingIds'",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Users retrieved, see missingIds for unknown IDs"),
+                    @ApiResponse(responseCode = "413", description = "Too many IDs in one request")
+            }
+    )
+    public ResponseEntity<UserLookupResultDto> getUsersByIds(
+            @Parameter(description = "Comma separated list of user IDs", example = "3,1,2")
+            @RequestParam("ids") List<Long> ids) {
+        logger.debug("GET /api/v1/users?ids= - Fetching {} users", ids.size());
+        UserLookupResultDto result = this.userService.getUsersByIds(ids);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search users", description = "Finds users whose first name, last name or email contains every term of the query (terms shorter than 3 characters match the start of a word). Paginated with the same cursor as the users list",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Page of matching users"),
+                    @ApiResponse(responseCode = "503", description = "Search index still loading after startup")
+            }
+    )
+    public ResponseEntity<UserPageDto> searchUsers(
+            @Parameter(description = "Text to search for in first name, last name and email", example = "garc")
+            @RequestParam("q") String query,
+            @Parameter(description = "Return users with an ID greater than this cursor", example = "42")
+            @RequestParam(name = "after", required = false) Long after,
+            @Parameter(description = "Page size (capped by the server maximum)", example = "20")
+            @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.debug("GET /api/v1/users/search - Searching users with q={}", query);
+        UserPageDto userPage = this.userService.searchUsers(query, after, limit);
+        return ResponseEntity.ok(userPage);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export all users", description = "Streams every user as newline-delimited JSON (one UserDto per line) without loading the whole table in memory",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "User list retrieved successfully")
+                    @ApiResponse(responseCode = "200", description = "Users streamed successfully")
             }
     )
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        logger.info("GET /api/v1/users - Fetching all users");
-        List<UserDto> userDtoList = this.userService.getAllUsers();
-        logger.debug("Number of users retrieved: {}", userDtoList.size());
-        return ResponseEntity.ok(userDtoList);
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        logger.info("GET /api/v1/users/export - Streaming all users");
+        StreamingResponseBody body = outputStream -> this.userService.exportUsers(outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    // 📡 Alternativa al polling de GET /api/v1/users: los cambios llegan empujados según se confirman
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream user changes", description = "Server-Sent Events feed with one event (CREATED, UPDATED or DELETED) per user change, in commit order. Reconnect with the Last-Event-ID header (or 'after') to resume without losing changes. A 'reset' event means some changes are no longer retained and the users list must be reloaded",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Event stream opened"),
+                    @ApiResponse(responseCode = "503", description = "Too many clients connected to the feed")
+            }
+    )
+    public SseEmitter streamChanges(
+            @Parameter(description = "ID of the last event received (sent automatically by EventSource on reconnect)", example = "1234")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @Parameter(description = "Same as Last-Event-ID, for clients that cannot set headers", example = "1234")
+            @RequestParam(name = "after", required = false) Long after) {
+        Long resumeAfter = lastEventId != null ? lastEventId : after;
+        logger.debug("GET /api/v1/users/changes - Subscribing after event {}", resumeAfter);
+        return this.userChangeFeed.subscribe(resumeAfter);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get a user by ID", description = "Retrieves an existing user by ID",
             responses = {
                     @ApiResponse(responseCode = "200", description = "User retrieved successfully"),
+                    @ApiResponse(responseCode = "304", description = "User not modified since the ETag sent in If-None-Match"),
                     @ApiResponse(responseCode = "404", description = "User not found")
             }
     )
     public ResponseEntity<UserDto> getUserById(
             @Parameter(description = "ID of the user to retrieve", example = "2")
-            @PathVariable("id") Long id) {
-        logger.info("GET /api/v1/users/{} - Fetching user", id);
+            @PathVariable("id") Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        logger.debug("GET /api/v1/users/{} - Fetching user", id);
+
+        // 🏷️ Revalidación barata: solo necesitamos la versión, no el usuario completo
+        if (ifNoneMatch != null) {
+            Long currentVersion = this.userService.getUserVersion(id);
+            if (etagMatches(ifNoneMatch, currentVersion)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(toETag(currentVersion)).build();
+            }
+        }
+
         UserDto userDto = this.userService.getUserById(id);
-        return ResponseEntity.ok(userDto);
+        return ResponseEntity.ok().eTag(toETag(userDto.getVersion())).body(userDto);
     }
 
     @PatchMapping("/{id}")
@@ -81,28 +302,117 @@ public class UserController {
             responses = {
                     @ApiResponse(responseCode = "200", description = "User updated successfully"),
                     @ApiResponse(responseCode = "404", description = "User not found"),
-                    @ApiResponse(responseCode = "400", description = "Invalid data for partial update")
+                    @ApiResponse(responseCode = "400", description = "Invalid data for partial update"),
+                    @ApiResponse(responseCode = "412", description = "If-Match does not match the current version of the user")
             }
     )
     public ResponseEntity<UserDto> updateUser(
             @Parameter(description = "ID of the user to update", example = "3")
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateUserDto updateDto) {
-        logger.info("PATCH /api/v1/users/{} - Updating user", id);
-        UserDto updatedUser = this.userService.updateUser(id, updateDto);
-        return ResponseEntity.ok(updatedUser);
+        logger.debug("PATCH /api/v1/users/{} - Updating user", id);
+        UserDto updatedUser = this.userService.updateUser(id, updateDto, parseIfMatch(id, ifMatch));
+        return ResponseEntity.ok().eTag(toETag(updatedUser.getVersion())).body(updatedUser);
     }
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete a user", description = "Deletes a user by ID",
             responses = {
                     @ApiResponse(responseCode = "204", description = "User successfully deleted"),
-                    @ApiResponse(responseCode = "404", description = "User not found")
+                    @ApiResponse(responseCode = "404", description = "User not found"),
+                    @ApiResponse(responseCode = "412", description = "If-Match does not match the current version of the user")
             }
     )
-    public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        logger.warn("DELETE /api/v1/users/{} - Deleting user", id);
-        this.userService.deleteUser(id);
+    public ResponseEntity<Void> deleteUser(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        logger.debug("DELETE /api/v1/users/{} - Deleting user", id);
+        this.userService.deleteUser(id, parseIfMatch(id, ifMatch));
         return ResponseEntity.noContent().build();
     }
+
+    @DeleteMapping(params = "ids")
+    @Operation(summary = "Delete users in bulk", description = "Deletes every user whose ID is in the list with a single statement. Unknown IDs are ignored",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Users deleted, see the deleted count"),
+                    @ApiResponse(responseCode = "413", description = "Too many IDs in one request")
+            }
+    )
+    public ResponseEntity<BulkDeleteResultDto> deleteUsers(
+            @Parameter(description = "Comma separated list of user IDs", example = "1,2,3")
+            @RequestParam("ids") List<Long> ids) {
+        logger.info("DELETE /api/v1/users?ids= - Deleting {} users", ids.size());
+        BulkDeleteResultDto result = this.userService.deleteUsers(ids);
+        return ResponseEntity.ok(result);
+    }
+
+    private static ResponseEntity<UserImportStatusDto> importAccepted(UserImportStatusDto status) {
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/users/import/" + status.getJobId()))
+                .body(status);
+    }
+
+    // 🏷️ El ETag de un usuario es su versión entre comillas: "3"
+    private static String toETag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // If-None-Match admite "*" o una lista de ETags; los débiles (W/"3") también valen para GET
+    private static boolean etagMatches(String header, Long version) {
+        String expected = toETag(version);
+        for (String tag : header.split(",")) {
+            String candidate = tag.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Match: null si no viene o es "*" (basta con que exista), la versión si es un ETag fuerte nuestro.
+    // Con una lista ("2", "3") se busca la versión actual y se usa si está en la lista: el UPDATE/DELETE sigue
+    // siendo condicional sobre esa versión. Los ETags débiles nunca valen (If-Match compara en fuerte) -> 412
+    private Long parseIfMatch(Long id, String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        String[] tags = header.split(",");
+        List<Long> versions = new ArrayList<>(tags.length);
+        for (String tag : tags) {
+            String candidate = tag.trim();
+            if (candidate.equals("*")) {
+                return null;
+            }
+            Long version = parseStrongETag(candidate);
+            if (version != null) {
+                versions.add(version);
+            }
+        }
+        if (versions.size() == 1 && tags.length == 1) {
+            return versions.get(0);
+        }
+        if (!versions.isEmpty()) {
+            Long currentVersion = this.userService.getUserVersion(id);
+            if (versions.contains(currentVersion)) {
+                return currentVersion;
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current version of user " + id, id);
+    }
+
+    // "3" -> 3; W/"3", 3 o "abc" -> null
+    private static Long parseStrongETag(String tag) {
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // no es un ETag nuestro
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,33 @@
+package com.adriauson.vibecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 📦 DTO with the outcome of one item of a bulk registration.
+ * 🔢 "index" points to the position of the item in the request body.
+ */
+@Getter
+@Setter
+@Schema(
+        name = "BatchRegisterResultDto",
+        description = "Result of registering one user inside a batch request."
+)
+public class BatchRegisterResultDto {
+
+    // UNAVAILABLE: no se llegó a procesar (pool de hashing saturado), se puede reintentar
+    public enum Status { CREATED, CONFLICT, INVALID, UNAVAILABLE }
+
+    @Schema(description = "Position of the item in the request list", example = "0")
+    private int index;
+
+    @Schema(description = "Outcome for this item", example = "CREATED")
+    private Status status;
+
+    @Schema(description = "Created user (only when status is CREATED)")
+    private UserDto user;
+
+    @Schema(description = "Reason why the item was rejected", example = "Email is already in use")
+    private String message;
+}
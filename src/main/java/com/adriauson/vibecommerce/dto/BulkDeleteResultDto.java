@@ -0,0 +1,23 @@
+package com.adriauson.vibecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 📦 DTO returned by the bulk delete endpoint.
+ */
+@Getter
+@Setter
+@Schema(
+        name = "BulkDeleteResultDto",
+        description = "Number of distinct IDs requested and number of users actually deleted."
+)
+public class BulkDeleteResultDto {
+
+    @Schema(description = "Distinct IDs received in the request", example = "3")
+    private int requested;
+
+    @Schema(description = "Users deleted (IDs that did not exist are ignored)", example = "2")
+    private int deleted;
+}
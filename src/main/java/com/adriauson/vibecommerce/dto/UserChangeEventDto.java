@@ -0,0 +1,41 @@
+package com.adriauson.vibecommerce.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * 📦 DTO sent as the data of each event in the users change feed (GET /api/v1/users/changes).
+ * 🔁 The SSE event id is the same as {@code id}: reconnect with it in Last-Event-ID to resume.
+ */
+@Getter
+@Setter
+@Schema(
+        name = "UserChangeEventDto",
+        description = "A user created, updated or deleted, as pushed by the users change feed."
+)
+public class UserChangeEventDto {
+
+    @Schema(description = "Position of the event in the feed (also sent as the SSE event id)", example = "1234")
+    private long id;
+
+    @Schema(description = "Kind of change", example = "UPDATED", allowableValues = {"CREATED", "UPDATED", "DELETED"})
+    private String type;
+
+    @Schema(description = "ID of the user that changed", example = "42")
+    private long userId;
+
+    @Schema(description = "User version after the change (same value as its ETag). Null for deletions", example = "3")
+    private Long version;
+
+    @Schema(description = "When the change was committed", example = "2025-01-01T10:00:00Z")
+    private Instant occurredAt;
+
+    // El JSON del UserDto ya viene serializado desde la outbox: se copia tal cual
+    @JsonRawValue
+    @Schema(description = "User data after the change. Null for deletions", implementation = UserDto.class)
+    private String user;
+}
@@ -1,5 +1,6 @@
 package com.adriauson.vibecommerce.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.Setter;
@@ -20,4 +21,9 @@ public class UserDto extends BaseUserDto {
             example = "42"
     )
     private Long id;
+
+    // Viaja en la cabecera ETag, no en el cuerpo
+    @JsonIgnore
+    @Schema(hidden = true)
+    private Long version;
 }
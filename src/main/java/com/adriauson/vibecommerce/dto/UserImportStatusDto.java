@@ -0,0 +1,55 @@
+package com.adriauson.vibecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * 📦 DTO with the progress of a CSV import job.
+ * 📈 Counters are updated while the job runs, poll the status endpoint until status is COMPLETED or FAILED.
+ */
+@Getter
+@Setter
+@Schema(
+        name = "UserImportStatusDto",
+        description = "Progress of an asynchronous CSV user import."
+)
+public class UserImportStatusDto {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    @Schema(description = "Import job identifier", example = "6f1d3c1e-9a0b-4c2e-8f5a-2b7d9e4c1a30")
+    private String jobId;
+
+    @Schema(description = "Current state of the job", example = "RUNNING")
+    private Status status;
+
+    @Schema(description = "Data rows read from the file so far (header and empty lines excluded)", example = "150000")
+    private long rowsRead;
+
+    @Schema(description = "Users created so far", example = "149200")
+    private long rowsWritten;
+
+    @Schema(description = "Rows rejected so far (invalid or email already in use), see the error report", example = "800")
+    private long rowsRejected;
+
+    @Schema(description = "Rows processed per second since the job started", example = "2500.0")
+    private double rowsPerSecond;
+
+    @Schema(description = "When the upload was accepted")
+    private Instant createdAt;
+
+    @Schema(description = "When processing started")
+    private Instant startedAt;
+
+    @Schema(description = "When processing finished")
+    private Instant finishedAt;
+
+    @Schema(description = "Reason why the job failed", example = "Missing required columns: email")
+    private String message;
+
+    @Schema(description = "Path of the CSV report with the rejected rows", example = "/api/v1/users/import/6f1d3c1e-9a0b-4c2e-8f5a-2b7d9e4c1a30/errors")
+    private String errorReport;
+}
@@ -0,0 +1,26 @@
+package com.adriauson.vibecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 📦 DTO returned by the multi-get endpoint (GET /api/v1/users?ids=...).
+ * 🔢 Users come in the order of the requested IDs (repeated IDs only once); IDs that do not exist are listed apart.
+ */
+@Getter
+@Setter
+@Schema(
+        name = "UserLookupResultDto",
+        description = "Users found for the requested IDs, in request order, plus the IDs that do not exist."
+)
+public class UserLookupResultDto {
+
+    @Schema(description = "Users found, in the order of the requested IDs")
+    private List<UserDto> content;
+
+    @Schema(description = "Requested IDs that do not match any user", example = "[7, 12]")
+    private List<Long> missingIds;
+}
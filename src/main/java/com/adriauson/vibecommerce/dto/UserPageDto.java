@@ -0,0 +1,32 @@
+package com.adriauson.vibecommerce.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 📦 DTO for a page of users fetched with keyset (cursor) pagination.
+ * 🔁 Send nextCursor back as "after" to get the following page. It is null on the last page.
+ */
+@Getter
+@Setter
+@Schema(
+        name = "UserPageDto",
+        description = "A page of users plus the cursor to request the next page."
+)
+public class UserPageDto {
+
+    @Schema(description = "Users in this page, ordered by ID")
+    private List<UserDto> content;
+
+    @Schema(
+            description = "Cursor for the next page (pass it as 'after'). Null when there are no more users",
+            example = "42"
+    )
+    private Long nextCursor;
+
+    @Schema(description = "Effective page size applied to this request", example = "20")
+    private int limit;
+}
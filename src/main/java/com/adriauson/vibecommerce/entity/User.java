@@ -6,15 +6,24 @@ import lombok.Setter;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name= "users")
+@Table(name= "users", uniqueConstraints = @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"))
 @Getter
 @Setter
 @NoArgsConstructor
 
 public class User {
 
+    // Nombre fijo (el mismo que en V1__create_users.sql): UserServiceImpl lo usa para distinguir un email
+    // duplicado de cualquier otra violación de unicidad (p. ej. de la clave primaria). Las tablas creadas antes
+    // tienen un índice con nombre automático: también se reconoce (ver ConstraintViolations)
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_users_email";
+
+    // 🧮 Secuencia "pooled": Hibernate reserva los IDs de 50 en 50 sin ir a la BD en cada insert.
+    // Con IDENTITY cada INSERT tiene que ejecutarse al momento para conocer su ID y no se puede agrupar
+    // en batches JDBC. En MySQL (sin secuencias nativas) Hibernate la emula con la tabla users_seq.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(name= "firstName", nullable = false, length = 30)
@@ -23,7 +32,7 @@ public class User {
     @Column(name= "lastName", nullable = false, length = 30)
     private String lastName;
 
-    @Column(name="email", nullable = false, unique = true, length = 50)
+    @Column(name="email", nullable = false, length = 50)
     private String email;
 
     @Column(name = "password", nullable = false)
@@ -32,4 +41,10 @@ public class User {
     @Column(name = "address", nullable = false, length = 250)
     private String address;
 
+    // 🏷️ Versión para control optimista: se incrementa en cada UPDATE y sirve de ETag (If-None-Match / If-Match).
+    // Las filas creadas antes de añadir la columna la tienen a NULL y se tratan como versión 0.
+    @Version
+    @Column(name = "version")
+    private Long version;
+
 }
@@ -0,0 +1,52 @@
+package com.adriauson.vibecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/*
+ * 📮 Outbox de cambios de usuarios: una fila por alta, modificación o borrado, escrita en la MISMA
+ * transacción que el cambio (si el cambio hace rollback, el evento también). UserChangeFeed las lee
+ * en orden de ID y las empuja a los suscriptores de GET /api/v1/users/changes.
+ *
+ * ID con IDENTITY (y no con secuencia pooled como User): el autoincremento se asigna al insertar, así que
+ * el orden de los IDs sigue al de las escrituras y sirve como Last-Event-ID. Con bloques de 50 por
+ * instancia, un evento nuevo podría llevar un ID menor que otro ya enviado. El orden de commit sí puede
+ * diferir del de los IDs: de eso se encarga OutboxGapTracker. Se escribe con INSERTs de varias filas
+ * (UserChangeEventRepositoryCustom), porque IDENTITY impide a Hibernate agrupar los save() en batches.
+ */
+@Entity
+@Table(name = "user_change_events",
+        indexes = @Index(name = "idx_user_change_events_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserChangeEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 10)
+    private Type type;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Versión del usuario tras el cambio (la del ETag); null en los borrados
+    @Column(name = "user_version")
+    private Long userVersion;
+
+    // UserDto ya serializado a JSON (null en los borrados): el dispatcher no vuelve a leer la tabla users
+    @Column(name = "payload", length = 1000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,18 @@
+package com.adriauson.vibecommerce.exception;
+
+/*
+ * 📌 Se lanza cuando una petición por lotes supera el número máximo de elementos configurado.
+ * La traducimos a 413 Payload Too Large en GlobalExceptionHandler.
+ */
+public class BatchTooLargeException extends BusinessException {
+    private final int maxSize;
+
+    public BatchTooLargeException(String message, int maxSize) {
+        super(message);
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
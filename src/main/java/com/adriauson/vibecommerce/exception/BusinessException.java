@@ -0,0 +1,16 @@
+package com.adriauson.vibecommerce.exception;
+
+/*
+ * 📌 Base de las excepciones de negocio (404, 409, 412, 413, 503...).
+ *
+ * Son respuestas previstas, no fallos: GlobalExceptionHandler las traduce a un código HTTP y nunca se
+ * imprime su traza. Por eso no la capturamos (writableStackTrace = false): fillInStackTrace() recorre toda
+ * la pila en cada new, y es lo más caro de un 404 provocado por un bot. Tampoco admiten suprimidas ni causa.
+ * Si hace falta depurar de dónde salen, el log del servicio ya dice qué operación las lanzó.
+ */
+public abstract class BusinessException extends RuntimeException {
+
+    protected BusinessException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,95 @@
+package com.adriauson.vibecommerce.exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/*
+ * 🛡️ Qué restricción ha saltado en una DataIntegrityViolationException.
+ *
+ * El nombre que llega depende de la base de datos y de cómo se creó el índice:
+ *  - Con nombre fijo (V1 o @UniqueConstraint): "users.uk_users_email" en MySQL, "PUBLIC.UK_USERS_EMAIL_INDEX_4" en H2.
+ *  - Con nombre automático (@Column(unique = true) de los esquemas anteriores con ddl-auto=update): en MySQL el índice
+ *    se llama como la columna ("users.email", "email_2"); en H2 es "CONSTRAINT_INDEX_n" y la columna solo aparece
+ *    en el mensaje ("... ON PUBLIC.USERS(EMAIL NULLS FIRST) ...").
+ * Por eso se mira el nombre, y si no basta, el mensaje del driver. Siempre que sea una violación de unicidad:
+ * SQLState 23505 o el código 1062 de MySQL (ER_DUP_ENTRY).
+ *
+ * GlobalExceptionHandler solo responde 409 a las claves únicas: un choque de clave primaria, un NOT NULL o una
+ * FK son fallos del servidor (500) y un valor demasiado largo para su columna es un 400 (SQLState de clase 22).
+ */
+public final class ConstraintViolations {
+
+    private static final String UNIQUE_VIOLATION_STATE = "23505";
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+    private static final String DATA_EXCEPTION_CLASS = "22";
+
+    private ConstraintViolations() {
+    }
+
+    public static boolean isUniqueViolationOf(DataIntegrityViolationException exception, String table, String column,
+                                              String constraintName) {
+        ConstraintViolationException violation = findCause(exception, ConstraintViolationException.class);
+        SQLException sqlException = findCause(exception, SQLException.class);
+        if (!isUniqueViolation(violation, sqlException)) {
+            return false;
+        }
+
+        String name = violation != null && violation.getConstraintName() != null
+                ? violation.getConstraintName().toLowerCase(Locale.ROOT) : "";
+        String key = name.substring(name.lastIndexOf('.') + 1);
+        if (name.contains(constraintName) || Pattern.matches(Pattern.quote(column) + "(_\\d+)?", key)) {
+            return true;
+        }
+        String message = sqlException != null && sqlException.getMessage() != null
+                ? sqlException.getMessage().toLowerCase(Locale.ROOT) : "";
+        return message.contains("." + table + "(" + column + " ")
+                || message.contains("." + table + "(" + column + ")")
+                || message.contains("for key '" + table + "." + column + "'")
+                || message.contains("for key '" + column + "'");
+    }
+
+    // Clave única que no es la primaria: "users.PRIMARY" (MySQL), "PRIMARY KEY ON ..." (H2), "users_pkey" (PostgreSQL)
+    public static boolean isUniqueKeyViolation(DataIntegrityViolationException exception) {
+        ConstraintViolationException violation = findCause(exception, ConstraintViolationException.class);
+        SQLException sqlException = findCause(exception, SQLException.class);
+        if (!isUniqueViolation(violation, sqlException)) {
+            return false;
+        }
+        String name = violation != null && violation.getConstraintName() != null
+                ? violation.getConstraintName() : sqlException != null ? String.valueOf(sqlException.getMessage()) : "";
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        return !lowerName.contains("primary") && !lowerName.contains("_pkey");
+    }
+
+    // Valor que no cabe en su columna o fuera de rango: DataException de Hibernate o SQLState 22xxx (p. ej. 22001)
+    public static boolean isInvalidData(DataIntegrityViolationException exception) {
+        if (findCause(exception, DataException.class) != null) {
+            return true;
+        }
+        SQLException sqlException = findCause(exception, SQLException.class);
+        return sqlException != null && sqlException.getSQLState() != null
+                && sqlException.getSQLState().startsWith(DATA_EXCEPTION_CLASS);
+    }
+
+    private static boolean isUniqueViolation(ConstraintViolationException violation, SQLException sqlException) {
+        if (violation != null && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE) {
+            return true;
+        }
+        return sqlException != null
+                && (UNIQUE_VIOLATION_STATE.equals(sqlException.getSQLState()) || sqlException.getErrorCode() == MYSQL_DUPLICATE_ENTRY);
+    }
+
+    private static <T extends Throwable> T findCause(Throwable throwable, Class<T> type) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (type.isInstance(cause)) {
+                return type.cast(cause);
+            }
+        }
+        return null;
+    }
+}
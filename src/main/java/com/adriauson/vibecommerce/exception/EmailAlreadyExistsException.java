@@ -1,7 +1,7 @@
 package com.adriauson.vibecommerce.exception;
 
 /*
- * 📌 EmailAlreadyExistsException es una excepción personalizada que extiende RuntimeException.
+ * 📌 EmailAlreadyExistsException es una excepción personalizada que extiende BusinessException (sin traza).
  * Se lanza cuando se intenta registrar un usuario con un email ya existente.
  *
  * 🎯 La manejamos globalmente con @RestControllerAdvice para devolver
@@ -18,11 +18,11 @@ package com.adriauson.vibecommerce.exception;
 
 
 // ✅ Creamos una excepción personalizada para manejar casos donde el email ya existe
-public class EmailAlreadyExistsException extends RuntimeException {
+public class EmailAlreadyExistsException extends BusinessException {
 
     // 🧱 Constructor que recibe un mensaje de error personalizado
     public EmailAlreadyExistsException(String message) {
-        // 🔁 Llama al constructor de la clase base (RuntimeException) con ese mensaje
+        // 🔁 Llama al constructor de la clase base (BusinessException) con ese mensaje
         super(message);
     }
 }
@@ -0,0 +1,18 @@
+package com.adriauson.vibecommerce.exception;
+
+/*
+ * 📌 Se lanza cuando se consulta un trabajo de importación que no existe o que ya ha caducado.
+ * GlobalExceptionHandler la traduce a 404 Not Found.
+ */
+public class ImportJobNotFoundException extends BusinessException {
+    private final String jobId;
+
+    public ImportJobNotFoundException(String message, String jobId) {
+        super(message);
+        this.jobId = jobId;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+}
@@ -0,0 +1,19 @@
+package com.adriauson.vibecommerce.exception;
+
+/*
+ * 📌 Se lanza cuando el pool de hashing de contraseñas está lleno (o tarda demasiado).
+ * GlobalExceptionHandler la traduce a 503 Service Unavailable + Retry-After para que el cliente
+ * reintente más tarde en vez de acumular peticiones esperando CPU.
+ */
+public class PasswordHashingOverloadedException extends BusinessException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
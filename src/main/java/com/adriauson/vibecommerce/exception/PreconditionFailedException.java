@@ -0,0 +1,18 @@
+package com.adriauson.vibecommerce.exception;
+
+/*
+ * 📌 Se lanza cuando la versión enviada en If-Match ya no es la actual del usuario
+ * (otro cliente lo ha modificado antes). Se traduce a 412 Precondition Failed.
+ */
+public class PreconditionFailedException extends BusinessException {
+    private final Long id;
+
+    public PreconditionFailedException(String message, Long id) {
+        super(message);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,18 @@
+package com.adriauson.vibecommerce.exception;
+
+/*
+ * 📌 Se lanza si llega una búsqueda antes de que el índice en memoria termine de cargarse al arrancar.
+ * GlobalExceptionHandler la traduce a 503 Service Unavailable + Retry-After.
+ */
+public class SearchIndexNotReadyException extends BusinessException {
+    private final long retryAfterSeconds;
+
+    public SearchIndexNotReadyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.adriauson.vibecommerce.exception;
+
+/*
+ * 📌 Se lanza cuando la cola de importaciones CSV está llena.
+ * GlobalExceptionHandler la traduce a 503 Service Unavailable + Retry-After.
+ */
+public class TooManyImportsException extends BusinessException {
+    private final long retryAfterSeconds;
+
+    public TooManyImportsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.adriauson.vibecommerce.exception;
+
+/*
+ * 📌 Se lanza cuando el feed de cambios ya tiene el máximo de suscriptores conectados.
+ * GlobalExceptionHandler la traduce a 503 Service Unavailable + Retry-After.
+ */
+public class TooManySubscribersException extends BusinessException {
+    private final long retryAfterSeconds;
+
+    public TooManySubscribersException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
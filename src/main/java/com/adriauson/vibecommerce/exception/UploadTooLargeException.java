@@ -0,0 +1,18 @@
+package com.adriauson.vibecommerce.exception;
+
+/*
+ * 📌 Se lanza cuando un fichero de importación supera vibecommerce.users.import.max-upload-size.
+ * La traducimos a 413 Payload Too Large en GlobalExceptionHandler.
+ */
+public class UploadTooLargeException extends BusinessException {
+    private final long maxBytes;
+
+    public UploadTooLargeException(String message, long maxBytes) {
+        super(message);
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+}
@@ -1,6 +1,6 @@
 package com.adriauson.vibecommerce.exception;
 
-public class UserNotFoundException extends RuntimeException {
+public class UserNotFoundException extends BusinessException {
     private final Long id;
 
     public UserNotFoundException(String message, Long id) {
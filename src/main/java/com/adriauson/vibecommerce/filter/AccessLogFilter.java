@@ -0,0 +1,68 @@
+package com.adriauson.vibecommerce.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * 📝 Access log muestreado de /api/v1/users (sustituye a los logger.info por petición).
+ *
+ *  - Una línea estructurada (clave=valor) por petición muestreada:
+ *      method=GET path=/api/v1/users/42 status=200 latency_ms=3 user_id=42
+ *  - sample-rate (0.0 – 1.0) decide qué fracción de peticiones se registran; los 5xx se registran siempre.
+ *  - Se escribe en el logger "ACCESS", que logback-spring.xml manda a un appender asíncrono propio.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLogger = LoggerFactory.getLogger("ACCESS");
+    private static final String USERS_PATH = "/api/v1/users";
+
+    private final double sampleRate;
+
+    public AccessLogFilter(@Value("${vibecommerce.access-log.sample-rate:0.01}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !accessLogger.isInfoEnabled() || !request.getRequestURI().startsWith(USERS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int status = response.getStatus();
+            if (status >= 500 || ThreadLocalRandom.current().nextDouble() < this.sampleRate) {
+                accessLogger.info("method={} path={} status={} latency_ms={} user_id={}",
+                        request.getMethod(), request.getRequestURI(), status,
+                        (System.nanoTime() - start) / 1_000_000, userId(request));
+            }
+        }
+    }
+
+    private static String userId(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map<?, ?> pathVariables && pathVariables.get("id") != null) {
+            return pathVariables.get("id").toString();
+        }
+        return "-";
+    }
+}
@@ -0,0 +1,170 @@
+package com.adriauson.vibecommerce.filter;
+
+import com.adriauson.vibecommerce.handler.ProblemBody;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * 🚦 Límite de peticiones concurrentes sobre /api/v1/users.
+ *
+ * Si Tomcat acepta más peticiones de las que caben en el pool JDBC, todas acaban esperando conexión
+ * (hasta connection-timeout) y la latencia crece para todas. Este semáforo limita cuántas llegan a la
+ * capa de servicio (igual al tamaño del pool de Hikari) y, si no hay permiso en acquire-timeout,
+ * responde 503 + Retry-After en vez de dejar la cola crecer.
+ *
+ * Peticiones asíncronas:
+ *  - GET /export sigue usando su conexión mientras escribe en otro hilo: el permiso se devuelve cuando
+ *    termina la respuesta asíncrona (AsyncListener), no cuando vuelve el hilo de Tomcat.
+ *  - GET /changes (SSE) puede quedarse abierta horas sin tocar la BD: no pasa por el semáforo,
+ *    UserChangeFeed ya limita sus suscriptores.
+ *
+ * Rechazos: contador users.concurrency.rejected y como mucho un warn por rejection-log-interval
+ * con los rechazos acumulados (un pico de miles de 503 no se convierte en miles de líneas de log).
+ *
+ * Solo se activa con vibecommerce.concurrency-limit.enabled=true.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "vibecommerce.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+    private static final String USERS_PATH = "/api/v1/users";
+    private static final String CHANGES_PATH = USERS_PATH + "/changes";
+    private static final byte[] OVERLOADED_BODY =
+            ProblemBody.of(HttpStatus.SERVICE_UNAVAILABLE).render("Too many concurrent requests, please retry later");
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    private final long rejectionLogIntervalNanos;
+    private final Counter rejected;
+    private final AtomicLong nextRejectionLogAt = new AtomicLong(System.nanoTime());
+    private final AtomicLong rejectedSinceLastLog = new AtomicLong();
+
+    public ConcurrencyLimitFilter(@Value("${vibecommerce.concurrency-limit.max-concurrent-requests:50}") int maxConcurrentRequests,
+                                  @Value("${vibecommerce.concurrency-limit.acquire-timeout-ms:2000}") long acquireTimeoutMillis,
+                                  @Value("${vibecommerce.concurrency-limit.rejection-log-interval-ms:10000}") long rejectionLogIntervalMillis,
+                                  MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.rejectionLogIntervalNanos = TimeUnit.MILLISECONDS.toNanos(rejectionLogIntervalMillis);
+        this.rejected = Counter.builder("users.concurrency.rejected")
+                .description("Requests rejected with 503 by the concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("users.concurrency.available", this.permits, Semaphore::availablePermits)
+                .description("Free permits of the concurrency limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith(USERS_PATH) || uri.startsWith(CHANGES_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = this.permits.tryAcquire(this.acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            this.rejected.increment();
+            logRejection();
+            rejectRequest(response);
+            return;
+        }
+
+        Permit permit = new Permit();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // La respuesta sigue en otro hilo: el permiso vuelve al completar, fallar o caducar
+                request.getAsyncContext().addListener(permit);
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    // Rechazos acumulados en un warn cada rejection-log-interval; solo el hilo que gana el CAS escribe
+    private void logRejection() {
+        this.rejectedSinceLastLog.incrementAndGet();
+        long now = System.nanoTime();
+        long logAt = this.nextRejectionLogAt.get();
+        if (now - logAt >= 0 && this.nextRejectionLogAt.compareAndSet(logAt, now + this.rejectionLogIntervalNanos)) {
+            logger.warn("Concurrency limit reached: {} requests rejected with 503 since the last report",
+                    this.rejectedSinceLastLog.getAndSet(0));
+        }
+    }
+
+    private void rejectRequest(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(OVERLOADED_BODY.length);
+        response.getOutputStream().write(OVERLOADED_BODY);
+    }
+
+    // Un permiso por petición, devuelto una sola vez aunque lleguen onError y onComplete
+    private final class Permit implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (this.released.compareAndSet(false, true)) {
+                ConcurrencyLimitFilter.this.permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Un nuevo startAsync sobre la misma petición quita los listeners: se vuelve a registrar
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.adriauson.vibecommerce.filter;
+
+import com.adriauson.vibecommerce.filter.IdempotencyStore.StoredResponse;
+import com.adriauson.vibecommerce.handler.ProblemBody;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/*
+ * 🔁 Idempotency-Key en POST /api/v1/users: los reintentos de un cliente no vuelven a registrar al usuario.
+ *
+ *  - Las claves son por cliente: la API key si es una de las api-keys dadas de alta; sin ella (o con una
+ *    desconocida) el cliente es anónimo y la clave sola. La IP no forma parte del ámbito: un móvil que pierde la
+ *    respuesta y reintenta desde otra red (Wi-Fi → datos, CGNAT, otra salida del balanceador) tiene que recibir
+ *    el 201 guardado, no un 409 por un segundo registro. Que otro cliente no lea esa respuesta lo asegura la
+ *    huella del cuerpo (ver más abajo), que incluye la contraseña.
+ *  - La primera petición con una clave se ejecuta y su respuesta (estado, cabeceras de REPLAYED_HEADERS y los
+ *    bytes exactos del cuerpo, capturados con ContentCachingResponseWrapper) se guarda en memoria: Caffeine
+ *    acotada por max-entries y con expiración ttl. Si hay un IdempotencyStore, también se guarda allí.
+ *  - Mientras se ejecuta, la clave está en un mapa aparte que Caffeine no gestiona: una avalancha de claves
+ *    nuevas no puede expulsar una petición en curso (y dejar pasar su duplicado). Ese mapa lo acota la propia
+ *    concurrencia: cada entrada se quita al terminar su petición.
+ *  - Un reintento con la misma clave recibe esa respuesta tal cual, más Idempotent-Replayed: true, sin pasar
+ *    por el controlador ni tocar la base de datos (ni existsByEmail, ni hash de la contraseña).
+ *  - Si llega mientras la original sigue en curso, espera a su CompletableFuture (hasta in-flight-timeout,
+ *    después 409 + Retry-After) en vez de ejecutarse en paralelo.
+ *  - Cada clave va ligada a la huella (SHA-256) del cuerpo: la misma clave con otro cuerpo es un error del
+ *    cliente (422), no se ejecuta ni se devuelve la respuesta guardada. Así conocer una clave ajena no da
+ *    acceso a la respuesta de otro: hay que mandar exactamente el mismo cuerpo.
+ *  - No se guardan 5xx ni 429: son transitorios y el reintento debe ejecutarse de nuevo.
+ *
+ * Sin cabecera, la petición pasa sin cambios. Solo se activa con vibecommerce.idempotency.enabled=true.
+ * Va después de RateLimitFilter (un reintento también consume su token) y antes de ConcurrencyLimitFilter:
+ * un duplicado esperando a la original no ocupa un permiso.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnProperty(name = "vibecommerce.idempotency.enabled", havingValue = "true")
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFilter.class);
+    private static final String USERS_PATH = "/api/v1/users";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final List<String> REPLAYED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LANGUAGE, HttpHeaders.LOCATION, HttpHeaders.ETAG);
+
+    private final String header;
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final long inFlightTimeoutMillis;
+    private final int maxBodyBytes;
+    private final Cache<String, StoredResponse> completed;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final IdempotencyStore store;
+    private final MeterRegistry meterRegistry;
+
+    public IdempotencyFilter(IdempotencyProperties properties, ObjectProvider<IdempotencyStore> store,
+                             MeterRegistry meterRegistry) {
+        this.header = properties.header();
+        this.apiKeyHeader = properties.apiKeyHeader();
+        this.apiKeys = properties.apiKeys() == null ? Set.of() : properties.apiKeys().stream()
+                .filter(apiKey -> !apiKey.isBlank())
+                .collect(Collectors.toUnmodifiableSet());
+        this.inFlightTimeoutMillis = properties.inFlightTimeout().toMillis();
+        this.maxBodyBytes = properties.maxBodyBytes();
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(properties.maxEntries())
+                .expireAfterWrite(properties.ttl())
+                .recordStats()
+                .build();
+        this.store = store.getIfAvailable(() -> IdempotencyStore.NONE);
+        this.meterRegistry = meterRegistry;
+        CaffeineCacheMetrics.monitor(meterRegistry, this.completed, "idempotency");
+        meterRegistry.gauge("users.idempotency.in.flight", this.inFlight, Map::size);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !USERS_PATH.equals(request.getRequestURI())
+                || request.getHeader(this.header) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(this.header);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, "Invalid " + this.header + " header (1-" + MAX_KEY_LENGTH + " characters)", "invalid");
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(this.maxBodyBytes + 1);
+        if (body.length > this.maxBodyBytes) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large for an idempotent request", "invalid");
+            return;
+        }
+        String fingerprint = fingerprint(body);
+        String scopedKey = clientOf(request) + '\n' + key;
+
+        while (true) {
+            StoredResponse done = this.completed.getIfPresent(scopedKey);
+            if (done != null) {
+                replayOrReject(response, done, fingerprint);
+                return;
+            }
+            InFlight claimed = new InFlight(fingerprint);
+            InFlight existing = this.inFlight.putIfAbsent(scopedKey, claimed);
+            if (existing == null) {
+                execute(scopedKey, claimed, new CachedBodyRequest(request, body), response, filterChain);
+                return;
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                rejectMismatch(response);
+                return;
+            }
+
+            StoredResponse stored;
+            try {
+                stored = existing.response.get(this.inFlightTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException exception) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                reject(response, HttpStatus.CONFLICT, "A request with this " + this.header + " is still being processed", "in_flight");
+                return;
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for the original idempotent request", exception);
+            } catch (ExecutionException exception) {
+                stored = null;
+            }
+
+            if (stored != null) {
+                replayOrReject(response, stored, fingerprint);
+                return;
+            }
+            // La original no dejó una respuesta reutilizable (5xx, 429, excepción): se vuelve a reclamar la clave
+        }
+    }
+
+    private void execute(String key, InFlight claimed, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain) throws ServletException, IOException {
+        StoredResponse stored = null;
+        try {
+            // La original pudo terminar entre la consulta a completed y el putIfAbsent; o está en el almacén
+            // (reinicio, otra réplica, entrada expulsada). En ambos casos con la huella de la respuesta guardada
+            stored = this.completed.getIfPresent(key);
+            if (stored == null) {
+                stored = this.store.find(key).orElse(null);
+            }
+            if (stored != null) {
+                replayOrReject(response, stored, claimed.fingerprint);
+                return;
+            }
+
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+            int status = wrapper.getStatus();
+            if (status < HttpStatus.INTERNAL_SERVER_ERROR.value() && status != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                Map<String, String> headers = new LinkedHashMap<>();
+                for (String name : REPLAYED_HEADERS) {
+                    // Tomcat no expone el Content-Type como cabecera hasta que se escribe la respuesta
+                    String value = HttpHeaders.CONTENT_TYPE.equals(name) ? wrapper.getContentType() : wrapper.getHeader(name);
+                    if (value != null) {
+                        headers.put(name, value);
+                    }
+                }
+                stored = new StoredResponse(claimed.fingerprint, status, headers, wrapper.getContentAsByteArray());
+                this.store.save(key, stored);
+            }
+            count("executed");
+            wrapper.copyBodyToResponse();
+        } finally {
+            // Primero a completed y después fuera de inFlight: quien llegue entremedias la encuentra en uno de los dos
+            if (stored != null) {
+                this.completed.put(key, stored);
+            }
+            this.inFlight.remove(key, claimed);
+            // Despierta a los duplicados que esperaban: con null vuelven a intentar ejecutarse
+            claimed.response.complete(stored);
+        }
+    }
+
+    private void replayOrReject(HttpServletResponse response, StoredResponse stored, String fingerprint) throws IOException {
+        if (stored.fingerprint().equals(fingerprint)) {
+            replay(response, stored);
+        } else {
+            rejectMismatch(response);
+        }
+    }
+
+    // Mismo criterio que RateLimitFilter: solo una API key dada de alta identifica al cliente
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(this.apiKeyHeader);
+        if (apiKey != null && this.apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "anonymous";
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        count("replayed");
+        logger.debug("Replaying stored response {} for an idempotent POST {}", stored.status(), USERS_PATH);
+        response.setStatus(stored.status());
+        stored.headers().forEach(response::setHeader);
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void rejectMismatch(HttpServletResponse response) throws IOException {
+        reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                "This " + this.header + " was already used with a different request body", "mismatch");
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message, String outcome) throws IOException {
+        count(outcome);
+        byte[] body = ProblemBody.of(status).render(message);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void count(String outcome) {
+        this.meterRegistry.counter("users.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    private static String fingerprint(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 not available", exception);
+        }
+    }
+
+    // Petición original (o en curso) de una clave: la huella del cuerpo y su respuesta cuando termine
+    private static final class InFlight {
+
+        private final String fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+
+        InFlight(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    // El cuerpo ya se leyó para calcular la huella: el controlador lo vuelve a leer desde memoria
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(this.body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Lectura no bloqueante (petición asíncrona): todo el cuerpo está ya disponible
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException exception) {
+                        readListener.onError(exception);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(this.body),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return this.body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return this.body.length;
+        }
+    }
+}
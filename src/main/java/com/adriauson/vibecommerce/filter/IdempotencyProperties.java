@@ -0,0 +1,27 @@
+package com.adriauson.vibecommerce.filter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+/*
+ * ⚙️ Configuración de IdempotencyFilter (vibecommerce.idempotency.*).
+ *
+ *  - ttl / max-entries: cuánto tiempo y cuántas respuestas se guardan en memoria
+ *  - api-key-header / api-keys: una clave dada de alta separa las Idempotency-Key de ese cliente; sin ella, anónimo
+ *  - in-flight-timeout: cuánto espera un reintento a que termine la petición original con la misma clave
+ *  - max-body-bytes: cuerpo máximo que se lee en memoria para calcular la huella
+ */
+@ConfigurationProperties("vibecommerce.idempotency")
+public record IdempotencyProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("Idempotency-Key") String header,
+        @DefaultValue("X-API-Key") String apiKeyHeader,
+        @DefaultValue Set<String> apiKeys,
+        @DefaultValue("24h") Duration ttl,
+        @DefaultValue("50000") long maxEntries,
+        @DefaultValue("30s") Duration inFlightTimeout,
+        @DefaultValue("16384") int maxBodyBytes) {
+}
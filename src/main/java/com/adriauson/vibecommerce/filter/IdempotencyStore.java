@@ -0,0 +1,35 @@
+package com.adriauson.vibecommerce.filter;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Optional;
+
+/*
+ * 💾 Almacén persistente opcional de las respuestas idempotentes (Redis, una tabla...).
+ *
+ * IdempotencyFilter guarda siempre las respuestas en memoria; si hay un bean de este tipo, además las
+ * escribe aquí y lo consulta cuando una clave no está en memoria (reinicio, otra réplica, entrada expulsada).
+ * Sin bean se usa NONE y todo se queda en memoria.
+ * La implementación debe expirar las entradas por su cuenta (al menos vibecommerce.idempotency.ttl).
+ */
+public interface IdempotencyStore {
+
+    IdempotencyStore NONE = new IdempotencyStore() {
+        @Override
+        public Optional<StoredResponse> find(String key) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void save(String key, StoredResponse response) {
+        }
+    };
+
+    Optional<StoredResponse> find(String key);
+
+    void save(String key, StoredResponse response);
+
+    // fingerprint = SHA-256 del cuerpo de la petición original; body = bytes exactos de la respuesta
+    record StoredResponse(String fingerprint, int status, Map<String, String> headers, byte[] body) implements Serializable {
+    }
+}
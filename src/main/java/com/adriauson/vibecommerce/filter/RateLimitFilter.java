@@ -0,0 +1,226 @@
+package com.adriauson.vibecommerce.filter;
+
+import com.adriauson.vibecommerce.handler.ProblemBody;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/*
+ * 🪣 Token bucket por cliente delante de /api/v1/users.
+ *
+ * Cliente = cabecera X-API-Key si es una de las api-keys dadas de alta, si no la IP. Una clave que nadie comprueba
+ * no puede ser la identidad: mandando una distinta en cada petición cada una tendría un bucket nuevo y lleno.
+ * Cada endpoint configurado (registro, listado, búsqueda...) tiene sus propios buckets, y el resto de rutas
+ * comparten default-limit.
+ *
+ * IP: la del socket. Detrás de un balanceador sería la suya para todos los clientes (un solo bucket), por eso
+ * application.properties activa server.forward-headers-strategy=native: Tomcat toma la IP de X-Forwarded-For
+ * solo cuando la conexión viene de un proxy de confianza (server.tomcat.remoteip.internal-proxies).
+ *
+ * Cada bucket es un único AtomicLong con el algoritmo GCRA (equivalente a un token bucket): guarda el
+ * "instante teórico de llegada" (TAT) y cada petición lo adelanta 1/refill segundos con un CAS, sin locks
+ * ni hilos de recarga. Si el TAT queda más de capacity intervalos por delante de ahora, la petición se
+ * rechaza con 429 + Retry-After. Todas las respuestas llevan RateLimit-Limit / -Remaining / -Reset.
+ *
+ * Memoria acotada: los buckets de cada endpoint viven en una caché Caffeine.
+ *  - expireAfterAccess = tiempo de recarga completa (capacity / refill): pasado ese tiempo sin peticiones el TAT
+ *    ya está en el pasado, el bucket está lleno y es idéntico a uno nuevo, así que descartarlo no cambia nada.
+ *  - maximumSize = max-clients-per-endpoint: una avalancha de IPs distintas no puede agotar el heap. Al llegar
+ *    al máximo Caffeine descarta los buckets menos usados (W-TinyLFU), que son los de esa avalancha, y cada
+ *    cliente sigue teniendo el suyo; no hay un bucket compartido que un atacante pueda vaciar para todos.
+ *
+ * Solo se activa con vibecommerce.rate-limit.enabled=true. Va antes de ConcurrencyLimitFilter:
+ * lo que se rechaza aquí no llega a ocupar un permiso.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "vibecommerce.rate-limit.enabled", havingValue = "true")
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+    private static final String USERS_PATH = "/api/v1/users";
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final byte[] RATE_LIMITED_BODY =
+            ProblemBody.of(HttpStatus.TOO_MANY_REQUESTS).render("Rate limit exceeded, please retry later");
+
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final List<EndpointLimiter> endpointLimiters;
+    private final EndpointLimiter defaultLimiter;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.apiKeyHeader = properties.apiKeyHeader();
+        this.apiKeys = properties.apiKeys() == null ? Set.of() : properties.apiKeys().stream()
+                .filter(key -> !key.isBlank())
+                .collect(Collectors.toUnmodifiableSet());
+        int maxClients = properties.maxClientsPerEndpoint();
+
+        // Los patrones más específicos primero: GET /search no debe caer en GET /{id}
+        List<EndpointLimiter> limiters = new ArrayList<>();
+        Map<String, RateLimitProperties.Endpoint> endpoints = properties.endpoints() != null ? properties.endpoints() : Map.of();
+        endpoints.forEach((name, endpoint) -> limiters.add(new EndpointLimiter(name, endpoint.method(),
+                PathPatternParser.defaultInstance.parse(endpoint.path()), endpoint.capacity(), endpoint.refillPerSecond(),
+                maxClients, meterRegistry)));
+        limiters.sort(Comparator.comparing(limiter -> limiter.pattern, PathPattern.SPECIFICITY_COMPARATOR));
+        this.endpointLimiters = List.copyOf(limiters);
+        this.defaultLimiter = new EndpointLimiter("default", null, null,
+                properties.defaultLimit().capacity(), properties.defaultLimit().refillPerSecond(), maxClients, meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(USERS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointLimiter limiter = limiterFor(request);
+        long now = System.nanoTime();
+        long decision = limiter.tryAcquire(clientOf(request), now);
+
+        response.setHeader("RateLimit-Limit", String.valueOf(limiter.capacity));
+        if (decision >= 0) {
+            // Permitida: decision = nanos hasta que el bucket vuelva a estar lleno
+            response.setHeader("RateLimit-Remaining", String.valueOf(limiter.remaining(decision)));
+            response.setHeader("RateLimit-Reset", String.valueOf(toSeconds(decision)));
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Rechazada: -decision = nanos hasta que quepa una petición más
+        long retryAfterSeconds = toSeconds(-decision);
+        limiter.rejected.increment();
+        logger.debug("Rate limit exceeded on {} for {} {}", limiter.name, request.getMethod(), request.getRequestURI());
+        response.setHeader("RateLimit-Remaining", "0");
+        response.setHeader("RateLimit-Reset", String.valueOf(retryAfterSeconds));
+        rejectRequest(response, retryAfterSeconds);
+    }
+
+    private EndpointLimiter limiterFor(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (EndpointLimiter limiter : this.endpointLimiters) {
+            if (limiter.matches(request.getMethod(), path)) {
+                return limiter;
+            }
+        }
+        return this.defaultLimiter;
+    }
+
+    // Una clave desconocida (o inventada) cuenta como si no viniera: el bucket es el de la IP
+    String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(this.apiKeyHeader);
+        if (apiKey != null && this.apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void rejectRequest(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.setContentLength(RATE_LIMITED_BODY.length);
+        response.getOutputStream().write(RATE_LIMITED_BODY);
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, (nanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+    }
+
+    // Package-private para probar el GCRA con un reloj simulado (tryAcquire recibe "now")
+    static final class EndpointLimiter {
+
+        private final String name;
+        private final String method;
+        private final PathPattern pattern;
+        private final int capacity;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final Cache<String, AtomicLong> buckets;
+        private final Counter rejected;
+
+        EndpointLimiter(String name, String method, PathPattern pattern, int capacity, double refillPerSecond,
+                        int maxClients, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.method = method;
+            this.pattern = pattern;
+            this.capacity = capacity;
+            this.intervalNanos = Math.max(1, (long) (NANOS_PER_SECOND / refillPerSecond));
+            this.burstNanos = this.intervalNanos * capacity;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(Duration.ofNanos(this.burstNanos))
+                    .build();
+            this.rejected = Counter.builder("users.ratelimit.rejected")
+                    .description("Requests rejected with 429 by the per-client rate limiter")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+            Gauge.builder("users.ratelimit.buckets", this.buckets, Cache::estimatedSize)
+                    .description("Clients with a rate limit bucket that has not refilled yet")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+        }
+
+        boolean matches(String requestMethod, PathContainer path) {
+            return (this.method == null || this.method.equalsIgnoreCase(requestMethod)) && this.pattern.matches(path);
+        }
+
+        /*
+         * GCRA: >= 0 si se admite (nanos hasta que el bucket esté lleno otra vez),
+         * < 0 si se rechaza (el valor absoluto son los nanos que faltan para admitir una más).
+         */
+        long tryAcquire(String client, long now) {
+            AtomicLong tat = this.buckets.get(client, key -> new AtomicLong(now));
+            while (true) {
+                long current = tat.get();
+                long next = (current - now > 0 ? current : now) + this.intervalNanos;
+                long backlog = next - now;
+                if (backlog > this.burstNanos) {
+                    return -(backlog - this.burstNanos);
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return backlog;
+                }
+            }
+        }
+
+        int remaining(long backlog) {
+            return (int) ((this.burstNanos - backlog) / this.intervalNanos);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.adriauson.vibecommerce.filter;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * ⚙️ Configuración de RateLimitFilter (vibecommerce.rate-limit.*).
+ *
+ *  - default-limit: lo que se aplica a las peticiones de /api/v1/users que no encajan en ningún endpoint
+ *  - endpoints.<nombre>: método + patrón de ruta con su propio límite; cada uno tiene sus propios buckets
+ *  - capacity: ráfaga máxima; refill-per-second: ritmo sostenido
+ *  - api-keys: claves dadas de alta; solo ellas identifican al cliente por api-key-header, el resto va por IP
+ *  - max-clients-per-endpoint: buckets vivos por endpoint (los menos usados se descartan al llegar al máximo)
+ *
+ * Se valida al arrancar: un refill-per-second de 0 o una capacity negativa fallan en el binding con el nombre
+ * de la propiedad, en vez de convertirse en un intervalo infinito (o negativo) dentro del filtro.
+ */
+@Validated
+@ConfigurationProperties("vibecommerce.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("false") boolean enabled,
+        @NotBlank @DefaultValue("X-API-Key") String apiKeyHeader,
+        @DefaultValue Set<String> apiKeys,
+        @Valid @NotNull @DefaultValue Limit defaultLimit,
+        Map<String, @Valid @NotNull Endpoint> endpoints,
+        @Positive @DefaultValue("100000") int maxClientsPerEndpoint) {
+
+    public record Limit(
+            @Positive @DefaultValue("100") int capacity,
+            @Positive @DefaultValue("50") double refillPerSecond) {
+    }
+
+    public record Endpoint(
+            String method,
+            @NotBlank String path,
+            @Positive @DefaultValue("100") int capacity,
+            @Positive @DefaultValue("50") double refillPerSecond) {
+    }
+}
@@ -1,21 +1,49 @@
 package com.adriauson.vibecommerce.handler;
 
+import com.adriauson.vibecommerce.exception.BatchTooLargeException;
+import com.adriauson.vibecommerce.exception.ConstraintViolations;
 import com.adriauson.vibecommerce.exception.EmailAlreadyExistsException;
+import com.adriauson.vibecommerce.exception.ImportJobNotFoundException;
+import com.adriauson.vibecommerce.exception.PasswordHashingOverloadedException;
+import com.adriauson.vibecommerce.exception.PreconditionFailedException;
+import com.adriauson.vibecommerce.exception.SearchIndexNotReadyException;
+import com.adriauson.vibecommerce.exception.TooManyImportsException;
+import com.adriauson.vibecommerce.exception.TooManySubscribersException;
+import com.adriauson.vibecommerce.exception.UploadTooLargeException;
 import com.adriauson.vibecommerce.exception.UserNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 /*
  * 🔹 GlobalExceptionHandler usa @RestControllerAdvice para capturar excepciones globalmente
  *    sin necesidad de manejarlas manualmente en cada controlador.
  *
- * 🔹 Este ejemplo captura EmailAlreadyExistsException y devuelve una respuesta personalizada
- *    con código HTTP 409 (Conflict) y un cuerpo con mensaje, status y error.
+ * 🔹 Cada excepción se traduce a su código HTTP con un cuerpo RFC 7807 (application/problem+json):
+ *    {"title":"Conflict","status":409,"detail":"Email is already in use"}, más "error" y "message"
+ *    del formato anterior ({status,error,message}) para no romper a los clientes existentes. Ver ProblemBody.
+ *
+ * 🔹 Los cuerpos se escriben ya serializados (byte[]): la parte fija de cada estado se prepara una vez
+ *    y los mensajes que nunca cambian se renderizan una sola vez al cargar la clase.
  *
  * 🔹 Esto mejora la claridad de los errores para el cliente y evita errores 500 innecesarios.
  */
@@ -25,28 +53,150 @@ import java.util.Map;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    private static final ProblemBody BAD_REQUEST = ProblemBody.of(HttpStatus.BAD_REQUEST);
+    private static final ProblemBody NOT_FOUND = ProblemBody.of(HttpStatus.NOT_FOUND);
+    private static final ProblemBody CONFLICT = ProblemBody.of(HttpStatus.CONFLICT);
+    private static final ProblemBody PRECONDITION_FAILED = ProblemBody.of(HttpStatus.PRECONDITION_FAILED);
+    private static final ProblemBody PAYLOAD_TOO_LARGE = ProblemBody.of(HttpStatus.PAYLOAD_TOO_LARGE);
+    private static final ProblemBody SERVICE_UNAVAILABLE = ProblemBody.of(HttpStatus.SERVICE_UNAVAILABLE);
+    private static final ProblemBody INTERNAL_SERVER_ERROR = ProblemBody.of(HttpStatus.INTERNAL_SERVER_ERROR);
+
+    private static final byte[] DATA_CONFLICT_BODY = CONFLICT.render("The request conflicts with existing data");
+    private static final byte[] CONCURRENT_MODIFICATION_BODY = CONFLICT.render("The user was modified concurrently, please retry");
+    private static final byte[] MALFORMED_BODY = BAD_REQUEST.render("Malformed request body");
+    private static final byte[] INVALID_DATA_BODY = BAD_REQUEST.render("A value is too long or out of range for its field");
+    private static final byte[] INTERNAL_ERROR_BODY = INTERNAL_SERVER_ERROR.render("Unexpected error while saving the data");
+
     // 👉 Este método se ejecuta cuando se lanza EmailAlreadyExistsException
     @ExceptionHandler(EmailAlreadyExistsException.class)
     public ResponseEntity<?> handleEmailExists(EmailAlreadyExistsException exception) {
 
-        // 🧾 Creamos una respuesta personalizada como mapa clave-valor
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", HttpStatus.CONFLICT.value()); // 409
-        response.put("error", "Conflict"); // Nombre del estado HTTP
-        response.put("message", exception.getMessage()); // Mensaje que lanzamos desde el servicio
+        // 📤 Devolvemos 409 Conflict con el mensaje que lanzamos desde el servicio
+        return CONFLICT.toResponse(CONFLICT.render(exception.getMessage()));
+    }
+    // 🛡️ Red de seguridad: si una clave única de la BD (p. ej. el email) salta fuera del servicio devolvemos 409.
+    // El resto no es culpa del cliente y no se disfraza de conflicto: un valor demasiado largo es un 400 y un choque
+    // de clave primaria, un NOT NULL o una FK son un 500 que tiene que verse en el log (ver ConstraintViolations)
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<?> handleDataIntegrityViolation(DataIntegrityViolationException exception) {
+        if (ConstraintViolations.isUniqueKeyViolation(exception)) {
+            return CONFLICT.toResponse(DATA_CONFLICT_BODY);
+        }
+        if (ConstraintViolations.isInvalidData(exception)) {
+            return BAD_REQUEST.toResponse(INVALID_DATA_BODY);
+        }
+        logger.error("Unexpected data integrity violation", exception);
+        return INTERNAL_SERVER_ERROR.toResponse(INTERNAL_ERROR_BODY);
+    }
 
-        // 📤 Devolvemos una respuesta con cuerpo personalizado y código 409 Conflict
-        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    // 🏷️ Escrituras concurrentes sobre el mismo usuario que siguen chocando tras los reintentos
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleOptimisticLockingFailure(OptimisticLockingFailureException exception) {
+        return CONFLICT.toResponse(CONCURRENT_MODIFICATION_BODY);
     }
+
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<?> handleUserNoSuchElementException(UserNotFoundException exception) {
+        return NOT_FOUND.toResponse(NOT_FOUND.render(exception.getMessage()));
+    }
+
+    // 🏷️ If-Match con una versión que ya no es la actual
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<?> handlePreconditionFailed(PreconditionFailedException exception) {
+        return PRECONDITION_FAILED.toResponse(PRECONDITION_FAILED.render(exception.getMessage()));
+    }
+
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<?> handleBatchTooLarge(BatchTooLargeException exception) {
+        return PAYLOAD_TOO_LARGE.toResponse(
+                PAYLOAD_TOO_LARGE.render(exception.getMessage(), "maxSize", exception.getMaxSize()));
+    }
+
+    // 📥 Importación CSV por encima de max-upload-size: como cuerpo text/csv (UploadTooLargeException, al copiarlo)
+    // o como multipart (MaxUploadSizeExceededException, al parsearlo Tomcat con los límites de spring.servlet.multipart)
+    @ExceptionHandler(UploadTooLargeException.class)
+    public ResponseEntity<?> handleUploadTooLarge(UploadTooLargeException exception) {
+        return PAYLOAD_TOO_LARGE.toResponse(
+                PAYLOAD_TOO_LARGE.render(exception.getMessage(), "maxBytes", exception.getMaxBytes()));
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<?> handleMaxUploadSize(MaxUploadSizeExceededException exception) {
+        return PAYLOAD_TOO_LARGE.toResponse(PAYLOAD_TOO_LARGE.render("Upload too large", "maxBytes", exception.getMaxUploadSize()));
+    }
+
+    // 🔐 Pool de hashing saturado: 503 + Retry-After para que el cliente reintente más tarde
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<?> handlePasswordHashingOverloaded(PasswordHashingOverloadedException exception) {
+        return serviceUnavailable(exception.getMessage(), exception.getRetryAfterSeconds());
+    }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", HttpStatus.NOT_FOUND.value());
-        response.put("error", "Not Found");
-        response.put("message", exception.getMessage());
+    @ExceptionHandler(SearchIndexNotReadyException.class)
+    public ResponseEntity<?> handleSearchIndexNotReady(SearchIndexNotReadyException exception) {
+        return serviceUnavailable(exception.getMessage(), exception.getRetryAfterSeconds());
+    }
+
+    // 📡 Feed de cambios lleno: el cliente vuelve a conectar más tarde (con su Last-Event-ID no pierde nada)
+    @ExceptionHandler(TooManySubscribersException.class)
+    public ResponseEntity<?> handleTooManySubscribers(TooManySubscribersException exception) {
+        return serviceUnavailable(exception.getMessage(), exception.getRetryAfterSeconds());
+    }
+
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ResponseEntity<?> handleImportJobNotFound(ImportJobNotFoundException exception) {
+        return NOT_FOUND.toResponse(NOT_FOUND.render(exception.getMessage()));
+    }
+
+    // 📥 Cola de importaciones CSV llena: el fichero no se llega a guardar, el cliente lo sube más tarde
+    @ExceptionHandler(TooManyImportsException.class)
+    public ResponseEntity<?> handleTooManyImports(TooManyImportsException exception) {
+        return serviceUnavailable(exception.getMessage(), exception.getRetryAfterSeconds());
+    }
+
+    // ✅ @Valid sobre el cuerpo: un "invalid-params" por campo (o por regla de clase, como @PasswordsMatch)
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<?> handleValidation(MethodArgumentNotValidException exception) {
+        return BAD_REQUEST.toResponse(renderValidation(exception));
+    }
+
+    // Cuerpo 400 de un BindingResult, ordenado por campo; también lo usa ReactiveExceptionHandler (perfil Maven "reactive")
+    public static byte[] renderValidation(BindingResult result) {
+        List<ProblemBody.InvalidParam> invalidParams = new ArrayList<>(result.getErrorCount());
+        for (ObjectError error : result.getAllErrors()) {
+            String name = error instanceof FieldError fieldError ? fieldError.getField() : error.getObjectName();
+            invalidParams.add(new ProblemBody.InvalidParam(name, error.getDefaultMessage()));
+        }
+        invalidParams.sort(Comparator.comparing(ProblemBody.InvalidParam::name)
+                .thenComparing(param -> String.valueOf(param.reason())));
+        return BAD_REQUEST.render("Validation failed", invalidParams);
+    }
+
+    // 🔢 ?ids=abc, ?after=x...: el valor no se puede convertir al tipo del parámetro
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<?> handleTypeMismatch(MethodArgumentTypeMismatchException exception) {
+        return BAD_REQUEST.toResponse(BAD_REQUEST.render("Invalid value for parameter '" + exception.getName() + "'",
+                List.of(new ProblemBody.InvalidParam(exception.getName(), "Invalid value"))));
+    }
+
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<?> handleMissingParameter(MissingServletRequestParameterException exception) {
+        return BAD_REQUEST.toResponse(BAD_REQUEST.render("Required parameter '" + exception.getParameterName() + "' is missing",
+                List.of(new ProblemBody.InvalidParam(exception.getParameterName(), "Required"))));
+    }
+
+    // JSON mal formado o con tipos incorrectos: no devolvemos el detalle de Jackson (revela clases internas)
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<?> handleNotReadable(HttpMessageNotReadableException exception) {
+        return BAD_REQUEST.toResponse(MALFORMED_BODY);
+    }
 
-        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    private static ResponseEntity<byte[]> serviceUnavailable(String message, long retryAfterSeconds) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(SERVICE_UNAVAILABLE.render(message));
     }
 }
 
@@ -0,0 +1,116 @@
+package com.adriauson.vibecommerce.handler;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/*
+ * 🧾 Cuerpos de error RFC 7807 (application/problem+json) pre-serializados.
+ *
+ * Formato: {"title":"Not Found","status":404,"error":"Not Found","detail":"...","message":"..."} (sin "type":
+ * ausente equivale a about:blank). Los errores de validación añaden "invalid-params":[{"name":...,"reason":...}]
+ * y algunos un campo propio (p. ej. "maxSize" en el 413).
+ *
+ * "error" y "message" son los campos del cuerpo anterior ({status,error,message}) y repiten title y detail:
+ * RFC 7807 permite miembros de extensión, así que los clientes que leen el formato antiguo siguen funcionando.
+ *
+ * La parte fija (title + status) se serializa una vez por estado al crear la constante; cada error solo
+ * escapa su detail y copia bytes, sin Map intermedio ni ObjectMapper. Los cuerpos que nunca cambian se
+ * renderizan una vez y se reutilizan tal cual (ver GlobalExceptionHandler y los filtros).
+ */
+public final class ProblemBody {
+
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+    private static final byte[] DETAIL = bytes(",\"detail\":\"");
+    private static final byte[] MESSAGE = bytes("\",\"message\":\"");
+    private static final byte[] EXTENSION = bytes("\",\"");
+    private static final byte[] INVALID_PARAMS = bytes("\",\"invalid-params\":[");
+    private static final byte[] NAME = bytes("{\"name\":\"");
+    private static final byte[] REASON = bytes("\",\"reason\":\"");
+    private static final byte[] END = bytes("\"}");
+
+    private final HttpStatus status;
+    private final byte[] prefix;
+
+    private ProblemBody(HttpStatus status) {
+        this.status = status;
+        this.prefix = bytes("{\"title\":\"" + status.getReasonPhrase() + "\",\"status\":" + status.value()
+                + ",\"error\":\"" + status.getReasonPhrase() + "\"");
+    }
+
+    public static ProblemBody of(HttpStatus status) {
+        return new ProblemBody(status);
+    }
+
+    public HttpStatus status() {
+        return this.status;
+    }
+
+    public byte[] render(String detail) {
+        ByteArrayOutputStream out = start(detail);
+        out.writeBytes(END);
+        return out.toByteArray();
+    }
+
+    // Con un miembro de extensión numérico: {"title":...,"detail":"...","maxSize":1000}
+    public byte[] render(String detail, String name, long value) {
+        ByteArrayOutputStream out = start(detail);
+        // name lo pone el código, pero se escapa igual: un nombre con comillas no puede romper el JSON
+        out.writeBytes(EXTENSION);
+        out.writeBytes(ENCODER.quoteAsUTF8(name));
+        out.writeBytes(bytes("\":" + value + "}"));
+        return out.toByteArray();
+    }
+
+    public byte[] render(String detail, List<InvalidParam> invalidParams) {
+        ByteArrayOutputStream out = start(detail);
+        out.writeBytes(INVALID_PARAMS);
+        for (int i = 0; i < invalidParams.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            InvalidParam param = invalidParams.get(i);
+            out.writeBytes(NAME);
+            out.writeBytes(ENCODER.quoteAsUTF8(param.name()));
+            out.writeBytes(REASON);
+            out.writeBytes(ENCODER.quoteAsUTF8(param.reason() == null ? "" : param.reason()));
+            out.writeBytes(END);
+        }
+        out.write(']');
+        out.write('}');
+        return out.toByteArray();
+    }
+
+    // Para GlobalExceptionHandler: el Content-Type explícito evita la negociación, el cuerpo ya son bytes
+    public ResponseEntity<byte[]> toResponse(byte[] body) {
+        return ResponseEntity.status(this.status)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(body);
+    }
+
+    // Deja escrito {"title":...,"status":...,"error":...,"detail":"<detail>","message":"<detail> (sin cerrar la comilla)
+    private ByteArrayOutputStream start(String detail) {
+        byte[] escaped = ENCODER.quoteAsUTF8(detail == null ? "" : detail);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                this.prefix.length + DETAIL.length + MESSAGE.length + 2 * escaped.length + 16);
+        out.writeBytes(this.prefix);
+        out.writeBytes(DETAIL);
+        out.writeBytes(escaped);
+        out.writeBytes(MESSAGE);
+        out.writeBytes(escaped);
+        return out;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Un campo o parámetro rechazado (RFC 7807, "invalid-params")
+    public record InvalidParam(String name, String reason) {
+    }
+}
@@ -4,8 +4,12 @@ import com.adriauson.vibecommerce.dto.RegisterUserDto;
 import com.adriauson.vibecommerce.dto.UpdateUserDto;
 import com.adriauson.vibecommerce.dto.UserDto;
 import com.adriauson.vibecommerce.entity.User;
+import com.adriauson.vibecommerce.repository.projection.UserSummary;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 // podía haber usado modelMapper para hacer el mapeo automático
 // De momento lo hago así para entender mejor el mapeo
 
@@ -98,6 +102,24 @@ public class UserMapper {
         userDto.setPassword("*****");
         userDto.setEmail(user.getEmail());
         userDto.setAddress(user.getAddress());
+        userDto.setVersion(user.getVersion() == null ? 0L : user.getVersion());
+
+        return userDto;
+
+    }
+
+    // Mismo resultado que mapUserToUserDto pero desde la proyección de lectura (sin entidad ni password)
+    public UserDto mapUserSummaryToUserDto(UserSummary summary){
+
+        UserDto userDto = new UserDto();
+
+        userDto.setId(summary.id());
+        userDto.setFirstName(summary.firstName());
+        userDto.setLastName(summary.lastName());
+        userDto.setPassword("*****");
+        userDto.setEmail(summary.email());
+        userDto.setAddress(summary.address());
+        userDto.setVersion(summary.version());
 
         return userDto;
 
@@ -110,7 +132,7 @@ public class UserMapper {
         user.setFirstName(registerDto.getFirstName());
         user.setLastName(registerDto.getLastName());
 
-        // aqui hashearíamos la contraseña antes de guardarla
+        // Contraseña en claro: UserServiceImpl la sustituye por el hash (PasswordHashingService) antes de guardar
         user.setPassword(registerDto.getPassword());
         user.setEmail(registerDto.getEmail());
         user.setAddress(registerDto.getAddress());
@@ -130,7 +152,7 @@ public class UserMapper {
             user.setLastName(updateDto.getLastName());
         }
 
-        // Aqui hashearíamos la password
+        // En claro: el hash lo calcula UserServiceImpl con PasswordHashingService
         if (updateDto.getPassword() != null){
             user.setPassword(updateDto.getPassword());
         }
@@ -144,5 +166,32 @@ public class UserMapper {
 
     }
 
+    // 🎯 Para el PATCH con UPDATE dirigido: solo los campos presentes en el DTO (atributo de User → valor)
+    public Map<String, Object> mapUpdateUserDtoToChangedFields(UpdateUserDto updateDto){
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+
+        if (updateDto.getFirstName() != null) {
+            changes.put("firstName", updateDto.getFirstName());
+        }
 
+        if (updateDto.getLastName() != null){
+            changes.put("lastName", updateDto.getLastName());
+        }
+
+        // En claro: el hash lo calcula UserServiceImpl con PasswordHashingService
+        if (updateDto.getPassword() != null){
+            changes.put("password", updateDto.getPassword());
+        }
+        if (updateDto.getEmail() != null){
+            changes.put("email", updateDto.getEmail());
+        }
+
+        if (updateDto.getAddress() != null){
+            changes.put("address", updateDto.getAddress());
+        }
+
+        return changes;
+
+    }
 }
@@ -0,0 +1,70 @@
+package com.adriauson.vibecommerce.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/*
+ * 📊 users.request.statements{method, uri}: número de sentencias SQL por petición a /api/v1/users.
+ * users.request.statement.bytes{method, uri}: bytes del texto de esas sentencias (ver StatementCountingInspector).
+ * uri es el patrón de la ruta (/api/v1/users/{id}), no la URL real, para no disparar la cardinalidad.
+ * Las sentencias que se ejecutan en otro hilo (p. ej. el export en streaming) no se cuentan aquí.
+ * También marca la primera petición atendida (application.first.request.time, ver StartupMetrics).
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    private static final String USERS_PATH = "/api/v1/users";
+
+    private final StatementCountingInspector statementCountingInspector;
+    private final MeterRegistry meterRegistry;
+    private final StartupMetrics startupMetrics;
+
+    public RequestMetricsFilter(StatementCountingInspector statementCountingInspector, MeterRegistry meterRegistry,
+                                StartupMetrics startupMetrics) {
+        this.statementCountingInspector = statementCountingInspector;
+        this.meterRegistry = meterRegistry;
+        this.startupMetrics = startupMetrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(USERS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        this.statementCountingInspector.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("users.request.statements")
+                    .description("SQL statements prepared per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(this.meterRegistry)
+                    .record(this.statementCountingInspector.currentCount());
+            DistributionSummary.builder("users.request.statement.bytes")
+                    .description("Bytes of SQL text prepared per request, bind values excluded")
+                    .baseUnit("bytes")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(this.meterRegistry)
+                    .record(this.statementCountingInspector.currentBytes());
+            this.startupMetrics.recordRequestCompleted();
+        }
+    }
+}
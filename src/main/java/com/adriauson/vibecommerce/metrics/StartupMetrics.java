@@ -0,0 +1,61 @@
+package com.adriauson.vibecommerce.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * ⏱️ Tiempo de arranque para comparar builds (con y sin AOT / CDS, perfil "prod").
+ * Spring Boot ya publica application.started.time y application.ready.time, contados desde que arranca
+ * SpringApplication. Aquí se añade application.first.request.time: uptime de la JVM (incluye la carga
+ * de clases antes de main) cuando termina la primera petición a /api/v1/users, que es cuando la réplica
+ * empieza a ser útil (los índices en memoria se reconstruyen después de application.ready.time).
+ */
+@Component
+public class StartupMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupMetrics.class);
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean firstRequestRecorded = new AtomicBoolean();
+
+    public StartupMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        logger.info("Ready in {} ms (JVM uptime {} ms, AOT {}, CDS {})",
+                event.getTimeTaken().toMillis(), ManagementFactory.getRuntimeMXBean().getUptime(),
+                AotDetector.useGeneratedArtifacts() ? "on" : "off", sharedArchive());
+    }
+
+    // Lo llama RequestMetricsFilter al terminar cada petición: después de la primera es un solo get()
+    public void recordRequestCompleted() {
+        if (this.firstRequestRecorded.get() || !this.firstRequestRecorded.compareAndSet(false, true)) {
+            return;
+        }
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        TimeGauge.builder("application.first.request.time", () -> uptime, TimeUnit.MILLISECONDS)
+                .description("JVM uptime when the first /api/v1/users request completed")
+                .register(this.meterRegistry);
+        logger.info("First request served {} ms after JVM start", uptime);
+    }
+
+    private static String sharedArchive() {
+        return ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .filter(argument -> argument.startsWith("-XX:SharedArchiveFile="))
+                .map(argument -> argument.substring("-XX:SharedArchiveFile=".length()))
+                .findFirst()
+                .orElse("off");
+    }
+}
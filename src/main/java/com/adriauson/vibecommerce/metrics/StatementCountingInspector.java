@@ -0,0 +1,68 @@
+package com.adriauson.vibecommerce.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/*
+ * 🔢 Cuenta las sentencias SQL que prepara Hibernate en el hilo actual y los bytes (UTF-8) de su texto.
+ * Se registra como hibernate.session_factory.statement_inspector y RequestMetricsFilter lo
+ * reinicia al empezar cada petición y lee los totales al terminar (sentencias y bytes por petición).
+ * Los bytes son los del SQL que se prepara, sin los valores de los parámetros: un UPDATE de todas las
+ * columnas frente a uno de una sola se distingue aquí, el tamaño de cada valor enlazado no.
+ * No modifica el SQL: inspect() devuelve la misma sentencia.
+ */
+@Component
+public class StatementCountingInspector implements StatementInspector, HibernatePropertiesCustomizer {
+
+    // [0] sentencias, [1] bytes
+    private static final ThreadLocal<long[]> COUNTERS = ThreadLocal.withInitial(() -> new long[2]);
+
+    @Override
+    public String inspect(String sql) {
+        long[] counters = COUNTERS.get();
+        counters[0]++;
+        counters[1] += utf8Length(sql);
+        return sql;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put("hibernate.session_factory.statement_inspector", this);
+    }
+
+    public void reset() {
+        long[] counters = COUNTERS.get();
+        counters[0] = 0;
+        counters[1] = 0;
+    }
+
+    public int currentCount() {
+        return (int) COUNTERS.get()[0];
+    }
+
+    public long currentBytes() {
+        return COUNTERS.get()[1];
+    }
+
+    // Sin getBytes(): se llama por cada sentencia y no debe asignar memoria
+    static int utf8Length(String sql) {
+        int length = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < sql.length() && Character.isLowSurrogate(sql.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,43 @@
+package com.adriauson.vibecommerce.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/*
+ * 📊 Envuelve el validador de Spring MVC para medir cuánto cuesta validar cada @Valid @RequestBody.
+ * Métrica: users.validation{target} (target = clase validada, p. ej. RegisterUserDto).
+ */
+public class TimedValidator implements SmartValidator {
+
+    private final SmartValidator delegate;
+    private final MeterRegistry meterRegistry;
+
+    public TimedValidator(SmartValidator delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return this.delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        timer(target).record(() -> this.delegate.validate(target, errors));
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        timer(target).record(() -> this.delegate.validate(target, errors, validationHints));
+    }
+
+    private Timer timer(Object target) {
+        return Timer.builder("users.validation")
+                .description("Bean Validation time per request body")
+                .tag("target", target.getClass().getSimpleName())
+                .register(this.meterRegistry);
+    }
+}
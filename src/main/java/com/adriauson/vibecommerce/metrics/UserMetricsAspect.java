@@ -0,0 +1,115 @@
+package com.adriauson.vibecommerce.metrics;
+
+import com.adriauson.vibecommerce.exception.BatchTooLargeException;
+import com.adriauson.vibecommerce.exception.EmailAlreadyExistsException;
+import com.adriauson.vibecommerce.exception.ImportJobNotFoundException;
+import com.adriauson.vibecommerce.exception.PasswordHashingOverloadedException;
+import com.adriauson.vibecommerce.exception.PreconditionFailedException;
+import com.adriauson.vibecommerce.exception.SearchIndexNotReadyException;
+import com.adriauson.vibecommerce.exception.TooManyImportsException;
+import com.adriauson.vibecommerce.exception.TooManySubscribersException;
+import com.adriauson.vibecommerce.exception.UploadTooLargeException;
+import com.adriauson.vibecommerce.exception.UserNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * 📊 Timers alrededor de cada método de UserService y de UserMapper.
+ *
+ *  - users.service{method, outcome}: outcome = success | not_found | conflict | precondition_failed | rejected | error
+ *    (rejected = 413 y 503 previstos: lote o fichero demasiado grande, pool de hashing o cola llenos, índice sin
+ *    construir). Solo error cuenta fallos del servidor.
+ *  - users.mapper{method}
+ *
+ * Cada Timer se registra una sola vez y se guarda por método (y outcome): el mapper se llama por fila en la
+ * exportación, el registro por lotes y la importación CSV, y buscar el meter en el registro (builder + tags +
+ * lookup) en cada fila costaba más que el propio mapeo.
+ *
+ * Es el aspecto más externo (HIGHEST_PRECEDENCE), así que el tiempo de UserService incluye
+ * la caché y la transacción: un hit de caché también cuenta, como lo ve el cliente.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class UserMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<ServiceTimerKey, Timer> serviceTimers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Method, Timer> mapperTimers = new ConcurrentHashMap<>();
+
+    public UserMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(* com.adriauson.vibecommerce.service.UserService.*(..))")
+    public Object timeUserService(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(this.meterRegistry);
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable throwable) {
+            outcome = outcomeOf(throwable);
+            throw throwable;
+        } finally {
+            sample.stop(serviceTimer(((MethodSignature) joinPoint.getSignature()).getMethod(), outcome));
+        }
+    }
+
+    @Around("execution(public * com.adriauson.vibecommerce.mapper.UserMapper.*(..))")
+    public Object timeUserMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(this.meterRegistry);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            sample.stop(mapperTimer(((MethodSignature) joinPoint.getSignature()).getMethod()));
+        }
+    }
+
+    // Excepciones de negocio → outcome; lo que no es una respuesta prevista es un fallo del servidor
+    static String outcomeOf(Throwable throwable) {
+        if (throwable instanceof UserNotFoundException || throwable instanceof ImportJobNotFoundException) {
+            return "not_found";
+        }
+        if (throwable instanceof EmailAlreadyExistsException || throwable instanceof OptimisticLockingFailureException) {
+            return "conflict";
+        }
+        if (throwable instanceof PreconditionFailedException) {
+            return "precondition_failed";
+        }
+        if (throwable instanceof BatchTooLargeException || throwable instanceof UploadTooLargeException
+                || throwable instanceof PasswordHashingOverloadedException || throwable instanceof SearchIndexNotReadyException
+                || throwable instanceof TooManyImportsException || throwable instanceof TooManySubscribersException) {
+            return "rejected";
+        }
+        return "error";
+    }
+
+    Timer serviceTimer(Method method, String outcome) {
+        return this.serviceTimers.computeIfAbsent(new ServiceTimerKey(method, outcome), key -> Timer.builder("users.service")
+                .description("UserService method latency")
+                .tag("method", key.method().getName())
+                .tag("outcome", key.outcome())
+                .register(this.meterRegistry));
+    }
+
+    Timer mapperTimer(Method method) {
+        return this.mapperTimers.computeIfAbsent(method, key -> Timer.builder("users.mapper")
+                .description("UserMapper method latency")
+                .tag("method", key.getName())
+                .register(this.meterRegistry));
+    }
+
+    private record ServiceTimerKey(Method method, String outcome) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.adriauson.vibecommerce.repository;
+
+import com.adriauson.vibecommerce.entity.UserChangeEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/*
+ * 📮 Acceso a la outbox de cambios (ver UserChangeEvent).
+ *
+ * Las lecturas del dispatcher llevan @Transactional de escritura a propósito: así van siempre al primario
+ * (ver ReadWriteRoutingDataSource). Leyendo de una réplica con retraso el cursor podría adelantar eventos
+ * que la réplica todavía no tiene y no se enviarían nunca.
+ */
+@Repository
+public interface UserChangeEventRepository extends JpaRepository<UserChangeEvent, Long>, UserChangeEventRepositoryCustom {
+
+    // ⏳ Lo confirmado después del cursor; los huecos (IDs cuya transacción aún no ha terminado) los vigila OutboxGapTracker
+    @Transactional
+    @Query("select e from UserChangeEvent e where e.id > :after order by e.id")
+    List<UserChangeEvent> findAfter(long after, Limit limit);
+
+    // 🔁 Reenvío a un suscriptor que vuelve con Last-Event-ID: el tramo (after, upTo] que se perdió
+    @Transactional
+    @Query("select e from UserChangeEvent e where e.id > :after and e.id <= :upTo order by e.id")
+    List<UserChangeEvent> findRange(long after, long upTo, Limit limit);
+
+    // Punto de partida del dispatcher al arrancar: lo anterior ya no es "nuevo"
+    @Transactional
+    @Query("select coalesce(max(e.id), 0) from UserChangeEvent e")
+    long findLastId();
+
+    // Para saber si lo que pide un Last-Event-ID muy antiguo ya se ha purgado
+    @Transactional
+    @Query("select min(e.id) from UserChangeEvent e")
+    Optional<Long> findOldestId();
+
+    // 🧹 Retención: un DELETE por rango sobre el índice de created_at
+    @Transactional
+    @Modifying
+    @Query("delete from UserChangeEvent e where e.createdAt < :cutoff")
+    int deleteOlderThan(Instant cutoff);
+}
@@ -0,0 +1,17 @@
+package com.adriauson.vibecommerce.repository;
+
+import com.adriauson.vibecommerce.entity.UserChangeEvent;
+
+import java.util.List;
+
+/*
+ * 🧩 Fragmento personalizado de UserChangeEventRepository (Spring Data lo enlaza con UserChangeEventRepositoryCustomImpl).
+ *
+ * insertAll escribe los eventos con INSERTs de varias filas:
+ *     INSERT INTO user_change_events (...) VALUES (?, ?, ?, ?, ?), (?, ?, ?, ?, ?), ...
+ * Con ID IDENTITY Hibernate no puede agrupar los save() en batches JDBC (necesita cada ID al momento), así que
+ * un alta por lotes de 500 usuarios eran 500 INSERTs. Los IDs no se leen de vuelta: nadie los necesita al escribir.
+ */
+public interface UserChangeEventRepositoryCustom {
+    void insertAll(List<UserChangeEvent> events);
+}
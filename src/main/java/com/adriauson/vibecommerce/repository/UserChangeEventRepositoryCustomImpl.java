@@ -0,0 +1,48 @@
+package com.adriauson.vibecommerce.repository;
+
+import com.adriauson.vibecommerce.entity.UserChangeEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public class UserChangeEventRepositoryCustomImpl implements UserChangeEventRepositoryCustom {
+
+    // Cada número de filas es otra sentencia en la caché de planes de Hibernate: se acota el tamaño del INSERT
+    private static final int ROWS_PER_INSERT = 100;
+    private static final String INSERT = "insert into user_change_events (type, user_id, user_version, payload, created_at) values ";
+    private static final String ROW = "(?, ?, ?, ?, ?)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Sentencia nativa por el EntityManager (no JdbcTemplate): misma conexión y transacción que el cambio, y
+    // el Instant se enlaza con el mismo tipo JDBC que usa la entidad
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void insertAll(List<UserChangeEvent> events) {
+        for (int from = 0; from < events.size(); from += ROWS_PER_INSERT) {
+            List<UserChangeEvent> chunk = events.subList(from, Math.min(from + ROWS_PER_INSERT, events.size()));
+            StringBuilder sql = new StringBuilder(INSERT.length() + chunk.size() * (ROW.length() + 1)).append(INSERT);
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i > 0 ? "," : "").append(ROW);
+            }
+            @SuppressWarnings("unchecked")
+            NativeQuery<Void> insert = this.entityManager.createNativeQuery(sql.toString()).unwrap(NativeQuery.class);
+            int position = 1;
+            for (UserChangeEvent event : chunk) {
+                // Tipos explícitos: user_version y payload van a null en los borrados
+                insert.setParameter(position++, event.getType().name(), String.class);
+                insert.setParameter(position++, event.getUserId(), Long.class);
+                insert.setParameter(position++, event.getUserVersion(), Long.class);
+                insert.setParameter(position++, event.getPayload(), String.class);
+                insert.setParameter(position++, event.getCreatedAt(), Instant.class);
+            }
+            insert.executeUpdate();
+        }
+    }
+}
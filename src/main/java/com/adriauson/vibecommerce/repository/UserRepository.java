@@ -2,8 +2,24 @@ package com.adriauson.vibecommerce.repository;
 
 
 import com.adriauson.vibecommerce.entity.User;
+import com.adriauson.vibecommerce.repository.projection.StoredPassword;
+import com.adriauson.vibecommerce.repository.projection.UserSummary;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /*
  * UserRepository extiende JpaRepository, lo que proporciona automáticamente
@@ -44,6 +60,80 @@ import org.springframework.stereotype.Repository;
 */
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    // 🪶 Proyección común de las lecturas: nunca toca la columna password
+    String SELECT_SUMMARY = "select new com.adriauson.vibecommerce.repository.projection.UserSummary("
+            + "u.id, u.firstName, u.lastName, u.email, u.address, coalesce(u.version, 0)) from User u";
+
     boolean existsByEmail(String email); // comprobaremos si ya existe usuario con esa cuenta
+
+    @Query(SELECT_SUMMARY + " where u.id = :id")
+    Optional<UserSummary> findSummaryById(Long id);
+
+    // 🏷️ Consulta mínima para las peticiones condicionales (ETag): solo la versión
+    @Query("select coalesce(u.version, 0) from User u where u.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    // 📄 Keyset pagination: "WHERE id > :after ORDER BY id LIMIT :limit"
+    // Va directo por la PK, así que la página 1 y la 10.000 cuestan lo mismo (sin OFFSET)
+    @Query(SELECT_SUMMARY + " where u.id > :after order by u.id")
+    List<UserSummary> findSummariesAfter(Long after, Limit limit);
+
+    // 📦 Comprobación de duplicados por lotes: una sola consulta IN en vez de un existsByEmail por usuario
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    // 🌊 Solo la columna email y en streaming: sirve para reconstruir el filtro de emails al arrancar
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.email from User u")
+    Stream<String> streamAllEmails();
+
+    // 🔎 Para construir el índice de búsqueda al arrancar (en orden de ID, así las listas del índice crecen por el final)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SELECT_SUMMARY + " order by u.id")
+    Stream<UserSummary> streamAllSummaries();
+
+    // Resuelve en una sola consulta los IDs de una página de resultados de búsqueda o de un bloque del multi-get.
+    // readOnly: llamado fuera de una transacción (multi-get) abre la suya y va a la réplica; dentro, se une a la actual
+    @Transactional(readOnly = true)
+    @Query(SELECT_SUMMARY + " where u.id in :ids order by u.id")
+    List<UserSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    // Qué IDs de un borrado masivo existen de verdad, bloqueándolos (SELECT ... FOR UPDATE) hasta el DELETE:
+    // otro borrado concurrente no puede llevarse alguno entre medias y dejar un evento DELETED duplicado.
+    // MySQL no tiene DELETE ... RETURNING, así que son dos sentencias sobre la PK en vez de una
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u.id from User u where u.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    // 🗑️ Un único DELETE: sin cargar la entidad antes (deleteById hace findById + remove).
+    // Devuelve las filas afectadas → 0 significa que el usuario no existía.
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteByIdReturningCount(Long id);
+
+    // Igual pero solo si la versión coincide (DELETE con If-Match)
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.id = :id and coalesce(u.version, 0) = :version")
+    int deleteByIdAndVersionReturningCount(Long id, Long version);
+
+    @Transactional
+    @Modifying
+    @Query("delete from User u where u.id in :ids")
+    int deleteAllByIdReturningCount(Collection<Long> ids);
+
+    // 🔑 Contraseñas heredadas en claro (no tienen forma de hash BCrypt), por bloques en orden de ID
+    @Query("select new com.adriauson.vibecommerce.repository.projection.StoredPassword(u.id, u.password) from User u "
+            + "where u.id > :after and (u.password not like '$2%' or length(u.password) <> 60) order by u.id")
+    List<StoredPassword> findLegacyPasswordsAfter(Long after, Limit limit);
+
+    // Solo si nadie ha cambiado la contraseña mientras se calculaba el hash. Sin tocar la versión:
+    // la representación del usuario (y su ETag) no incluye la contraseña
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :hash where u.id = :id and u.password = :previous")
+    int replacePasswordIfUnchanged(Long id, String previous, String hash);
 }
@@ -0,0 +1,16 @@
+package com.adriauson.vibecommerce.repository;
+
+import java.util.Map;
+
+/*
+ * 🧩 Fragmento personalizado de UserRepository (Spring Data lo enlaza con UserRepositoryCustomImpl).
+ *
+ * updateFields genera un UPDATE solo con las columnas recibidas:
+ *     UPDATE users SET address = ? WHERE id = ?
+ * sin SELECT previo. Siempre incrementa la versión. Si expectedVersion no es null, solo actualiza
+ * cuando la versión actual coincide (If-Match). Devuelve las filas afectadas → 0 significa que
+ * el usuario no existe (o que la versión no coincide).
+ */
+public interface UserRepositoryCustom {
+    int updateFields(Long id, Map<String, Object> changes, Long expectedVersion);
+}
@@ -0,0 +1,8 @@
+package com.adriauson.vibecommerce.repository.projection;
+
+/*
+ * 🔑 ID y contraseña guardada, sin el resto de columnas: solo para LegacyPasswordMigrator,
+ * que necesita el valor actual para reescribirlo con un UPDATE condicional.
+ */
+public record StoredPassword(Long id, String password) {
+}
@@ -0,0 +1,11 @@
+package com.adriauson.vibecommerce.repository.projection;
+
+/*
+ * 🪶 Proyección de solo lectura de User para las consultas de lectura.
+ *
+ * Se construye directamente desde JPQL (select new ...UserSummary(...)), así que:
+ *  - Solo se seleccionan id, nombre, apellido, email, dirección y versión: la columna password nunca se lee
+ *  - No son entidades: no entran en el contexto de persistencia ni generan snapshots de dirty-checking
+ */
+public record UserSummary(Long id, String firstName, String lastName, String email, String address, Long version) {
+}
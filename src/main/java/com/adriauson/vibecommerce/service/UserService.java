@@ -1,15 +1,28 @@
 package com.adriauson.vibecommerce.service;
 
+import com.adriauson.vibecommerce.dto.BatchRegisterResultDto;
+import com.adriauson.vibecommerce.dto.BulkDeleteResultDto;
 import com.adriauson.vibecommerce.dto.RegisterUserDto;
 import com.adriauson.vibecommerce.dto.UpdateUserDto;
 import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.dto.UserLookupResultDto;
+import com.adriauson.vibecommerce.dto.UserPageDto;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface UserService {
     UserDto getUserById (Long id);
-    List<UserDto> getAllUsers ();
+    Long getUserVersion (Long id);
+    UserLookupResultDto getUsersByIds (List<Long> ids);
+    UserPageDto searchUsers(String query, Long after, Integer limit);
+    UserPageDto getAllUsers (Long after, Integer limit);
     UserDto registerUser (RegisterUserDto registerDto);
-    UserDto updateUser(Long id, UpdateUserDto updateDto);
-    void deleteUser (Long id);
+    List<BatchRegisterResultDto> registerUsers (List<RegisterUserDto> registerDtos);
+    List<BatchRegisterResultDto> registerValidatedUsers (List<RegisterUserDto> registerDtos);
+    UserDto updateUser(Long id, UpdateUserDto updateDto, Long expectedVersion);
+    void deleteUser (Long id, Long expectedVersion);
+    BulkDeleteResultDto deleteUsers (List<Long> ids);
+    void exportUsers (OutputStream outputStream) throws IOException;
 }
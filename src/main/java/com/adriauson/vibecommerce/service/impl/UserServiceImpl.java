@@ -1,23 +1,84 @@
 package com.adriauson.vibecommerce.service.impl;
 
+import com.adriauson.vibecommerce.config.CacheConfig;
+import com.adriauson.vibecommerce.dto.BatchRegisterResultDto;
+import com.adriauson.vibecommerce.dto.BulkDeleteResultDto;
 import com.adriauson.vibecommerce.dto.RegisterUserDto;
 import com.adriauson.vibecommerce.dto.UpdateUserDto;
 import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.dto.UserLookupResultDto;
+import com.adriauson.vibecommerce.dto.UserPageDto;
+import com.adriauson.vibecommerce.exception.BatchTooLargeException;
+import com.adriauson.vibecommerce.exception.ConstraintViolations;
 import com.adriauson.vibecommerce.exception.EmailAlreadyExistsException;
+import com.adriauson.vibecommerce.exception.PasswordHashingOverloadedException;
+import com.adriauson.vibecommerce.exception.PreconditionFailedException;
+import com.adriauson.vibecommerce.exception.SearchIndexNotReadyException;
 import com.adriauson.vibecommerce.exception.UserNotFoundException;
 import com.adriauson.vibecommerce.mapper.UserMapper;
 import com.adriauson.vibecommerce.entity.User;
 import com.adriauson.vibecommerce.repository.UserRepository;
+import com.adriauson.vibecommerce.repository.projection.UserSummary;
 import com.adriauson.vibecommerce.service.UserService;
+import com.adriauson.vibecommerce.service.support.EmailBloomFilter;
+import com.adriauson.vibecommerce.service.support.PasswordHashingService;
+import com.adriauson.vibecommerce.service.support.UserChangeOutbox;
+import com.adriauson.vibecommerce.service.support.UserMessages;
+import com.adriauson.vibecommerce.service.support.UserSearchIndex;
+import com.adriauson.vibecommerce.validation.groups.OnCreate;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import org.hibernate.jpa.HibernateHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.MessageSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/*
+ * 🔁 Cada método público define su transacción:
+ *  - Lecturas → @Transactional(readOnly = true): Hibernate no hace flush ni guarda snapshots para el
+ *    dirty-checking, y con réplica configurada (DataSourceRoutingConfig) se sirven desde la réplica.
+ *  - Escrituras → @Transactional: todas sus sentencias en una transacción y siempre contra el primario.
+ * La caché va por fuera de la transacción (ver CacheConfig): un hit no abre transacción.
+ * Excepción: lo que calcula un hash BCrypt (registerUser, updateUser con password) no lleva @Transactional. El hash
+ * va antes y solo las escrituras van en writeTransaction: sin LazyConnectionDataSourceProxy (perfiles sin réplica)
+ * la conexión se toma al abrir la transacción y quedaría retenida durante la espera del pool de hashing y el BCrypt.
+ * Los registros masivos (registerUsers, registerValidatedUsers) usan una transacción por bloque de
+ * batch.chunk-size usuarios, también con el hashing fuera.
+ *
+ * 📮 Cada alta, modificación o borrado deja además su evento en la outbox (UserChangeOutbox) dentro de
+ * la misma transacción: es lo que alimenta el feed GET /api/v1/users/changes.
+ */
 // 🧩 Con Lombok:
 // @RequiredArgsConstructor genera constructor con todos los campos final
 // Requiere tener Lombok instalad
@@ -30,53 +91,397 @@ public class UserServiceImpl implements UserService {
      * - Esto hace que las dependencias sean más seguras, evita errores y facilita los tests.
      */
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
-    private final MessageSource messageSource;
+    private static final int EMAIL_LOOKUP_CHUNK = 1000;
+    private final UserMessages userMessages;
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int exportFetchSize;
+    private final Validator validator;
+    private final int batchMaxSize;
+    private final int batchChunkSize;
+    private final int jdbcBatchSize;
+    private final EmailBloomFilter emailBloomFilter;
+    private final CacheManager cacheManager;
+    private final int bulkDeleteMaxSize;
+    private final PasswordHashingService passwordHashingService;
+    private final UserSearchIndex userSearchIndex;
+    private final UserChangeOutbox userChangeOutbox;
+    private final int lookupMaxSize;
+    private final int lookupChunkSize;
+    private final TransactionTemplate writeTransaction;
 
     // ✔️ Constructor injection (recomendado)
     // - Evita el uso de @Autowired
     // - Asegura inmutabilidad con `private final`
     // - Facilita testeo y mantenimiento
 
-    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper, MessageSource messageSource) {
+    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper, UserMessages userMessages,
+                           @Value("${vibecommerce.users.page.default-size:20}") int defaultPageSize,
+                           @Value("${vibecommerce.users.page.max-size:100}") int maxPageSize,
+                           EntityManager entityManager, ObjectMapper objectMapper,
+                           @Value("${vibecommerce.users.export.fetch-size:1000}") int exportFetchSize,
+                           Validator validator,
+                           @Value("${vibecommerce.users.batch.max-size:50000}") int batchMaxSize,
+                           @Value("${vibecommerce.users.batch.chunk-size:1000}") int batchChunkSize,
+                           @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int jdbcBatchSize,
+                           EmailBloomFilter emailBloomFilter, CacheManager cacheManager,
+                           @Value("${vibecommerce.users.bulk-delete.max-size:1000}") int bulkDeleteMaxSize,
+                           PasswordHashingService passwordHashingService, UserSearchIndex userSearchIndex,
+                           UserChangeOutbox userChangeOutbox,
+                           @Value("${vibecommerce.users.lookup.max-size:1000}") int lookupMaxSize,
+                           @Value("${vibecommerce.users.lookup.chunk-size:500}") int lookupChunkSize,
+                           PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
-        this.messageSource = messageSource;
+        this.userMessages = userMessages;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.exportFetchSize = exportFetchSize;
+        this.validator = validator;
+        this.batchMaxSize = batchMaxSize;
+        this.batchChunkSize = batchChunkSize;
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.emailBloomFilter = emailBloomFilter;
+        this.cacheManager = cacheManager;
+        this.bulkDeleteMaxSize = bulkDeleteMaxSize;
+        this.passwordHashingService = passwordHashingService;
+        this.userSearchIndex = userSearchIndex;
+        this.userChangeOutbox = userChangeOutbox;
+        this.lookupMaxSize = lookupMaxSize;
+        this.lookupChunkSize = lookupChunkSize;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
     }
 
+    // Sin @Transactional: ver la cabecera de la clase
     @Override
     public UserDto registerUser(RegisterUserDto registerDto) {
-        logger.info("Attempting to register user with email: {}", registerDto.getEmail());
+        logger.debug("Attempting to register user with email: {}", registerDto.getEmail());
 
-        if (this.userRepository.existsByEmail(registerDto.getEmail())) {
-            logger.warn("Email already in use: {}", registerDto.getEmail());
+        User user = this.userMapper.mapRegisterDtoToUser(registerDto);
+        // 🔐 El hash se calcula en el pool dedicado (no en el hilo de Tomcat); si está saturado → 503.
+        // Va antes de abrir la transacción para no retener una conexión mientras dura el BCrypt
+        // (a cambio, un email duplicado paga un hash que no se usa).
+        user.setPassword(this.passwordHashingService.hash(registerDto.getPassword()));
+
+        return this.writeTransaction.execute(status -> insertUser(registerDto, user));
+    }
+
+    private UserDto insertUser(RegisterUserDto registerDto, User user) {
+        // 🌸 Caso común: el filtro garantiza que el email es nuevo → vamos directos al INSERT.
+        // Solo si "puede existir" pagamos el existsByEmail para rechazar sin un INSERT fallido.
+        if (this.emailBloomFilter.mightContain(registerDto.getEmail())
+                && this.userRepository.existsByEmail(registerDto.getEmail())) {
+            logger.debug("Email already in use: {}", registerDto.getEmail());
             throw new EmailAlreadyExistsException("Email is already in use");
         }
 
-        User user = this.userMapper.mapRegisterDtoToUser(registerDto);
-        userRepository.save(user);
-        logger.info("User successfully registered with email: {}", registerDto.getEmail());
+        // 🛡️ La restricción UNIQUE de users.email es la garantía real (no hay carrera check-then-act).
+        // saveAndFlush hace que la violación salte aquí y no al hacer commit.
+        try {
+            this.userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException exception) {
+            if (isEmailUniqueViolation(exception)) {
+                logger.debug("Email already in use (unique constraint): {}", registerDto.getEmail());
+                throw new EmailAlreadyExistsException("Email is already in use");
+            }
+            throw exception;
+        }
+        this.emailBloomFilter.put(user.getEmail());
+        afterCommit(() -> this.userSearchIndex.add(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail()));
+        logger.debug("User successfully registered with email: {}", registerDto.getEmail());
+
+        UserDto userDto = this.userMapper.mapUserToUserDto(user);
+        this.userChangeOutbox.recordCreated(userDto);
+        return userDto;
+    }
+
+    // Sin @Transactional: una transacción por bloque (ver insertUsers). Un lote de 50.000 usuarios en una sola
+    // transacción retenía la conexión y los bloqueos de las filas nuevas durante todo el hashing, y cualquier
+    // fallo deshacía también los usuarios que ya habían salido bien.
+    @Override
+    public List<BatchRegisterResultDto> registerUsers(List<RegisterUserDto> registerDtos) {
+        if (registerDtos.size() > this.batchMaxSize) {
+            throw new BatchTooLargeException("Batch exceeds the maximum of " + this.batchMaxSize + " users", this.batchMaxSize);
+        }
+        logger.info("Attempting to register a batch of {} users", registerDtos.size());
+
+        BatchRegisterResultDto[] results = new BatchRegisterResultDto[registerDtos.size()];
+
+        // 1️⃣ Validación por elemento: un usuario inválido no tumba el lote entero
+        List<Integer> validIndexes = new ArrayList<>(registerDtos.size());
+        for (int i = 0; i < registerDtos.size(); i++) {
+            Set<ConstraintViolation<RegisterUserDto>> violations =
+                    this.validator.validate(registerDtos.get(i), Default.class, OnCreate.class);
+            if (violations.isEmpty()) {
+                validIndexes.add(i);
+            } else {
+                String message = violations.stream()
+                        .map(v -> v.getPropertyPath().toString().isEmpty()
+                                ? v.getMessage()
+                                : v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                results[i] = batchResult(i, BatchRegisterResultDto.Status.INVALID, null, message);
+            }
+        }
+
+        insertUsers(registerDtos, validIndexes, results);
+
+        logger.info("Batch registration finished: {} users received", registerDtos.size());
+        return List.of(results);
+    }
+
+    // 📥 Bloques de la importación CSV: las filas ya vienen validadas por UserCsvRowValidator, así que solo
+    // quedan los pasos 2️⃣ a 4️⃣ de registerUsers
+    @Override
+    public List<BatchRegisterResultDto> registerValidatedUsers(List<RegisterUserDto> registerDtos) {
+        if (registerDtos.size() > this.batchMaxSize) {
+            throw new BatchTooLargeException("Batch exceeds the maximum of " + this.batchMaxSize + " users", this.batchMaxSize);
+        }
+        BatchRegisterResultDto[] results = new BatchRegisterResultDto[registerDtos.size()];
+        List<Integer> indexes = new ArrayList<>(registerDtos.size());
+        for (int i = 0; i < registerDtos.size(); i++) {
+            indexes.add(i);
+        }
+        insertUsers(registerDtos, indexes, results);
+        return List.of(results);
+    }
+
+    /*
+     * Bloque a bloque (batchChunkSize usuarios):
+     *  2️⃣ Duplicados: una consulta IN contra el primario (los emails que el filtro da por nuevos ni viajan),
+     *     antes del hashing para no gastar BCrypt en emails ya registrados.
+     *  3️⃣ Hashing en el pool dedicado, SIN transacción abierta (como registerUser).
+     *  4️⃣ Una transacción corta por bloque: inserts agrupados + outbox. Si otra petición registra uno de los
+     *     emails entre 2️⃣ y 4️⃣, la restricción UNIQUE deshace solo este bloque y se reintenta una vez: la
+     *     nueva consulta IN ya ve ese email y el elemento sale como CONFLICT. Los hashes se reutilizan.
+     * Si el pool de hashing está saturado, el bloque actual y los siguientes salen como UNAVAILABLE (reintentables)
+     * y los bloques anteriores quedan confirmados.
+     */
+    private void insertUsers(List<RegisterUserDto> registerDtos, List<Integer> validIndexes, BatchRegisterResultDto[] results) {
+        // Emails ya vistos en esta petición: el segundo de un par repetido sale como CONFLICT.
+        // En minúsculas porque la collation de MySQL compara emails sin distinguir mayúsculas.
+        Set<String> requestEmails = new HashSet<>();
+        String[] hashes = new String[registerDtos.size()];
+        for (int from = 0; from < validIndexes.size(); from += this.batchChunkSize) {
+            List<Integer> chunk = validIndexes.subList(from, Math.min(from + this.batchChunkSize, validIndexes.size()));
+            List<Integer> candidates = new ArrayList<>(chunk.size());
+            for (Integer i : chunk) {
+                if (requestEmails.add(registerDtos.get(i).getEmail().toLowerCase(Locale.ROOT))) {
+                    candidates.add(i);
+                } else {
+                    results[i] = conflict(i);
+                }
+            }
+            candidates = withoutTakenEmails(registerDtos, candidates, results);
+
+            try {
+                List<String> chunkHashes = this.passwordHashingService.hashAll(
+                        candidates.stream().map(i -> registerDtos.get(i).getPassword()).toList());
+                for (int j = 0; j < candidates.size(); j++) {
+                    hashes[candidates.get(j)] = chunkHashes.get(j);
+                }
+            } catch (PasswordHashingOverloadedException exception) {
+                List<Integer> remaining = validIndexes.subList(from, validIndexes.size());
+                logger.warn("Batch registration stopped, password hashing is overloaded: {} users not processed", remaining.size());
+                for (Integer i : remaining) {
+                    if (results[i] == null) {
+                        results[i] = batchResult(i, BatchRegisterResultDto.Status.UNAVAILABLE, null, exception.getMessage());
+                    }
+                }
+                return;
+            }
+
+            List<UserDto> created;
+            try {
+                created = persistChunk(registerDtos, candidates, hashes);
+            } catch (DataIntegrityViolationException exception) {
+                if (!isEmailUniqueViolation(exception)) {
+                    throw exception;
+                }
+                logger.debug("Chunk of {} users hit a concurrent registration, retrying once", candidates.size());
+                candidates = withoutTakenEmails(registerDtos, candidates, results);
+                created = persistChunk(registerDtos, candidates, hashes);
+            }
+
+            // Ya confirmado: filtro de Bloom e índice de búsqueda
+            for (int j = 0; j < candidates.size(); j++) {
+                int index = candidates.get(j);
+                UserDto userDto = created.get(j);
+                this.emailBloomFilter.put(userDto.getEmail());
+                this.userSearchIndex.add(userDto.getId(), userDto.getFirstName(), userDto.getLastName(), userDto.getEmail());
+                results[index] = batchResult(index, BatchRegisterResultDto.Status.CREATED, userDto, null);
+            }
+        }
+    }
+
+    // 2️⃣ Quita (y marca como CONFLICT) los que ya están en la BD. En una transacción de escritura para leer del
+    // primario: una réplica con retraso no vería un alta recién hecha y el reintento volvería a chocar
+    private List<Integer> withoutTakenEmails(List<RegisterUserDto> registerDtos, List<Integer> indexes, BatchRegisterResultDto[] results) {
+        List<String> unknownEmails = indexes.stream()
+                .map(i -> registerDtos.get(i).getEmail())
+                .filter(this.emailBloomFilter::mightContain)
+                .toList();
+        if (unknownEmails.isEmpty()) {
+            return indexes;
+        }
+        Set<String> takenEmails = this.writeTransaction.execute(status -> findExistingEmails(unknownEmails));
+        List<Integer> remaining = new ArrayList<>(indexes.size());
+        for (Integer i : indexes) {
+            if (takenEmails.contains(registerDtos.get(i).getEmail().toLowerCase(Locale.ROOT))) {
+                results[i] = conflict(i);
+            } else {
+                remaining.add(i);
+            }
+        }
+        return remaining;
+    }
+
+    private Set<String> findExistingEmails(List<String> emails) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < emails.size(); from += EMAIL_LOOKUP_CHUNK) {
+            List<String> chunk = emails.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK, emails.size()));
+            for (String email : this.userRepository.findExistingEmails(chunk)) {
+                existing.add(email.toLowerCase(Locale.ROOT));
+            }
+        }
+        return existing;
+    }
+
+    // 4️⃣ saveAllAndFlush cada jdbcBatchSize (inserts en batch JDBC) y clear para mantener acotado el contexto
+    private List<UserDto> persistChunk(List<RegisterUserDto> registerDtos, List<Integer> indexes, String[] hashes) {
+        if (indexes.isEmpty()) {
+            return List.of();
+        }
+        return this.writeTransaction.execute(status -> {
+            List<UserDto> created = new ArrayList<>(indexes.size());
+            List<User> pending = new ArrayList<>(this.jdbcBatchSize);
+            for (int j = 0; j < indexes.size(); j++) {
+                int index = indexes.get(j);
+                User user = this.userMapper.mapRegisterDtoToUser(registerDtos.get(index));
+                user.setPassword(hashes[index]);
+                pending.add(user);
+                if (pending.size() == this.jdbcBatchSize || j == indexes.size() - 1) {
+                    this.userRepository.saveAllAndFlush(pending);
+                    for (User saved : pending) {
+                        created.add(this.userMapper.mapUserToUserDto(saved));
+                    }
+                    this.entityManager.clear();
+                    pending.clear();
+                }
+            }
+            this.userChangeOutbox.recordCreated(created);
+            return created;
+        });
+    }
+
+    private static BatchRegisterResultDto conflict(int index) {
+        return batchResult(index, BatchRegisterResultDto.Status.CONFLICT, null, "Email is already in use");
+    }
+
+    // 0 filas afectadas: sin If-Match el usuario no existe; con If-Match miramos si existe para distinguir 404 de 412
+    private RuntimeException notFoundOrStale(Long id, Long expectedVersion, String operation) {
+        if (expectedVersion != null && this.userRepository.findVersionById(id).isPresent()) {
+            logger.debug("Cannot {}, version {} is stale for user ID: {}", operation, expectedVersion, id);
+            return new PreconditionFailedException("User " + id + " has been modified by another request", id);
+        }
+        logger.debug("Cannot {}, user not found with ID: {}", operation, id);
+        String message = this.userMessages.userNotFound(id);
+        return new UserNotFoundException(message, id);
+    }
+
+    // Solo la restricción del email es un 409: un choque de clave primaria (p. ej. users_seq por detrás del
+    // MAX(id)) es un fallo de datos y tiene que llegar como tal. Vale también para el índice con nombre automático
+    // de los esquemas creados antes de uk_users_email (ver ConstraintViolations)
+    private static boolean isEmailUniqueViolation(DataIntegrityViolationException exception) {
+        return ConstraintViolations.isUniqueViolationOf(exception, "users", "email", User.EMAIL_UNIQUE_CONSTRAINT);
+    }
 
-        return this.userMapper.mapUserToUserDto(user);
+    private static BatchRegisterResultDto batchResult(int index, BatchRegisterResultDto.Status status, UserDto user, String message) {
+        BatchRegisterResultDto result = new BatchRegisterResultDto();
+        result.setIndex(index);
+        result.setStatus(status);
+        result.setUser(user);
+        result.setMessage(message);
+        return result;
     }
 
     @Override
-    public List<UserDto> getAllUsers() {
-        logger.info("Fetching all users from database");
-        List<User> userList = this.userRepository.findAll();
-        logger.debug("Total users found: {}", userList.size());
-
-        List<UserDto> userListDto = new ArrayList<>();
-        for (User user : userList) {
-            UserDto userDto = this.userMapper.mapUserToUserDto(user);
+    @Transactional(readOnly = true)
+    public UserPageDto getAllUsers(Long after, Integer limit) {
+        // 📏 Nunca cargamos la tabla entera: el tamaño de página siempre queda acotado por maxPageSize
+        int pageSize = (limit == null || limit < 1) ? this.defaultPageSize : Math.min(limit, this.maxPageSize);
+        long cursor = (after == null) ? 0L : after;
+        logger.debug("Fetching users page after ID {} (limit {})", cursor, pageSize);
+
+        // Pedimos un elemento de más para saber si existe una página siguiente sin hacer un COUNT(*)
+        List<UserSummary> userList = this.userRepository.findSummariesAfter(cursor, Limit.of(pageSize + 1));
+        boolean hasNext = userList.size() > pageSize;
+        if (hasNext) {
+            userList = userList.subList(0, pageSize);
+        }
+        logger.debug("Users found in page: {}", userList.size());
+
+        List<UserDto> userListDto = new ArrayList<>(userList.size());
+        for (UserSummary user : userList) {
+            UserDto userDto = this.userMapper.mapUserSummaryToUserDto(user);
             userListDto.add(userDto);
         }
 
-        return userListDto;
+        UserPageDto page = new UserPageDto();
+        page.setContent(userListDto);
+        page.setLimit(pageSize);
+        page.setNextCursor(hasNext ? userList.get(userList.size() - 1).id() : null);
+        return page;
+    }
+
+    // 🔎 El índice da los IDs candidatos de la página (en memoria, sin tocar la BD)
+    // y una sola consulta IN trae los usuarios. Lo que ya no coincide (cambios o borrados
+    // aún no compactados en el índice) se descarta, así que una página puede venir algo más corta que limit.
+    @Override
+    @Transactional(readOnly = true)
+    public UserPageDto searchUsers(String query, Long after, Integer limit) {
+        if (!this.userSearchIndex.isReady()) {
+            throw new SearchIndexNotReadyException("User search is still loading, try again shortly", 5);
+        }
+        int pageSize = (limit == null || limit < 1) ? this.defaultPageSize : Math.min(limit, this.maxPageSize);
+        long cursor = (after == null) ? 0L : after;
+        logger.debug("Searching users matching '{}' after ID {} (limit {})", query, cursor, pageSize);
+
+        List<Long> candidateIds = this.userSearchIndex.search(query, cursor, pageSize + 1);
+        boolean hasNext = candidateIds.size() > pageSize;
+        if (hasNext) {
+            candidateIds = candidateIds.subList(0, pageSize);
+        }
+
+        List<UserDto> userListDto = new ArrayList<>(candidateIds.size());
+        if (!candidateIds.isEmpty()) {
+            for (UserSummary user : this.userRepository.findSummariesByIdIn(candidateIds)) {
+                if (UserSearchIndex.matches(query, user.firstName(), user.lastName(), user.email())) {
+                    userListDto.add(this.userMapper.mapUserSummaryToUserDto(user));
+                }
+            }
+        }
+        logger.debug("Users found in search page: {} of {} candidates", userListDto.size(), candidateIds.size());
+
+        UserPageDto page = new UserPageDto();
+        page.setContent(userListDto);
+        page.setLimit(pageSize);
+        page.setNextCursor(hasNext ? candidateIds.get(candidateIds.size() - 1) : null);
+        return page;
     }
 
+    // 🗄️ Read-through: los perfiles calientes se sirven desde memoria.
+    // sync = true → si muchos hilos fallan a la vez para el mismo id, solo uno va a la BD (single-flight)
     @Override
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id", sync = true)
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
 
         // ❌ No recomendado:
@@ -86,7 +491,7 @@ public class UserServiceImpl implements UserService {
         // - Evita errores inesperados
         // - Mejora legibilidad
         // - Compatible con manejo global de excepciones
-        logger.info("Fetching user with ID: {}", id);
+        logger.debug("Fetching user with ID: {}", id);
 
         // ✅ Manejo de errores con orElseThrow en vez de try-catch
         // ✅ Separación clara entre lógica de persistencia, mapping y DTOs
@@ -94,47 +499,241 @@ public class UserServiceImpl implements UserService {
         // ✅ `@Service` para indicar que es un componente de lógica de negocio
 
 
-        User user = userRepository.findById(id)
+        // 🪶 Proyección: sin password y sin entidad gestionada
+        UserSummary user = userRepository.findSummaryById(id)
                 .orElseThrow(() -> {
-                    String message = this.messageSource.getMessage("entity.not.found", new Object[]{id}, Locale.getDefault());
-                    logger.error("User not found with ID: {}", id);
+                    String message = this.userMessages.userNotFound(id);
+                    logger.debug("User not found with ID: {}", id);
                     return new UserNotFoundException(message, id);
                 });
 
         logger.debug("User found with ID: {}", id);
-        return this.userMapper.mapUserToUserDto(user);
+        return this.userMapper.mapUserSummaryToUserDto(user);
     }
 
+    // 🔄 Refrescamos la entrada con el resultado de la actualización. Sin @Transactional (ver la cabecera de la
+    // clase): @CachePut actúa igualmente después del commit de writeTransaction
     @Override
-    public UserDto updateUser(Long id, UpdateUserDto updateDto) {
-        logger.info("Updating user with ID: {}", id);
+    @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    public UserDto updateUser(Long id, UpdateUserDto updateDto, Long expectedVersion) {
+        logger.debug("Updating user with ID: {}", id);
 
-        User existingUser = userRepository.findById(id)
-                .orElseThrow(() -> {
-                    String message = this.messageSource.getMessage("entity.not.found", new Object[]{id}, Locale.getDefault());
-                    logger.error("Cannot update, user not found with ID: {}", id);
-                    return new UserNotFoundException(message, id);
-                });
+        // 🎯 UPDATE dirigido: solo las columnas presentes en el PATCH y sin SELECT previo.
+        // Antes: SELECT completo + UPDATE de todas las columnas tras el dirty-checking.
+        Map<String, Object> changes = this.userMapper.mapUpdateUserDtoToChangedFields(updateDto);
+        if (updateDto.getPassword() != null) {
+            changes.put("password", this.passwordHashingService.hash(updateDto.getPassword()));
+        }
+        return this.writeTransaction.execute(status -> applyUpdate(id, updateDto, changes, expectedVersion));
+    }
+
+    private UserDto applyUpdate(Long id, UpdateUserDto updateDto, Map<String, Object> changes, Long expectedVersion) {
+        int updatedRows;
+        try {
+            updatedRows = this.userRepository.updateFields(id, changes, expectedVersion);
+        } catch (DataIntegrityViolationException exception) {
+            if (isEmailUniqueViolation(exception)) {
+                logger.debug("Cannot update, email already in use: {}", updateDto.getEmail());
+                throw new EmailAlreadyExistsException("Email is already in use");
+            }
+            throw exception;
+        }
+
+        if (updatedRows == 0) {
+            throw notFoundOrStale(id, expectedVersion, "update");
+        }
+        if (updateDto.getEmail() != null) {
+            this.emailBloomFilter.put(updateDto.getEmail());
+        }
+
+        // La respuesta (y la caché) necesitan el usuario completo: lo leemos ya actualizado
+        UserSummary updatedUser = this.userRepository.findSummaryById(id)
+                .orElseThrow(() -> new UserNotFoundException(
+                        this.userMessages.userNotFound(id), id));
+
+        if (changes.containsKey("firstName") || changes.containsKey("lastName") || changes.containsKey("email")) {
+            afterCommit(() -> this.userSearchIndex.update(id, updatedUser.firstName(), updatedUser.lastName(), updatedUser.email()));
+        }
 
-        this.userMapper.mapUpdateUserDtoToExistingUser(updateDto, existingUser);
-        this.userRepository.save(existingUser);
+        UserDto userDto = this.userMapper.mapUserSummaryToUserDto(updatedUser);
+        this.userChangeOutbox.recordUpdated(userDto);
 
-        logger.info("User updated successfully with ID: {}", id);
-        return this.userMapper.mapUserToUserDto(existingUser);
+        logger.debug("User updated successfully with ID: {}", id);
+        return userDto;
     }
 
+    // 🏷️ Versión para los ETag: primero la caché (si el perfil está caliente no toca la BD),
+    // si no, una consulta que solo lee la columna version
     @Override
-    public void deleteUser(Long id) {
-        logger.info("Deleting user with ID: {}", id);
+    @Transactional(readOnly = true)
+    public Long getUserVersion(Long id) {
+        Cache usersCache = this.cacheManager.getCache(CacheConfig.USERS_CACHE);
+        UserDto cached = usersCache != null ? usersCache.get(id, UserDto.class) : null;
+        if (cached != null) {
+            return cached.getVersion();
+        }
+        return this.userRepository.findVersionById(id)
+                .orElseThrow(() -> new UserNotFoundException(
+                        this.userMessages.userNotFound(id), id));
+    }
 
-        User existingUser = userRepository.findById(id)
-                .orElseThrow(() -> {
-                    String message = this.messageSource.getMessage("entity.not.found", new Object[]{id}, Locale.getDefault());
-                    logger.error("Cannot delete, user not found with ID: {}", id);
-                    return new UserNotFoundException(message, id);
-                });
+    // 📚 Multi-get: primero la caché de usuarios (los perfiles calientes no tocan la BD) y los que faltan con
+    // consultas IN por bloques de lookupChunkSize (límite de parámetros de la BD). Cada bloque va en su propia
+    // transacción de solo lectura (findSummariesByIdIn): si todo está en caché no se abre ninguna.
+    // Lo leído de la BD se guarda en la caché con putIfAbsent, para no pisar un @CachePut más reciente.
+    @Override
+    public UserLookupResultDto getUsersByIds(List<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > this.lookupMaxSize) {
+            throw new BatchTooLargeException("Lookup exceeds the maximum of " + this.lookupMaxSize + " IDs", this.lookupMaxSize);
+        }
+
+        Map<Long, UserDto> found = new HashMap<>();
+        List<Long> pendingIds = new ArrayList<>();
+        Cache usersCache = this.cacheManager.getCache(CacheConfig.USERS_CACHE);
+        for (Long id : distinctIds) {
+            UserDto cached = usersCache != null ? usersCache.get(id, UserDto.class) : null;
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                pendingIds.add(id);
+            }
+        }
+        logger.debug("Looking up {} users: {} from cache, {} from the database", distinctIds.size(),
+                found.size(), pendingIds.size());
+
+        for (int from = 0; from < pendingIds.size(); from += this.lookupChunkSize) {
+            List<Long> chunk = pendingIds.subList(from, Math.min(from + this.lookupChunkSize, pendingIds.size()));
+            for (UserSummary user : this.userRepository.findSummariesByIdIn(chunk)) {
+                UserDto userDto = this.userMapper.mapUserSummaryToUserDto(user);
+                found.put(user.id(), userDto);
+                if (usersCache != null) {
+                    usersCache.putIfAbsent(user.id(), userDto);
+                }
+            }
+        }
+
+        // Orden de la petición
+        List<UserDto> content = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : distinctIds) {
+            UserDto userDto = found.get(id);
+            if (userDto != null) {
+                content.add(userDto);
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        UserLookupResultDto result = new UserLookupResultDto();
+        result.setContent(content);
+        result.setMissingIds(missingIds);
+        return result;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    @Transactional
+    public void deleteUser(Long id, Long expectedVersion) {
+        logger.debug("Deleting user with ID: {}", id);
+
+        // 🗑️ Una sola sentencia DELETE; si no ha borrado ninguna fila es que el usuario no existía
+        // (o, con If-Match, que su versión ya no es la esperada)
+        int deletedRows = expectedVersion == null
+                ? this.userRepository.deleteByIdReturningCount(id)
+                : this.userRepository.deleteByIdAndVersionReturningCount(id, expectedVersion);
+        if (deletedRows == 0) {
+            throw notFoundOrStale(id, expectedVersion, "delete");
+        }
+        afterCommit(() -> this.userSearchIndex.markStale(1));
+        this.userChangeOutbox.recordDeleted(List.of(id));
+
+        logger.debug("User deleted with ID: {}", id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream outputStream) throws IOException {
+        logger.info("Exporting all users as NDJSON (fetch size {})", this.exportFetchSize);
+
+        // 🌊 Streaming real: el driver va trayendo filas de fetchSize en fetchSize (cursor JDBC)
+        // en vez de materializar List<User> + List<UserDto> en memoria.
+        // ⚠️ En MySQL hace falta useCursorFetch=true en la URL para que respete el fetch size.
+        long exported = 0;
+        try (Stream<UserSummary> users = this.entityManager
+                .createQuery(UserRepository.SELECT_SUMMARY + " order by u.id", UserSummary.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, this.exportFetchSize)
+                .getResultStream();
+             JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream)) {
+
+            // No cerramos el stream de la respuesta: eso lo hace el contenedor
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            // 🧹 Al ser proyecciones (no entidades) nada se queda en el contexto de persistencia:
+            // la memoria no crece con la tabla y no hace falta hacer detach fila a fila
+            for (UserSummary user : (Iterable<UserSummary>) users::iterator) {
+                generator.writeObject(this.userMapper.mapUserSummaryToUserDto(user));
+                generator.writeRaw('\n');
+
+                if (++exported % this.exportFetchSize == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+        logger.info("Users exported: {}", exported);
+    }
+
+    // 🗄️ Como @CacheEvict (ver CacheConfig): la caché se limpia después del commit. Antes del commit un
+    // getUserById concurrente todavía lee la fila confirmada y la volvería a cachear durante todo el TTL
+    private void evictAfterCommit(Collection<Long> ids) {
+        Cache usersCache = this.cacheManager.getCache(CacheConfig.USERS_CACHE);
+        if (usersCache == null || ids.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> ids.forEach(usersCache::evict));
+    }
+
+    // 🔎 Lo mismo para el índice de búsqueda: si el outbox o el commit fallan, el rollback dejaría en el índice
+    // nombres que nunca se guardaron. Y un markStale antes del commit puede lanzar una reconstrucción que lee
+    // la fila antigua y descarta las claves nuevas. Sin transacción activa se aplica en el acto
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public BulkDeleteResultDto deleteUsers(List<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (distinctIds.size() > this.bulkDeleteMaxSize) {
+            throw new BatchTooLargeException("Bulk delete exceeds the maximum of " + this.bulkDeleteMaxSize + " IDs", this.bulkDeleteMaxSize);
+        }
+        logger.info("Deleting {} users in bulk", distinctIds.size());
+
+        // 🗑️ Un único DELETE ... WHERE id IN (...) para los IDs que existen: antes los leemos (y bloqueamos) por la PK
+        // para publicar un evento por usuario realmente borrado. Con el bloqueo, deleted == existingIds.size()
+        List<Long> existingIds = distinctIds.isEmpty() ? List.of() : this.userRepository.findExistingIds(distinctIds);
+        int deleted = existingIds.isEmpty() ? 0 : this.userRepository.deleteAllByIdReturningCount(existingIds);
+        if (deleted > 0) {
+            this.userChangeOutbox.recordDeleted(existingIds);
+        }
+
+        evictAfterCommit(distinctIds);
+        afterCommit(() -> this.userSearchIndex.markStale(deleted));
 
-        this.userRepository.deleteById(id);
-        logger.warn("User deleted with ID: {}", id);
+        logger.info("Users deleted in bulk: {} of {} requested", deleted, distinctIds.size());
+        BulkDeleteResultDto result = new BulkDeleteResultDto();
+        result.setRequested(distinctIds.size());
+        result.setDeleted(deleted);
+        return result;
     }
 }
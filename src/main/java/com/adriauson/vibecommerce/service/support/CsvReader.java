@@ -0,0 +1,179 @@
+package com.adriauson.vibecommerce.service.support;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/*
+ * 📄 Lector CSV (RFC 4180) en streaming para la importación de usuarios.
+ *
+ *  - Lee del Reader en bloques de 8 KB y devuelve un registro cada vez: nunca carga el fichero entero.
+ *  - Campos entre comillas con "" como comilla escapada, saltos de línea dentro de comillas, CRLF/LF/CR y BOM inicial.
+ *  - Memoria acotada: un campo de más de maxFieldLength caracteres o un registro de más de maxFields campos
+ *    no se acumulan; el registro se consume hasta el final y se marca con error() para rechazarlo.
+ *  - Sin expresiones regulares ni split(): un solo StringBuilder reutilizado por campo.
+ */
+public final class CsvReader implements Closeable {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final int maxFieldLength;
+    private final int maxFields;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder field = new StringBuilder();
+
+    private int position;
+    private int limit;
+    private boolean started;
+    private long line = 1;
+    private long recordLine;
+    private String error;
+
+    public CsvReader(Reader reader, int maxFieldLength, int maxFields) {
+        this.reader = reader;
+        this.maxFieldLength = maxFieldLength;
+        this.maxFields = maxFields;
+    }
+
+    /*
+     * Lee el siguiente registro en fields (se vacía antes). Devuelve false al final del fichero.
+     * Tras cada llamada, recordLine() es la línea física donde empieza el registro y error() el motivo
+     * si está mal formado (null si es correcto).
+     */
+    public boolean readRecord(List<String> fields) throws IOException {
+        fields.clear();
+        this.field.setLength(0);
+        this.error = null;
+
+        int c = read();
+        if (c == -1) {
+            return false;
+        }
+        if (!this.started) {
+            this.started = true;
+            if (c == BOM) {
+                c = read();
+                if (c == -1) {
+                    return false;
+                }
+            }
+        }
+        this.recordLine = this.line;
+
+        boolean quoted = false;
+        boolean afterQuote = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    fail("Unterminated quoted field");
+                    addField(fields);
+                    return true;
+                }
+                if (c == QUOTE) {
+                    int next = read();
+                    if (next == QUOTE) {
+                        append(QUOTE);
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        this.line++;
+                    }
+                    append((char) c);
+                }
+            } else if (c == SEPARATOR) {
+                addField(fields);
+                afterQuote = false;
+            } else if (c == '\n' || c == '\r' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (c != -1) {
+                    this.line++;
+                }
+                addField(fields);
+                return true;
+            } else if (c == QUOTE && this.field.length() == 0 && !afterQuote) {
+                quoted = true;
+            } else {
+                if (afterQuote) {
+                    fail("Unexpected character after closing quote");
+                }
+                append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    public long recordLine() {
+        return this.recordLine;
+    }
+
+    public String error() {
+        return this.error;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+
+    private void append(char c) {
+        if (this.field.length() < this.maxFieldLength) {
+            this.field.append(c);
+        } else {
+            fail("Field longer than " + this.maxFieldLength + " characters");
+        }
+    }
+
+    private void addField(List<String> fields) {
+        if (fields.size() < this.maxFields) {
+            fields.add(this.field.toString());
+        } else {
+            fail("More than " + this.maxFields + " fields");
+        }
+        this.field.setLength(0);
+    }
+
+    // Nos quedamos con el primer error del registro
+    private void fail(String message) {
+        if (this.error == null) {
+            this.error = message;
+        }
+    }
+
+    private int read() throws IOException {
+        if (this.position == this.limit && !fill()) {
+            return -1;
+        }
+        return this.buffer[this.position++];
+    }
+
+    private int peek() throws IOException {
+        if (this.position == this.limit && !fill()) {
+            return -1;
+        }
+        return this.buffer[this.position];
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = this.reader.read(this.buffer, 0, this.buffer.length);
+        } while (read == 0);
+        if (read == -1) {
+            return false;
+        }
+        this.position = 0;
+        this.limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,148 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/*
+ * 🌸 Filtro de Bloom con los emails registrados.
+ *
+ *  - mightContain(email) == false → el email es nuevo con total seguridad: insertamos directamente
+ *    y dejamos que la restricción UNIQUE de la BD sea la única comprobación (un solo round-trip).
+ *  - mightContain(email) == true  → puede existir (o es un falso positivo): entonces sí merece la pena
+ *    el existsByEmail para rechazar rápido sin provocar un INSERT fallido.
+ *
+ * Se reconstruye al arrancar leyendo todos los emails en streaming y se actualiza en cada alta o cambio
+ * de email. Los borrados no se quitan (un Bloom no lo permite): solo suben un poco los falsos positivos.
+ * La carga inicial va en su propio hilo: no retrasa el ApplicationReadyEvent (ni el readiness de la réplica)
+ * con un recorrido de la tabla entera. Hasta que termina responde siempre "puede existir", que es el
+ * comportamiento seguro; las altas de ese intervalo ya se van añadiendo a los mismos bits.
+ *
+ * Los bits viven en un AtomicLongArray, así que put() y mightContain() son seguros sin locks.
+ */
+@Component
+public class EmailBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+    private volatile boolean ready;
+
+    public EmailBloomFilter(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                            @Value("${vibecommerce.users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${vibecommerce.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        // 📐 Dimensionado clásico: m = -n·ln(p) / ln(2)², k = m/n · ln(2)
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.max(1, (optimalBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.numBits = (long) words * 64;
+        this.numHashes = Math.max(1, (int) Math.round((double) this.numBits / expectedInsertions * Math.log(2)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread loader = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException exception) {
+                // Sin filtro seguimos siendo correctos: cada alta paga su existsByEmail
+                logger.warn("Email filter could not be loaded, registrations will check the database", exception);
+            }
+        }, "email-filter-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        long loaded = this.readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<String> emails = this.userRepository.streamAllEmails()) {
+                for (String email : (Iterable<String>) emails::iterator) {
+                    put(email);
+                    count++;
+                }
+            }
+            return count;
+        });
+        this.ready = true;
+        logger.info("Email filter loaded with {} emails in {} ms ({} bits, {} hashes)",
+                loaded, (System.nanoTime() - start) / 1_000_000, this.numBits, this.numHashes);
+    }
+
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    public boolean mightContain(String email) {
+        if (!this.ready) {
+            return true;
+        }
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= this.numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((this.bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(String email) {
+        long hash = hash(email);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= this.numHashes; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = this.bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!this.bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private long index(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % this.numBits;
+    }
+
+    // FNV-1a de 64 bits + mezcla final de MurmurHash3. En minúsculas porque MySQL compara los emails sin distinguir mayúsculas
+    private static long hash(String email) {
+        String normalized = email.toLowerCase(Locale.ROOT);
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            h ^= normalized.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,95 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.exception.PasswordHashingOverloadedException;
+import com.adriauson.vibecommerce.repository.UserRepository;
+import com.adriauson.vibecommerce.repository.projection.StoredPassword;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * 🔑 Migra a BCrypt las contraseñas guardadas en claro antes de introducir el hashing.
+ *
+ * La API no tiene login donde rehashearlas al entrar, así que este job es el único camino: recorre la tabla
+ * al arrancar (en su propio hilo, por bloques de batch-size en orden de ID)
+ * y reescribe cada una con un UPDATE condicional: si la contraseña ha cambiado mientras se calculaba el hash
+ * (un PATCH, otra réplica migrando a la vez) el UPDATE no toca nada.
+ *
+ * Usa el pool de PasswordHashingService de hash en hash, así que como mucho ocupa uno de sus hilos y los
+ * registros siguen entrando. Si el pool está saturado espera Retry-After y reintenta la misma fila.
+ */
+@Component
+@ConditionalOnProperty(name = "vibecommerce.security.password.legacy-migration.enabled", havingValue = "true", matchIfMissing = true)
+public class LegacyPasswordMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyPasswordMigrator.class);
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final int batchSize;
+
+    public LegacyPasswordMigrator(UserRepository userRepository, PasswordHashingService passwordHashingService,
+                                  @Value("${vibecommerce.security.password.legacy-migration.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread migrator = new Thread(() -> {
+            try {
+                migrate();
+            } catch (RuntimeException exception) {
+                // Se retoma en el siguiente arranque: las filas ya migradas no vuelven a salir en la consulta
+                logger.warn("Legacy password migration stopped, remaining rows will be migrated on next startup", exception);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }, "legacy-password-migrator");
+        migrator.setDaemon(true);
+        migrator.start();
+    }
+
+    // Devuelve cuántas contraseñas se han reescrito
+    public long migrate() throws InterruptedException {
+        long start = System.nanoTime();
+        long migrated = 0;
+        long after = 0;
+        List<StoredPassword> batch;
+        do {
+            batch = this.userRepository.findLegacyPasswordsAfter(after, Limit.of(this.batchSize));
+            for (StoredPassword stored : batch) {
+                if (stored.password() != null
+                        && this.userRepository.replacePasswordIfUnchanged(stored.id(), stored.password(), hash(stored.password())) == 1) {
+                    migrated++;
+                }
+                after = stored.id();
+            }
+        } while (batch.size() == this.batchSize);
+
+        if (migrated > 0) {
+            logger.info("Migrated {} legacy plaintext passwords to BCrypt in {} ms",
+                    migrated, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return migrated;
+    }
+
+    private String hash(String rawPassword) throws InterruptedException {
+        while (true) {
+            try {
+                return this.passwordHashingService.hash(rawPassword);
+            } catch (PasswordHashingOverloadedException exception) {
+                TimeUnit.SECONDS.sleep(exception.getRetryAfterSeconds());
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.adriauson.vibecommerce.service.support;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * 🕳️ Huecos en los IDs de la outbox. El autoincremento se asigna al insertar pero la fila solo se ve al hacer
+ * commit: si la transacción del ID 7 tarda más que la del 8, el dispatcher ve 8 antes que 7. Enviar el 8 y
+ * mover el cursor perdería el 7 para siempre (y también en el reenvío por Last-Event-ID).
+ *
+ * Por eso se retiene todo lo que viene detrás de un hueco hasta que el hueco se llena o pasa gap-timeout desde
+ * que se vio el primer evento posterior. Un hueco que no se llena es un ID quemado (rollback, o saltos del
+ * autoincremento de MySQL) y se da por perdido. Solo cuesta latencia cuando hay un hueco de verdad.
+ *
+ * Lo usa únicamente el hilo dispatcher de UserChangeFeed.
+ */
+final class OutboxGapTracker {
+
+    private final long gapTimeoutNanos;
+    // Eventos retenidos detrás de un hueco → cuándo se vieron por primera vez. Como mucho un lote del dispatcher
+    private final Map<Long, Long> heldBackSince = new HashMap<>();
+
+    OutboxGapTracker(long gapTimeoutNanos) {
+        this.gapTimeoutNanos = gapTimeoutNanos;
+    }
+
+    /*
+     * Cuántos de los IDs leídos (en orden, todos > cursor) se pueden publicar ya, también en orden.
+     * Los huecos anteriores al último publicable se dan por perdidos.
+     */
+    int ready(long cursor, List<Long> ids, long nowNanos) {
+        long expected = cursor + 1;
+        int ready = 0;
+        for (long id : ids) {
+            if (id > expected) {
+                long since = this.heldBackSince.computeIfAbsent(id, key -> nowNanos);
+                if (nowNanos - since < this.gapTimeoutNanos) {
+                    break;
+                }
+            }
+            expected = id + 1;
+            ready++;
+        }
+        // El resto del lote también empieza a contar desde ahora: si tras este hueco hay otro, no espera otra vez entero
+        for (int i = ready; i < ids.size(); i++) {
+            this.heldBackSince.putIfAbsent(ids.get(i), nowNanos);
+        }
+        long published = expected;
+        this.heldBackSince.keySet().removeIf(id -> id < published);
+        return ready;
+    }
+
+    int heldBack() {
+        return this.heldBackSince.size();
+    }
+}
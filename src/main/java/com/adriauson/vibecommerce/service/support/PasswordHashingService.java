@@ -0,0 +1,194 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * 🔐 Hashing de contraseñas (BCrypt) fuera de los hilos de Tomcat.
+ *
+ *  - Pool dedicado con tantos hilos como núcleos: el hashing adaptativo quema 50-200 ms de CPU por llamada
+ *    y así nunca puede ocupar más CPU de la que hay, dejando margen a los GET.
+ *  - Cola acotada: si se llena (tormenta de registros) rechazamos con PasswordHashingOverloadedException
+ *    → 503 + Retry-After, en lugar de acumular peticiones esperando.
+ *  - Cola y timeout van a juego: BCrypt no atiende interrupciones, así que un hash que ya ha empezado no se puede
+ *    cancelar y termina aunque el llamante se haya ido por timeout. Al arrancar se mide un hash y la cola se limita
+ *    a lo que los hilos pueden vaciar dentro de timeout-ms; lo que entra en cola tiene tiempo de terminar.
+ *    Si aun así vence el timeout, la tarea se quita de la cola si no ha empezado (no gasta CPU) y si ya está
+ *    en marcha se deja acabar.
+ *  - Métricas: users.password.hashing (latencia), users.password.hashing.queue (profundidad de la cola)
+ *    y users.password.hashing.rejected.
+ *  - Solo hashing: la API no tiene login, así que no hay dónde comprobar una contraseña ni rehashearla al entrar.
+ *    Las contraseñas en claro heredadas las migra LegacyPasswordMigrator. Un cambio de bcrypt-strength solo
+ *    afecta a los hashes nuevos hasta que exista un login (matches + upgradeEncoding en este pool).
+ */
+@Component
+public class PasswordHashingService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+    private static final String CALIBRATION_PASSWORD = "calibration-only";
+
+    private final BCryptPasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+    private final Timer hashTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(@Value("${vibecommerce.security.password.bcrypt-strength:10}") int bcryptStrength,
+                                  @Value("${vibecommerce.security.password.hashing.threads:0}") int threads,
+                                  @Value("${vibecommerce.security.password.hashing.queue-capacity:200}") int queueCapacity,
+                                  @Value("${vibecommerce.security.password.hashing.timeout-ms:5000}") long timeoutMillis,
+                                  @Value("${vibecommerce.security.password.hashing.retry-after-seconds:2}") long retryAfterSeconds,
+                                  MeterRegistry meterRegistry) {
+        this.encoder = new BCryptPasswordEncoder(bcryptStrength);
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.queueCapacity = queueCapacityWithinTimeout(queueCapacity);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("users.password.hashing")
+                .description("Time spent hashing passwords")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("users.password.hashing.rejected")
+                .description("Hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("users.password.hashing.queue", this.executor, pool -> pool.getQueue().size())
+                .description("Hashing requests waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    // Tareas en cola que los hilos pueden terminar dentro del timeout, según lo que tarda un hash en esta máquina
+    private int queueCapacityWithinTimeout(int queueCapacity) {
+        this.encoder.encode(CALIBRATION_PASSWORD);
+        long start = System.nanoTime();
+        this.encoder.encode(CALIBRATION_PASSWORD);
+        long hashMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        // La tarea en la última posición espera (capacidad / hilos) rondas y después necesita una más para ella
+        long fitting = Math.max(1, (this.timeoutMillis / hashMillis - 1) * this.threads);
+        if (queueCapacity > fitting) {
+            logger.warn("Password hashing queue capacity {} cannot drain within {} ms ({} ms per hash, {} threads): using {}",
+                    queueCapacity, this.timeoutMillis, hashMillis, this.threads, fitting);
+            return (int) fitting;
+        }
+        return queueCapacity;
+    }
+
+    public int queueCapacity() {
+        return this.queueCapacity;
+    }
+
+    public String hash(String rawPassword) {
+        return await(submit(() -> this.encoder.encode(rawPassword)));
+    }
+
+    // Para el stack reactivo: no bloquea al llamante, el hash llega cuando el pool termina (mismos límites y métricas)
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        CompletableFuture<String> hashing;
+        try {
+            hashing = CompletableFuture.supplyAsync(() -> this.hashTimer.record(() -> this.encoder.encode(rawPassword)), this.executor);
+        } catch (RejectedExecutionException exception) {
+            this.rejectedCounter.increment();
+            return CompletableFuture.failedFuture(new PasswordHashingOverloadedException(
+                    "Too many password operations in progress, please retry later", this.retryAfterSeconds));
+        }
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        hashing.orTimeout(this.timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((hash, error) -> {
+            if (error == null) {
+                result.complete(hash);
+            } else if (error instanceof TimeoutException) {
+                this.rejectedCounter.increment();
+                result.completeExceptionally(new PasswordHashingOverloadedException(
+                        "Password hashing timed out, please retry later", this.retryAfterSeconds));
+            } else {
+                result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            }
+        });
+        return result;
+    }
+
+    // Para lotes: se envían en tandas del tamaño del pool para no monopolizar la cola frente a los registros sueltos
+    public List<String> hashAll(List<String> rawPasswords) {
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        for (int from = 0; from < rawPasswords.size(); from += this.threads) {
+            List<Future<String>> window = new ArrayList<>(this.threads);
+            for (String rawPassword : rawPasswords.subList(from, Math.min(from + this.threads, rawPasswords.size()))) {
+                window.add(submit(() -> this.encoder.encode(rawPassword)));
+            }
+            for (Future<String> future : window) {
+                hashes.add(await(future));
+            }
+        }
+        return hashes;
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return this.executor.submit(() -> this.hashTimer.recordCallable(task));
+        } catch (RejectedExecutionException exception) {
+            this.rejectedCounter.increment();
+            throw new PasswordHashingOverloadedException("Too many password operations in progress, please retry later", this.retryAfterSeconds);
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(this.timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException exception) {
+            abandon(future);
+            this.rejectedCounter.increment();
+            throw new PasswordHashingOverloadedException("Password hashing timed out, please retry later", this.retryAfterSeconds);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            abandon(future);
+            throw new IllegalStateException("Interrupted while hashing password", exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Password hashing failed", exception.getCause());
+        }
+    }
+
+    // Sin interrupción (BCrypt no la atiende): si aún está en cola se saca y nunca llega a ejecutarse
+    private void abandon(Future<?> future) {
+        future.cancel(false);
+        if (future instanceof Runnable queued) {
+            this.executor.remove(queued);
+        }
+    }
+
+    public static boolean looksLikeBcrypt(String storedPassword) {
+        return storedPassword != null && storedPassword.startsWith("$2") && storedPassword.length() == 60;
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,421 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.dto.UserChangeEventDto;
+import com.adriauson.vibecommerce.entity.UserChangeEvent;
+import com.adriauson.vibecommerce.exception.TooManySubscribersException;
+import com.adriauson.vibecommerce.repository.UserChangeEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * 📡 Feed de cambios de usuarios por Server-Sent Events (GET /api/v1/users/changes).
+ *
+ * Flujo:
+ *  1. UserServiceImpl deja cada cambio en la outbox (UserChangeOutbox), en su misma transacción.
+ *  2. Un hilo "dispatcher" lee la outbox cada poll-interval en orden de ID, a partir de su cursor. Si falta un ID
+ *     (su transacción aún no ha hecho commit) retiene lo que viene detrás hasta que aparece o pasa gap-timeout
+ *     (ver OutboxGapTracker): los eventos salen siempre en orden de ID y el cursor nunca se salta uno pendiente.
+ *  3. Cada evento se serializa UNA vez (JSON + trama SSE) y se encola en el buffer de cada suscriptor.
+ *  4. Un pool pequeño de hilos "sender" vacía cada buffer hacia su conexión.
+ *
+ * Nada de esto bloquea a quien escribe usuarios: el buffer de cada suscriptor está acotado y, si un cliente
+ * lento lo llena, se le desconecta. No pierde nada: el navegador (o el cliente SSE) reconecta con
+ * Last-Event-ID y el tramo pendiente se reenvía desde la outbox antes de seguir en vivo.
+ * Si ese tramo ya se purgó (retention-hours) se manda un evento "reset": toca recargar con GET /api/v1/users.
+ *
+ * Con varias instancias cada una lleva su propio dispatcher sobre la misma outbox y atiende a sus suscriptores.
+ * Al arrancar el cursor empieza en el último ID visible: un commit tardío con un ID menor de otra instancia
+ * en ese momento no se envía en vivo (sí lo verá quien recargue la lista).
+ */
+@Component
+public class UserChangeFeed implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserChangeFeed.class);
+    private static final long RECONNECT_DELAY_MILLIS = 3000;
+    private static final long CLEANUP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long RETRY_AFTER_SECONDS = 5;
+    private static final FeedEvent HEARTBEAT = new FeedEvent(-1, SseEmitter.event().comment("keep-alive").build());
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> RESET = SseEmitter.event().name("reset")
+            .data("{\"message\":\"Some changes are no longer retained, reload the users list\"}", MediaType.APPLICATION_JSON)
+            .build();
+
+    private final UserChangeEventRepository changeEventRepository;
+    private final ObjectMapper objectMapper;
+    private final long pollIntervalMillis;
+    private final long gapTimeoutMillis;
+    private final int batchSize;
+    private final int subscriberBuffer;
+    private final int maxSubscribers;
+    private final long heartbeatIntervalMillis;
+    private final long emitterTimeoutMillis;
+    private final long retentionHours;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Protege el cursor frente a las altas de suscriptores: lo que un suscriptor no reciba en vivo lo reenvía desde la BD
+    private final Object publishLock = new Object();
+    private volatile long cursor = -1;
+    private final OutboxGapTracker gapTracker;
+
+    private final ScheduledExecutorService dispatcher;
+    private final ExecutorService senders;
+    private final Counter dispatchedCounter;
+    private final Counter droppedCounter;
+    private final Counter skippedIdsCounter;
+
+    public UserChangeFeed(UserChangeEventRepository changeEventRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                          @Value("${vibecommerce.users.changes.poll-interval-ms:250}") long pollIntervalMillis,
+                          @Value("${vibecommerce.users.changes.gap-timeout-ms:5000}") long gapTimeoutMillis,
+                          @Value("${vibecommerce.users.changes.batch-size:500}") int batchSize,
+                          @Value("${vibecommerce.users.changes.subscriber-buffer:1000}") int subscriberBuffer,
+                          @Value("${vibecommerce.users.changes.max-subscribers:1000}") int maxSubscribers,
+                          @Value("${vibecommerce.users.changes.sender-threads:4}") int senderThreads,
+                          @Value("${vibecommerce.users.changes.heartbeat-interval-ms:15000}") long heartbeatIntervalMillis,
+                          @Value("${vibecommerce.users.changes.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                          @Value("${vibecommerce.users.changes.retention-hours:24}") long retentionHours) {
+        this.changeEventRepository = changeEventRepository;
+        this.objectMapper = objectMapper;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.gapTracker = new OutboxGapTracker(TimeUnit.MILLISECONDS.toNanos(gapTimeoutMillis));
+        this.batchSize = batchSize;
+        this.subscriberBuffer = subscriberBuffer;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.retentionHours = retentionHours;
+
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-changes-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "user-changes-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.dispatchedCounter = Counter.builder("users.changes.dispatched")
+                .description("Change events read from the outbox and pushed to the subscribers")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("users.changes.dropped")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+        this.skippedIdsCounter = Counter.builder("users.changes.gaps.skipped")
+                .description("Outbox IDs given up after gap-timeout (rolled back or skipped by the auto-increment)")
+                .register(meterRegistry);
+        Gauge.builder("users.changes.subscribers", this.subscribers, Set::size)
+                .description("Clients connected to the users change feed")
+                .register(meterRegistry);
+    }
+
+    // Arranca cuando la aplicación ya está lista (con la BD disponible), igual que la carga del índice de búsqueda
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        this.dispatcher.scheduleWithFixedDelay(this::dispatchPending, 0, this.pollIntervalMillis, TimeUnit.MILLISECONDS);
+        this.dispatcher.scheduleAtFixedRate(this::sendHeartbeats, this.heartbeatIntervalMillis, this.heartbeatIntervalMillis, TimeUnit.MILLISECONDS);
+        this.dispatcher.scheduleWithFixedDelay(this::purgeExpired, CLEANUP_INTERVAL_MILLIS, CLEANUP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("User change feed started (poll every {} ms, gap timeout {} ms, {} h retention)",
+                this.pollIntervalMillis, this.gapTimeoutMillis, this.retentionHours);
+    }
+
+    /*
+     * Nuevo suscriptor. Sin Last-Event-ID recibe solo lo que se publique a partir de ahora; con él, primero
+     * el tramo (Last-Event-ID, cursor] desde la outbox y después los eventos en vivo.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        if (this.subscribers.size() >= this.maxSubscribers) {
+            throw new TooManySubscribersException("Too many clients on the users change feed, please retry later", RETRY_AFTER_SECONDS);
+        }
+        SseEmitter emitter = new SseEmitter(this.emitterTimeoutMillis);
+        try {
+            // 🔁 Cuánto esperar antes de reconectar si se corta la conexión (o si le desconectamos por lento)
+            emitter.send(SseEmitter.event().reconnectTime(RECONNECT_DELAY_MILLIS).comment("connected"));
+        } catch (IOException exception) {
+            emitter.completeWithError(exception);
+            return emitter;
+        }
+
+        Subscriber subscriber;
+        synchronized (this.publishLock) {
+            initCursor();
+            long resumeAfter = lastEventId == null ? this.cursor : Math.max(0, lastEventId);
+            subscriber = new Subscriber(emitter, resumeAfter, this.cursor, this.subscriberBuffer);
+            this.subscribers.add(subscriber);
+        }
+        emitter.onCompletion(() -> this.subscribers.remove(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(exception -> close(subscriber));
+        logger.debug("Change feed subscriber connected (resume after {}), {} connected", subscriber.lastSentId, this.subscribers.size());
+
+        scheduleDrain(subscriber);
+        return emitter;
+    }
+
+    @Override
+    public void destroy() {
+        this.dispatcher.shutdownNow();
+        this.senders.shutdownNow();
+        this.subscribers.forEach(this::close);
+    }
+
+    private void initCursor() {
+        synchronized (this.publishLock) {
+            if (this.cursor < 0) {
+                this.cursor = this.changeEventRepository.findLastId();
+            }
+        }
+    }
+
+    private void dispatchPending() {
+        try {
+            initCursor();
+            List<UserChangeEvent> batch;
+            int ready;
+            do {
+                long from = this.cursor;
+                batch = this.changeEventRepository.findAfter(from, Limit.of(this.batchSize));
+                List<Long> ids = new ArrayList<>(batch.size());
+                for (UserChangeEvent change : batch) {
+                    ids.add(change.getId());
+                }
+                ready = this.gapTracker.ready(from, ids, System.nanoTime());
+                if (ready == 0) {
+                    return;
+                }
+                List<FeedEvent> events = new ArrayList<>(ready);
+                for (UserChangeEvent change : batch.subList(0, ready)) {
+                    events.add(toFeedEvent(change));
+                }
+                long skipped = ids.get(ready - 1) - from - ready;
+                if (skipped > 0) {
+                    this.skippedIdsCounter.increment(skipped);
+                    logger.info("Gave up on {} outbox IDs after {} ms without a commit (up to ID {})",
+                            skipped, this.gapTimeoutMillis, ids.get(ready - 1));
+                }
+                publish(events);
+            } while (ready == this.batchSize);
+        } catch (RuntimeException exception) {
+            // Sin relanzar: una excepción cancelaría las siguientes ejecuciones programadas
+            logger.warn("Could not dispatch user change events, retrying on the next poll", exception);
+        }
+    }
+
+    private void publish(List<FeedEvent> events) {
+        synchronized (this.publishLock) {
+            this.cursor = events.get(events.size() - 1).id();
+            for (Subscriber subscriber : this.subscribers) {
+                for (FeedEvent event : events) {
+                    if (!subscriber.queue.offer(event)) {
+                        drop(subscriber);
+                        break;
+                    }
+                }
+            }
+        }
+        this.subscribers.forEach(this::scheduleDrain);
+        this.dispatchedCounter.increment(events.size());
+    }
+
+    // 💓 Comentario SSE periódico: mantiene viva la conexión en proxies y detecta clientes que ya no están
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : this.subscribers) {
+            if (subscriber.queue.offer(HEARTBEAT)) {
+                scheduleDrain(subscriber);
+            } else {
+                drop(subscriber);
+            }
+        }
+    }
+
+    private void purgeExpired() {
+        try {
+            int purged = this.changeEventRepository.deleteOlderThan(Instant.now().minus(this.retentionHours, ChronoUnit.HOURS));
+            if (purged > 0) {
+                logger.info("Purged {} user change events older than {} h", purged, this.retentionHours);
+            }
+        } catch (RuntimeException exception) {
+            logger.warn("Could not purge old user change events", exception);
+        }
+    }
+
+    // Buffer lleno: fuera del feed sin esperar por él. El hilo sender cierra la conexión cuando le toque
+    private void drop(Subscriber subscriber) {
+        if (this.subscribers.remove(subscriber)) {
+            this.droppedCounter.increment();
+            logger.debug("Change feed subscriber dropped, buffer of {} events full", this.subscriberBuffer);
+        }
+        subscriber.closed = true;
+        scheduleDrain(subscriber);
+    }
+
+    private void close(Subscriber subscriber) {
+        this.subscribers.remove(subscriber);
+        subscriber.closed = true;
+    }
+
+    // Como mucho un sender por suscriptor a la vez: así sus eventos salen en orden.
+    // Un cliente que no lee puede dejar a un sender bloqueado en la escritura hasta el timeout del socket:
+    // por eso sender-threads es un pool aparte y no el hilo dispatcher
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                this.senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException exception) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (!subscriber.replayed) {
+                replay(subscriber);
+                subscriber.replayed = true;
+            }
+            while (true) {
+                FeedEvent event;
+                while (!subscriber.closed && (event = subscriber.queue.poll()) != null) {
+                    send(subscriber, event);
+                }
+                if (subscriber.closed) {
+                    completeQuietly(subscriber);
+                    return;
+                }
+                subscriber.draining.set(false);
+                // Si justo entró algo después del último poll() y nadie más ha cogido el turno, seguimos
+                if (subscriber.queue.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        } catch (IOException | IllegalStateException exception) {
+            // El cliente cerró la conexión o la respuesta asíncrona ya había terminado
+            logger.debug("Change feed subscriber disconnected: {}", exception.getMessage());
+            close(subscriber);
+            completeQuietly(subscriber);
+        } catch (RuntimeException exception) {
+            // Fallo leyendo la outbox durante el reenvío: que el cliente reconecte y lo vuelva a pedir
+            logger.warn("Could not replay user change events to a subscriber", exception);
+            close(subscriber);
+            completeQuietly(subscriber);
+        }
+    }
+
+    private void replay(Subscriber subscriber) throws IOException {
+        long after = subscriber.lastSentId;
+        if (after >= subscriber.replayUpTo) {
+            return;
+        }
+        long oldestRetained = this.changeEventRepository.findOldestId().orElse(subscriber.replayUpTo + 1);
+        if (after + 1 < oldestRetained) {
+            subscriber.emitter.send(RESET);
+        }
+        List<UserChangeEvent> page;
+        do {
+            page = this.changeEventRepository.findRange(after, subscriber.replayUpTo, Limit.of(this.batchSize));
+            for (UserChangeEvent change : page) {
+                if (subscriber.closed) {
+                    return;
+                }
+                send(subscriber, toFeedEvent(change));
+                after = change.getId();
+            }
+        } while (page.size() == this.batchSize);
+    }
+
+    private static void send(Subscriber subscriber, FeedEvent event) throws IOException {
+        if (event.id() < 0) {
+            subscriber.emitter.send(event.frames());
+            return;
+        }
+        // Ya enviado en el reenvío (u otra instancia iba por delante cuando el cliente reconectó)
+        if (event.id() <= subscriber.lastSentId) {
+            return;
+        }
+        subscriber.emitter.send(event.frames());
+        subscriber.lastSentId = event.id();
+    }
+
+    private static void completeQuietly(Subscriber subscriber) {
+        try {
+            subscriber.emitter.complete();
+        } catch (IllegalStateException ignored) {
+            // Ya estaba terminada
+        }
+    }
+
+    // Serialización única por evento: todos los suscriptores comparten la misma trama SSE
+    private FeedEvent toFeedEvent(UserChangeEvent change) {
+        UserChangeEventDto dto = new UserChangeEventDto();
+        dto.setId(change.getId());
+        dto.setType(change.getType().name());
+        dto.setUserId(change.getUserId());
+        dto.setVersion(change.getUserVersion());
+        dto.setOccurredAt(change.getCreatedAt());
+        dto.setUser(change.getPayload());
+        try {
+            String data = this.objectMapper.writeValueAsString(dto);
+            return new FeedEvent(change.getId(), SseEmitter.event()
+                    .id(Long.toString(change.getId()))
+                    .name(dto.getType())
+                    .data(data, MediaType.APPLICATION_JSON)
+                    .build());
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Cannot serialize user change event " + change.getId(), exception);
+        }
+    }
+
+    // id < 0 → sin posición en el feed (heartbeat)
+    private record FeedEvent(long id, Set<ResponseBodyEmitter.DataWithMediaType> frames) {
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<FeedEvent> queue;
+        private final long replayUpTo;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Solo los toca el sender que tiene el turno (draining)
+        private long lastSentId;
+        private boolean replayed;
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, long resumeAfter, long replayUpTo, int bufferSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+            this.lastSentId = resumeAfter;
+            this.replayUpTo = replayUpTo;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.entity.UserChangeEvent;
+import com.adriauson.vibecommerce.repository.UserChangeEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/*
+ * 📮 Escribe los eventos de cambio en la outbox desde los métodos de escritura de UserServiceImpl.
+ *
+ * Propagation.MANDATORY: sin una transacción abierta falla en vez de abrir una propia, porque el evento
+ * solo es fiable si se confirma (o se descarta) junto con el cambio que describe.
+ * Todo pasa por insertAll (INSERT de varias filas): un lote o un borrado masivo es una sentencia, no una por usuario.
+ */
+@Component
+public class UserChangeOutbox {
+
+    private final UserChangeEventRepository changeEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public UserChangeOutbox(UserChangeEventRepository changeEventRepository, ObjectMapper objectMapper) {
+        this.changeEventRepository = changeEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(UserDto user) {
+        this.changeEventRepository.insertAll(List.of(changeOf(UserChangeEvent.Type.CREATED, user, Instant.now())));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(List<UserDto> users) {
+        Instant now = Instant.now();
+        List<UserChangeEvent> events = new ArrayList<>(users.size());
+        for (UserDto user : users) {
+            events.add(changeOf(UserChangeEvent.Type.CREATED, user, now));
+        }
+        this.changeEventRepository.insertAll(events);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUpdated(UserDto user) {
+        this.changeEventRepository.insertAll(List.of(changeOf(UserChangeEvent.Type.UPDATED, user, Instant.now())));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(Collection<Long> userIds) {
+        Instant now = Instant.now();
+        List<UserChangeEvent> events = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            UserChangeEvent event = new UserChangeEvent();
+            event.setType(UserChangeEvent.Type.DELETED);
+            event.setUserId(userId);
+            event.setCreatedAt(now);
+            events.add(event);
+        }
+        this.changeEventRepository.insertAll(events);
+    }
+
+    private UserChangeEvent changeOf(UserChangeEvent.Type type, UserDto user, Instant now) {
+        UserChangeEvent event = new UserChangeEvent();
+        event.setType(type);
+        event.setUserId(user.getId());
+        event.setUserVersion(user.getVersion());
+        event.setPayload(toJson(user));
+        event.setCreatedAt(now);
+        return event;
+    }
+
+    private String toJson(UserDto user) {
+        try {
+            return this.objectMapper.writeValueAsString(user);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException("Cannot serialize user " + user.getId() + " for the change feed", exception);
+        }
+    }
+}
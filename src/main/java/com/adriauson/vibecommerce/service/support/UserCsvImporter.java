@@ -0,0 +1,511 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.dto.BatchRegisterResultDto;
+import com.adriauson.vibecommerce.dto.RegisterUserDto;
+import com.adriauson.vibecommerce.dto.UserImportStatusDto;
+import com.adriauson.vibecommerce.exception.ImportJobNotFoundException;
+import com.adriauson.vibecommerce.exception.TooManyImportsException;
+import com.adriauson.vibecommerce.exception.UploadTooLargeException;
+import com.adriauson.vibecommerce.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * 📥 Importación masiva de usuarios desde CSV (POST /api/v1/users/import), pensada para ficheros de varios GB.
+ *
+ * Flujo:
+ *  1. La subida (multipart o cuerpo text/csv) se vuelca tal cual a un fichero temporal en directory y se
+ *     responde 202 con el id del trabajo: nada del fichero pasa por el heap. Como mucho max-upload-size bytes:
+ *     se comprueba con el tamaño declarado antes de empezar y, para el cuerpo text/csv, también mientras se copia
+ *     (413 y el fichero parcial se borra). Los multipart los corta antes Tomcat (spring.servlet.multipart.*).
+ *  2. Un pool propio (threads hilos, cola de queue-capacity trabajos; llena → 503 + Retry-After) lo procesa:
+ *     CsvReader lee registro a registro y UserCsvRowValidator valida cada fila sin Bean Validation.
+ *  3. Las filas válidas se agrupan en bloques de chunk-size y cada bloque va a UserService.registerValidatedUsers:
+ *     una transacción por bloque con la misma lógica que POST /batch (duplicados con IN, inserts por lotes,
+ *     hashing en su pool, outbox, filtro de Bloom e índice de búsqueda).
+ *  4. Cada fila rechazada (mal formada, inválida o email ya usado) se escribe en el informe de errores
+ *     (<id>-errors.csv: line,email,error), que se descarga con GET /api/v1/users/import/{id}/errors.
+ *
+ * Memoria constante sea cual sea el tamaño del fichero: un bloque de filas, un buffer de lectura y los contadores.
+ * El estado de los trabajos vive retention-hours desde que terminan (máximo max-jobs) y se pierde al reiniciar.
+ * Métricas: users.import.rows{outcome=written|rejected} y users.import.queue.
+ */
+@Component
+public class UserCsvImporter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCsvImporter.class);
+    private static final String[] COLUMNS = {"firstName", "lastName", "email", "address", "password", "confirmPassword"};
+    private static final int FIRST_NAME = 0, LAST_NAME = 1, EMAIL = 2, ADDRESS = 3, PASSWORD = 4, CONFIRM_PASSWORD = 5;
+    private static final int MAX_FIELDS = 64;
+    private static final String IMPORT_PATH = "/api/v1/users/import/";
+    private static final String ERROR_REPORT_HEADER = "line,email,error\n";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final UserService userService;
+    private final Path directory;
+    private final int chunkSize;
+    private final int maxFieldLength;
+    private final long maxUploadBytes;
+    private final long retryAfterSeconds;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, ImportJob> jobs;
+    private final Counter writtenCounter;
+    private final Counter rejectedCounter;
+
+    public UserCsvImporter(UserService userService,
+                           @Value("${vibecommerce.users.import.directory:${java.io.tmpdir}/vibecommerce-imports}") String directory,
+                           @Value("${vibecommerce.users.import.chunk-size:1000}") int chunkSize,
+                           @Value("${vibecommerce.users.import.threads:1}") int threads,
+                           @Value("${vibecommerce.users.import.queue-capacity:4}") int queueCapacity,
+                           @Value("${vibecommerce.users.import.max-field-length:1000}") int maxFieldLength,
+                           @Value("${vibecommerce.users.import.max-upload-size:2GB}") DataSize maxUploadSize,
+                           @Value("${vibecommerce.users.import.retention-hours:24}") long retentionHours,
+                           @Value("${vibecommerce.users.import.max-jobs:1000}") long maxJobs,
+                           @Value("${vibecommerce.users.import.retry-after-seconds:60}") long retryAfterSeconds,
+                           MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.directory = Paths.get(directory).toAbsolutePath();
+        this.chunkSize = chunkSize;
+        this.maxFieldLength = maxFieldLength;
+        this.maxUploadBytes = maxUploadSize.toBytes();
+        this.retryAfterSeconds = retryAfterSeconds;
+        prepareDirectory(this.directory);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        // Cada bloque vuelve a guardar el trabajo: expireAfterWrite cuenta desde el último avance, no desde la subida
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(maxJobs)
+                .expireAfterWrite(Duration.ofHours(retentionHours))
+                .<String, ImportJob>removalListener((id, job, cause) -> {
+                    if (cause.wasEvicted() && job != null) {
+                        deleteQuietly(job.errors);
+                    }
+                })
+                .build();
+
+        this.writtenCounter = Counter.builder("users.import.rows")
+                .description("CSV rows processed by user imports")
+                .tag("outcome", "written")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("users.import.rows")
+                .description("CSV rows processed by user imports")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        Gauge.builder("users.import.queue", this.executor, pool -> pool.getQueue().size())
+                .description("Import jobs waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    public UserImportStatusDto submit(MultipartFile file) {
+        checkDeclaredSize(file.getSize());
+        // transferTo(File): Tomcat mueve el fichero temporal de la parte en lugar de copiarlo si puede
+        return submit(target -> file.transferTo(target.toFile()));
+    }
+
+    // declaredLength: Content-Length del cuerpo, -1 si no viene (chunked)
+    public UserImportStatusDto submit(InputStream body, long declaredLength) {
+        checkDeclaredSize(declaredLength);
+        return submit(target -> copyLimited(body, target));
+    }
+
+    public UserImportStatusDto getStatus(String jobId) {
+        return toDto(findJob(jobId));
+    }
+
+    public Path getErrorReport(String jobId) {
+        return findJob(jobId).errors;
+    }
+
+    private UserImportStatusDto submit(Upload upload) {
+        // Comprobación previa: no tiene sentido copiar varios GB al disco para rechazarlos después
+        if (this.executor.getQueue().remainingCapacity() == 0) {
+            throw tooManyImports();
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), this.directory);
+        try {
+            upload.writeTo(job.upload);
+            // El informe existe desde el principio (solo cabecera) para poder pedirlo aunque el trabajo esté en cola
+            Files.writeString(job.errors, ERROR_REPORT_HEADER, StandardCharsets.UTF_8);
+        } catch (IOException exception) {
+            deleteQuietly(job.upload);
+            deleteQuietly(job.errors);
+            throw new UncheckedIOException("Could not store the uploaded file", exception);
+        } catch (UploadTooLargeException exception) {
+            deleteQuietly(job.upload);
+            throw exception;
+        }
+
+        this.jobs.put(job.id, job);
+        try {
+            this.executor.execute(() -> run(job));
+        } catch (RejectedExecutionException exception) {
+            this.jobs.invalidate(job.id);
+            deleteQuietly(job.upload);
+            deleteQuietly(job.errors);
+            throw tooManyImports();
+        }
+        logger.info("Import {} queued", job.id);
+        return toDto(job);
+    }
+
+    private void checkDeclaredSize(long size) {
+        if (size > this.maxUploadBytes) {
+            throw uploadTooLarge();
+        }
+    }
+
+    // Files.copy sin límite llenaría el disco con un cuerpo chunked sin fin: se corta al pasar de max-upload-size
+    private void copyLimited(InputStream body, Path target) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long copied = 0;
+        try (OutputStream output = Files.newOutputStream(target)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                copied += read;
+                if (copied > this.maxUploadBytes) {
+                    throw uploadTooLarge();
+                }
+                output.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private UploadTooLargeException uploadTooLarge() {
+        return new UploadTooLargeException("The file exceeds the maximum upload size of " + this.maxUploadBytes + " bytes",
+                this.maxUploadBytes);
+    }
+
+    private void run(ImportJob job) {
+        job.startedAt = Instant.now();
+        job.status = UserImportStatusDto.Status.RUNNING;
+        logger.info("Import {} started", job.id);
+
+        try (CsvReader csv = new CsvReader(new InputStreamReader(Files.newInputStream(job.upload), StandardCharsets.UTF_8),
+                this.maxFieldLength, MAX_FIELDS);
+             BufferedWriter errors = Files.newBufferedWriter(job.errors, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+
+            List<String> fields = new ArrayList<>(COLUMNS.length);
+            if (!csv.readRecord(fields)) {
+                job.finish(UserImportStatusDto.Status.FAILED, "The file is empty");
+                return;
+            }
+            int[] columns = columnIndexes(fields);
+            String missingColumns = missingColumns(columns);
+            if (missingColumns != null) {
+                job.finish(UserImportStatusDto.Status.FAILED, "Missing required columns: " + missingColumns
+                        + " (expected header: " + String.join(",", COLUMNS) + ")");
+                return;
+            }
+
+            List<RegisterUserDto> chunk = new ArrayList<>(this.chunkSize);
+            long[] chunkLines = new long[this.chunkSize];
+            while (csv.readRecord(fields)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    job.finish(UserImportStatusDto.Status.FAILED, "Import interrupted by shutdown");
+                    return;
+                }
+                // Líneas en blanco (p. ej. al final del fichero): ni se cuentan ni se rechazan
+                if (fields.size() == 1 && fields.get(0).isEmpty() && csv.error() == null) {
+                    continue;
+                }
+                job.rowsRead++;
+
+                if (csv.error() != null) {
+                    reject(job, errors, csv.recordLine(), null, csv.error());
+                    continue;
+                }
+                RegisterUserDto row = toRow(fields, columns);
+                String violations = UserCsvRowValidator.validate(row);
+                if (violations != null) {
+                    reject(job, errors, csv.recordLine(), row.getEmail(), violations);
+                    continue;
+                }
+
+                chunkLines[chunk.size()] = csv.recordLine();
+                chunk.add(row);
+                if (chunk.size() == this.chunkSize) {
+                    writeChunk(job, chunk, chunkLines, errors);
+                }
+            }
+            writeChunk(job, chunk, chunkLines, errors);
+            job.finish(UserImportStatusDto.Status.COMPLETED, null);
+        } catch (IOException | RuntimeException exception) {
+            logger.error("Import {} failed after {} rows", job.id, job.rowsRead, exception);
+            job.finish(UserImportStatusDto.Status.FAILED, exception.getMessage());
+        } finally {
+            deleteQuietly(job.upload);
+            this.jobs.put(job.id, job);
+            logger.info("Import {} {}: {} rows read, {} written, {} rejected",
+                    job.id, job.status, job.rowsRead, job.rowsWritten, job.rowsRejected);
+        }
+    }
+
+    private void writeChunk(ImportJob job, List<RegisterUserDto> chunk, long[] chunkLines, BufferedWriter errors) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<BatchRegisterResultDto> results;
+        try {
+            results = this.userService.registerValidatedUsers(chunk);
+            // Pool de hashing saturado: esas filas no se han tocado, se reintentan una vez (el resto ya está confirmado)
+            List<Integer> unavailable = new ArrayList<>();
+            for (BatchRegisterResultDto result : results) {
+                if (result.getStatus() == BatchRegisterResultDto.Status.UNAVAILABLE) {
+                    unavailable.add(result.getIndex());
+                }
+            }
+            if (!unavailable.isEmpty()) {
+                logger.warn("Import {}: {} rows waiting for the password hashing pool, retrying once", job.id, unavailable.size());
+                List<BatchRegisterResultDto> merged = new ArrayList<>(results);
+                List<BatchRegisterResultDto> retried = this.userService.registerValidatedUsers(
+                        unavailable.stream().map(chunk::get).toList());
+                for (BatchRegisterResultDto result : retried) {
+                    int index = unavailable.get(result.getIndex());
+                    result.setIndex(index);
+                    merged.set(index, result);
+                }
+                results = merged;
+            }
+        } catch (RuntimeException firstAttempt) {
+            // El bloque no se ha guardado (p. ej. un fallo de conexión). Los emails que otra petición registre a la vez
+            // ya los resuelve registerValidatedUsers como CONFLICT; esto cubre el resto de fallos transitorios.
+            logger.warn("Import {}: chunk of {} rows failed, retrying once: {}", job.id, chunk.size(), firstAttempt.getMessage());
+            try {
+                results = this.userService.registerValidatedUsers(chunk);
+            } catch (RuntimeException secondAttempt) {
+                logger.warn("Import {}: chunk of {} rows rejected", job.id, chunk.size(), secondAttempt);
+                for (int i = 0; i < chunk.size(); i++) {
+                    reject(job, errors, chunkLines[i], chunk.get(i).getEmail(), "Could not be saved: " + secondAttempt.getMessage());
+                }
+                results = List.of();
+            }
+        }
+
+        for (BatchRegisterResultDto result : results) {
+            if (result.getStatus() == BatchRegisterResultDto.Status.CREATED) {
+                job.rowsWritten++;
+                this.writtenCounter.increment();
+            } else {
+                int index = result.getIndex();
+                reject(job, errors, chunkLines[index], chunk.get(index).getEmail(), result.getMessage());
+            }
+        }
+        chunk.clear();
+        // El informe queda al día bloque a bloque para poder descargarlo mientras el trabajo sigue
+        errors.flush();
+        this.jobs.put(job.id, job);
+    }
+
+    private void reject(ImportJob job, BufferedWriter errors, long line, String email, String message) throws IOException {
+        job.rowsRejected++;
+        this.rejectedCounter.increment();
+        errors.write(Long.toString(line));
+        errors.write(',');
+        writeCsvField(errors, email);
+        errors.write(',');
+        writeCsvField(errors, message);
+        errors.write('\n');
+    }
+
+    // Cabecera → posición de cada columna conocida (sin distinguir mayúsculas); confirmPassword es opcional
+    private static int[] columnIndexes(List<String> header) {
+        int[] columns = new int[COLUMNS.length];
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            for (int column = 0; column < COLUMNS.length; column++) {
+                if (COLUMNS[column].toLowerCase(Locale.ROOT).equals(name)) {
+                    columns[column] = i;
+                }
+            }
+        }
+        return columns;
+    }
+
+    private static String missingColumns(int[] columns) {
+        StringJoiner missing = new StringJoiner(", ");
+        for (int column = 0; column < CONFIRM_PASSWORD; column++) {
+            if (columns[column] < 0) {
+                missing.add(COLUMNS[column]);
+            }
+        }
+        return missing.length() > 0 ? missing.toString() : null;
+    }
+
+    private static RegisterUserDto toRow(List<String> fields, int[] columns) {
+        RegisterUserDto row = new RegisterUserDto();
+        row.setFirstName(field(fields, columns[FIRST_NAME]));
+        row.setLastName(field(fields, columns[LAST_NAME]));
+        row.setEmail(field(fields, columns[EMAIL]));
+        row.setAddress(field(fields, columns[ADDRESS]));
+        row.setPassword(field(fields, columns[PASSWORD]));
+        // Sin columna confirmPassword queda null y no se comprueba (ver UserCsvRowValidator)
+        if (columns[CONFIRM_PASSWORD] >= 0) {
+            row.setConfirmPassword(field(fields, columns[CONFIRM_PASSWORD]));
+        }
+        return row;
+    }
+
+    // Una fila con menos campos que la cabecera: los que faltan cuentan como vacíos
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : "";
+    }
+
+    private static void writeCsvField(BufferedWriter writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private ImportJob findJob(String jobId) {
+        ImportJob job = this.jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new ImportJobNotFoundException("Import job " + jobId + " not found", jobId);
+        }
+        return job;
+    }
+
+    private TooManyImportsException tooManyImports() {
+        return new TooManyImportsException("Too many imports in progress, please retry later", this.retryAfterSeconds);
+    }
+
+    private static UserImportStatusDto toDto(ImportJob job) {
+        UserImportStatusDto dto = new UserImportStatusDto();
+        dto.setJobId(job.id);
+        dto.setStatus(job.status);
+        dto.setRowsRead(job.rowsRead);
+        dto.setRowsWritten(job.rowsWritten);
+        dto.setRowsRejected(job.rowsRejected);
+        dto.setCreatedAt(job.createdAt);
+        dto.setStartedAt(job.startedAt);
+        dto.setFinishedAt(job.finishedAt);
+        dto.setMessage(job.message);
+        dto.setErrorReport(IMPORT_PATH + job.id + "/errors");
+        if (job.startedAt != null) {
+            Instant end = job.finishedAt != null ? job.finishedAt : Instant.now();
+            long millis = Math.max(1, Duration.between(job.startedAt, end).toMillis());
+            dto.setRowsPerSecond(Math.round(job.rowsRead * 10_000.0 / millis) / 10.0);
+        }
+        return dto;
+    }
+
+    // Los ficheros de una ejecución anterior ya no tienen trabajo asociado (el estado es solo de memoria)
+    private static void prepareDirectory(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*.csv")) {
+                for (Path leftover : leftovers) {
+                    deleteQuietly(leftover);
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not prepare the import directory " + directory, exception);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException exception) {
+            logger.warn("Could not delete {}: {}", path, exception.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface Upload {
+        void writeTo(Path target) throws IOException;
+    }
+
+    /*
+     * Estado de un trabajo. Solo el hilo de importación escribe los campos; volatile basta para que
+     * GET /import/{id} lea valores recientes desde los hilos de Tomcat.
+     */
+    private static final class ImportJob {
+        private final String id;
+        private final Path upload;
+        private final Path errors;
+        private final Instant createdAt = Instant.now();
+        private volatile UserImportStatusDto.Status status = UserImportStatusDto.Status.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile String message;
+        private volatile long rowsRead;
+        private volatile long rowsWritten;
+        private volatile long rowsRejected;
+
+        private ImportJob(String id, Path directory) {
+            this.id = id;
+            this.upload = directory.resolve(id + ".csv");
+            this.errors = directory.resolve(id + "-errors.csv");
+        }
+
+        private void finish(UserImportStatusDto.Status status, String message) {
+            this.message = message;
+            this.finishedAt = Instant.now();
+            this.status = status;
+        }
+    }
+}
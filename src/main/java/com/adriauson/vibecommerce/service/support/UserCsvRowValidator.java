@@ -0,0 +1,98 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.dto.RegisterUserDto;
+import com.adriauson.vibecommerce.validation.validators.PasswordValidator;
+import org.hibernate.validator.internal.constraintvalidators.bv.EmailValidator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+ * ✅ Validación de las filas de la importación CSV con las mismas reglas que BaseUserDto/RegisterUserDto
+ * (grupos Default + OnCreate), pero escritas a mano: ni metadatos por reflexión, ni Set de
+ * ConstraintViolation, ni interpolación de mensajes por cada fila de un fichero de millones.
+ *
+ *  - Email: la misma clase que usa @Email (EmailValidator de Hibernate Validator), así el criterio no se separa.
+ *  - Contraseña: PasswordValidator.violation(), la misma regla que @ValidPassword.
+ *  - confirmPassword es opcional en el CSV: si la columna no viene (null) no se comprueba.
+ * Devuelve null si la fila es válida o los errores con el mismo formato que POST /api/v1/users/batch.
+ * Si cambian las anotaciones de BaseUserDto hay que cambiar esto también (ValidationBenchmark compara ambos).
+ */
+public final class UserCsvRowValidator {
+
+    private static final EmailValidator EMAIL_VALIDATOR = new EmailValidator();
+
+    private UserCsvRowValidator() {
+    }
+
+    public static String validate(RegisterUserDto row) {
+        List<String> violations = null;
+        violations = checkName(violations, "firstName", "Firstname is required", row.getFirstName());
+        violations = checkName(violations, "lastName", "Lastname is required", row.getLastName());
+
+        String email = row.getEmail();
+        if (isBlank(email)) {
+            violations = add(violations, "email", "Email is required");
+        } else if (!EMAIL_VALIDATOR.isValid(email, null)) {
+            violations = add(violations, "email", "Must be a valid email");
+        }
+
+        String address = row.getAddress();
+        if (isBlank(address)) {
+            violations = add(violations, "address", "Address is required");
+        }
+        if (address != null && (address.length() < 10 || address.length() > 250)) {
+            violations = add(violations, "address", "Address size must be between 10 to 250 characters");
+        }
+
+        String passwordViolation = PasswordValidator.violation(row.getPassword());
+        if (passwordViolation != null) {
+            violations = add(violations, "password", passwordViolation);
+        }
+        String confirmPassword = row.getConfirmPassword();
+        if (confirmPassword != null) {
+            if (isBlank(confirmPassword)) {
+                violations = add(violations, "confirmPassword", "Password confirmation is required");
+            }
+            String confirmViolation = PasswordValidator.violation(confirmPassword);
+            if (confirmViolation != null) {
+                violations = add(violations, "confirmPassword", confirmViolation);
+            }
+            if (!confirmPassword.equals(row.getPassword())) {
+                violations = add(violations, null, "Passwords do not match");
+            }
+        }
+
+        if (violations == null) {
+            return null;
+        }
+        Collections.sort(violations);
+        return String.join("; ", violations);
+    }
+
+    // @NotBlank + @Size(min = 3, max = 30) de @ValidFirstName / @ValidLastName
+    private static List<String> checkName(List<String> violations, String property, String requiredMessage, String value) {
+        if (isBlank(value)) {
+            violations = add(violations, property, requiredMessage);
+        }
+        if (value != null && (value.length() < 3 || value.length() > 30)) {
+            violations = add(violations, property, "size must be between 3 and 30");
+        }
+        return violations;
+    }
+
+    // La lista solo se crea con el primer error: una fila válida no reserva nada
+    private static List<String> add(List<String> violations, String property, String message) {
+        if (violations == null) {
+            violations = new ArrayList<>(4);
+        }
+        violations.add(property == null ? message : property + ": " + message);
+        return violations;
+    }
+
+    // Igual que @NotBlank (NotBlankValidator): null o vacío tras trim()
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
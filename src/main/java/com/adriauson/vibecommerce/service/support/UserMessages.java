@@ -0,0 +1,47 @@
+package com.adriauson.vibecommerce.service.support;
+
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/*
+ * 🌐 Mensajes localizados de los errores de usuario, resueltos una vez por idioma.
+ *
+ * messageSource.getMessage(code, args, locale) busca el bundle y formatea con un MessageFormat compartido
+ * dentro de un synchronized en cada llamada: con muchos 404 seguidos es un cuello de botella.
+ * Aquí la plantilla se resuelve la primera vez para cada Locale (con un marcador en lugar del argumento,
+ * así MessageFormat sigue interpretando comillas y escapes) y se guarda partida en trozos fijos;
+ * después cada mensaje es una concatenación.
+ * El ID se escribe tal cual (1234), sin la separación de miles que añadía MessageFormat (1,234).
+ */
+@Component
+public class UserMessages {
+
+    private static final String NOT_FOUND_CODE = "entity.not.found";
+    private static final String ARGUMENT_MARKER = "\u0000";
+
+    private final MessageSource messageSource;
+    private final ConcurrentMap<Locale, String[]> notFoundTemplates = new ConcurrentHashMap<>();
+
+    public UserMessages(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    public String userNotFound(Long id) {
+        String[] template = this.notFoundTemplates.computeIfAbsent(Locale.getDefault(), this::resolveNotFound);
+        return template.length == 1 ? template[0] : template[0] + id + template[1];
+    }
+
+    // [antes, después] del {0}; [mensaje] si la traducción no usa el argumento
+    private String[] resolveNotFound(Locale locale) {
+        String message = this.messageSource.getMessage(NOT_FOUND_CODE, new Object[]{ARGUMENT_MARKER}, locale);
+        int marker = message.indexOf(ARGUMENT_MARKER);
+        if (marker < 0) {
+            return new String[]{message};
+        }
+        return new String[]{message.substring(0, marker), message.substring(marker + ARGUMENT_MARKER.length())};
+    }
+}
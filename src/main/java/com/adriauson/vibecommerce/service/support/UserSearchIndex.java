@@ -0,0 +1,436 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.repository.UserRepository;
+import com.adriauson.vibecommerce.repository.projection.UserSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/*
+ * 🔎 Índice invertido en memoria para buscar usuarios por nombre, apellido o email.
+ *
+ * Un LIKE '%ana%' en MySQL recorre la tabla entera; aquí cada campo (en minúsculas y sin tildes)
+ * se trocea en claves de tres caracteres y cada clave apunta a la lista ordenada de IDs que la contienen:
+ *
+ *  - Términos de 3 o más caracteres → subcadena: se cruzan las listas de todos sus trigramas ("garc" → "gar" ∩ "arc").
+ *  - Términos de 1 o 2 caracteres  → prefijo de palabra: se indexan como "\0\0a" y "\0an" para cada palabra
+ *    del campo (el email se parte por '@', '.', '-', etc.).
+ *  - Varios términos ("ana garc") → todos deben aparecer, cada uno en cualquiera de los tres campos.
+ *
+ * El índice solo genera candidatos y nunca tiene falsos negativos: UserServiceImpl resuelve la página con una
+ * consulta IN y descarta con matches() lo que ya no encaja. Por eso las actualizaciones solo añaden las claves
+ * nuevas y los borrados no quitan nada (no guardamos el texto antiguo, que costaría más memoria que el propio
+ * índice); esas entradas obsoletas se cuentan y cuando superan rebuild-stale-ratio se reconstruye en segundo plano.
+ *
+ * La primera construcción va en el mismo hilo que las reconstrucciones ("user-search-index"), no en el del
+ * ApplicationReadyEvent: hasta que termina isReady() es false y la búsqueda responde 503 (SearchIndexNotReadyException).
+ *
+ * Las listas son int[] ordenados (4 bytes por entrada): los IDs por encima de Integer.MAX_VALUE no se indexan.
+ * La huella de memoria estimada se publica en users.search.index.memory y en el log de cada reconstrucción.
+ */
+@Component
+public class UserSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final char MARKER = '\0';
+    private static final long INITIAL_RETRY_SECONDS = 30;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double rebuildStaleRatio;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService rebuildExecutor;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong staleEntries = new AtomicLong();
+
+    // Protegidos por lock
+    private Map<Long, Postings> postings = new HashMap<>();
+    private long indexedUsers;
+    private List<UserSummary> pendingDuringRebuild;
+
+    private volatile boolean ready;
+
+    public UserSearchIndex(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${vibecommerce.users.search.rebuild-stale-ratio:0.2}") double rebuildStaleRatio) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rebuildStaleRatio = rebuildStaleRatio;
+        this.rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-search-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("users.search.index.memory", this, UserSearchIndex::getEstimatedBytes)
+                .description("Estimated heap used by the user search index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("users.search.index.stale", this.staleEntries, AtomicLong::get)
+                .description("Updated or deleted users still referenced by the search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        this.rebuilding.set(true);
+        scheduleRebuild();
+    }
+
+    // Reconstrucción completa leyendo en streaming. Las altas que llegan mientras tanto se guardan
+    // en pendingDuringRebuild y se reaplican sobre el índice nuevo antes de publicarlo.
+    // synchronized: una llamada directa (harness, pruebas) no puede solaparse con la del hilo de reconstrucción
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        this.lock.writeLock().lock();
+        try {
+            this.pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        long staleBefore = this.staleEntries.get();
+
+        Map<Long, Postings> fresh = new HashMap<>();
+        long loaded;
+        try {
+            loaded = this.readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<UserSummary> users = this.userRepository.streamAllSummaries()) {
+                    for (UserSummary user : (Iterable<UserSummary>) users::iterator) {
+                        if (addTo(fresh, user.id(), user.firstName(), user.lastName(), user.email())) {
+                            count++;
+                        }
+                    }
+                }
+                return count;
+            });
+        } catch (RuntimeException exception) {
+            // Sin esto las altas se seguirían acumulando en pendingDuringRebuild para un índice que no llega
+            this.lock.writeLock().lock();
+            try {
+                this.pendingDuringRebuild = null;
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+            throw exception;
+        }
+
+        this.lock.writeLock().lock();
+        try {
+            for (UserSummary user : this.pendingDuringRebuild) {
+                addTo(fresh, user.id(), user.firstName(), user.lastName(), user.email());
+            }
+            this.pendingDuringRebuild = null;
+            this.postings = fresh;
+            this.indexedUsers = loaded;
+            this.ready = true;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        this.staleEntries.addAndGet(-staleBefore);
+
+        logger.info("User search index built with {} users and {} keys in {} ms (~{} MB)",
+                loaded, fresh.size(), (System.nanoTime() - start) / 1_000_000, getEstimatedBytes() / (1024 * 1024));
+    }
+
+    public boolean isReady() {
+        return this.ready;
+    }
+
+    // Recorre las listas (decenas o cientos de miles de claves): pensado para el scrape de métricas, no para cada petición
+    public long getEstimatedBytes() {
+        this.lock.readLock().lock();
+        try {
+            return estimateBytes(this.postings);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public void add(Long id, String firstName, String lastName, String email) {
+        index(id, firstName, lastName, email, true);
+    }
+
+    // Cambio de nombre o email: se añaden las claves nuevas y las antiguas quedan como obsoletas
+    public void update(Long id, String firstName, String lastName, String email) {
+        index(id, firstName, lastName, email, false);
+        markStale(1);
+    }
+
+    // Borrados: las claves siguen apuntando a los usuarios hasta la próxima reconstrucción
+    public void markStale(long users) {
+        if (users <= 0) {
+            return;
+        }
+        long stale = this.staleEntries.addAndGet(users);
+        if (this.ready && stale > this.indexedUsers * this.rebuildStaleRatio && this.rebuilding.compareAndSet(false, true)) {
+            scheduleRebuild();
+        }
+    }
+
+    // Quien llama ya ha puesto rebuilding a true: como mucho una reconstrucción en marcha.
+    // Si falla la primera (sin índice la búsqueda da 503) se reintenta cada INITIAL_RETRY_SECONDS;
+    // si falla una posterior se sigue con el índice anterior y lo reintentará el siguiente markStale
+    private void scheduleRebuild() {
+        this.rebuildExecutor.execute(() -> {
+            try {
+                while (true) {
+                    try {
+                        rebuild();
+                        return;
+                    } catch (RuntimeException exception) {
+                        if (this.ready) {
+                            logger.warn("User search index rebuild failed, keeping the previous index", exception);
+                            return;
+                        }
+                        logger.warn("User search index could not be built, retrying in {} s", INITIAL_RETRY_SECONDS, exception);
+                        TimeUnit.SECONDS.sleep(INITIAL_RETRY_SECONDS);
+                    }
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.rebuilding.set(false);
+            }
+        });
+    }
+
+    /*
+     * Devuelve hasta max IDs candidatos mayores que after, en orden ascendente.
+     * Recorre la lista más corta desde el cursor y comprueba el resto con búsqueda binaria,
+     * así que el coste depende del tamaño de página y no del número de coincidencias.
+     */
+    public List<Long> search(String query, long after, int max) {
+        Set<Long> keys = queryKeys(query);
+        if (keys.isEmpty() || after >= Integer.MAX_VALUE) {
+            return List.of();
+        }
+        this.lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[keys.size()];
+            int n = 0;
+            for (Long key : keys) {
+                Postings list = this.postings.get(key);
+                if (list == null) {
+                    return List.of();
+                }
+                lists[n++] = list;
+            }
+            Arrays.sort(lists, Comparator.comparingInt((Postings list) -> list.size));
+
+            Postings smallest = lists[0];
+            List<Long> result = new ArrayList<>(Math.min(max, smallest.size));
+            for (int i = smallest.firstAfter((int) Math.max(after, -1L)); i < smallest.size && result.size() < max; i++) {
+                int id = smallest.ids[i];
+                boolean inAll = true;
+                for (int l = 1; l < lists.length && inAll; l++) {
+                    inAll = lists[l].contains(id);
+                }
+                if (inAll) {
+                    result.add((long) id);
+                }
+            }
+            return result;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    // Comprobación exacta sobre los valores actuales: la misma semántica que las claves del índice
+    public static boolean matches(String query, String firstName, String lastName, String email) {
+        String[] fields = {normalize(firstName), normalize(lastName), normalize(email)};
+        for (String term : terms(query)) {
+            boolean found = false;
+            for (int f = 0; f < fields.length && !found; f++) {
+                found = term.length() >= 3 ? fields[f].contains(term) : hasWordWithPrefix(fields[f], term);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void index(Long id, String firstName, String lastName, String email, boolean newUser) {
+        this.lock.writeLock().lock();
+        try {
+            if (addTo(this.postings, id, firstName, lastName, email) && newUser) {
+                this.indexedUsers++;
+            }
+            if (this.pendingDuringRebuild != null) {
+                this.pendingDuringRebuild.add(new UserSummary(id, firstName, lastName, email, null, null));
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        this.rebuildExecutor.shutdownNow();
+    }
+
+    private static boolean addTo(Map<Long, Postings> target, Long id, String firstName, String lastName, String email) {
+        if (id == null || id > Integer.MAX_VALUE || id < 0) {
+            logger.warn("User ID {} is outside the searchable range and will not be indexed", id);
+            return false;
+        }
+        Set<Long> keys = new LinkedHashSet<>();
+        documentKeys(normalize(firstName), keys);
+        documentKeys(normalize(lastName), keys);
+        documentKeys(normalize(email), keys);
+        int intId = id.intValue();
+        boolean added = false;
+        for (Long key : keys) {
+            added |= target.computeIfAbsent(key, k -> new Postings()).add(intId);
+        }
+        return added;
+    }
+
+    private static void documentKeys(String field, Set<Long> keys) {
+        for (int i = 0; i + 3 <= field.length(); i++) {
+            keys.add(key(field.charAt(i), field.charAt(i + 1), field.charAt(i + 2)));
+        }
+        int wordStart = -1;
+        for (int i = 0; i <= field.length(); i++) {
+            boolean wordChar = i < field.length() && Character.isLetterOrDigit(field.charAt(i));
+            if (wordChar && wordStart < 0) {
+                wordStart = i;
+                keys.add(key(MARKER, MARKER, field.charAt(i)));
+                if (i + 1 < field.length() && Character.isLetterOrDigit(field.charAt(i + 1))) {
+                    keys.add(key(MARKER, field.charAt(i), field.charAt(i + 1)));
+                }
+            } else if (!wordChar) {
+                wordStart = -1;
+            }
+        }
+    }
+
+    private static Set<Long> queryKeys(String query) {
+        Set<Long> keys = new LinkedHashSet<>();
+        for (String term : terms(query)) {
+            if (term.length() >= 3) {
+                for (int i = 0; i + 3 <= term.length(); i++) {
+                    keys.add(key(term.charAt(i), term.charAt(i + 1), term.charAt(i + 2)));
+                }
+            } else if (term.chars().allMatch(Character::isLetterOrDigit)) {
+                keys.add(term.length() == 1 ? key(MARKER, MARKER, term.charAt(0)) : key(MARKER, term.charAt(0), term.charAt(1)));
+            } else {
+                // "@g" o "." no pueden ser prefijo de palabra: no hay resultados posibles
+                return Set.of();
+            }
+        }
+        return keys;
+    }
+
+    private static List<String> terms(String query) {
+        String normalized = normalize(query).trim();
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split("\\s+"));
+    }
+
+    private static boolean hasWordWithPrefix(String field, String prefix) {
+        for (int i = field.indexOf(prefix); i >= 0; i = field.indexOf(prefix, i + 1)) {
+            if (i == 0 || !Character.isLetterOrDigit(field.charAt(i - 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // "José" y "jose" deben encontrarse igual: minúsculas y sin marcas diacríticas
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String lower = value.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) > 0x7F) {
+                return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+            }
+        }
+        return lower;
+    }
+
+    private static long key(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /*
+     * 📐 Estimación con el layout de una JVM de 64 bits con compressed oops:
+     * HashMap.Node 32 B + clave Long 16 B + Postings 24 B + cabecera del int[] 16 B + 4 B por hueco,
+     * más 4 B por cubeta de la tabla.
+     */
+    private static long estimateBytes(Map<Long, Postings> postings) {
+        long bytes = 16L + Integer.highestOneBit(Math.max(1, postings.size() * 4 / 3) * 2) * 4L;
+        for (Postings list : postings.values()) {
+            bytes += 32 + 16 + 24 + 16 + 4L * list.ids.length;
+        }
+        return bytes;
+    }
+
+    // Lista de IDs ordenada y sin duplicados. Las altas llegan casi siempre con el ID más alto: append O(1)
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        boolean add(int id) {
+            if (this.size > 0 && this.ids[this.size - 1] >= id) {
+                int position = Arrays.binarySearch(this.ids, 0, this.size, id);
+                if (position >= 0) {
+                    return false;
+                }
+                insertAt(-position - 1, id);
+                return true;
+            }
+            insertAt(this.size, id);
+            return true;
+        }
+
+        boolean contains(int id) {
+            return Arrays.binarySearch(this.ids, 0, this.size, id) >= 0;
+        }
+
+        int firstAfter(int id) {
+            int position = Arrays.binarySearch(this.ids, 0, this.size, id);
+            return position >= 0 ? position + 1 : -position - 1;
+        }
+
+        private void insertAt(int position, int id) {
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.ids.length + (this.ids.length >> 1));
+            }
+            System.arraycopy(this.ids, position, this.ids, position + 1, this.size - position);
+            this.ids[position] = id;
+            this.size++;
+        }
+    }
+}
@@ -4,27 +4,36 @@ import com.adriauson.vibecommerce.validation.annotations.ValidPassword;
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 
+import java.util.regex.Pattern;
+
 // CustomValidator
 
 public class PasswordValidator implements ConstraintValidator<ValidPassword, String> {
-    private static final String PASSWORD_REGEX = "^(?=.*[a-z])(?=.*[A-Z]).{5,}$";
+    private static final Pattern PASSWORD_REGEX = Pattern.compile("^(?=.*[a-z])(?=.*[A-Z]).{5,}$");
 
     @Override
     public boolean isValid(String password, ConstraintValidatorContext context) {
-        if (password == null || password.trim().isEmpty()) {
-            setMessage(context, "Password is required");
+        String message = violation(password);
+        if (message != null) {
+            setMessage(context, message);
             return false;
+        }
+        return true;
+    }
 
+    // Mismas reglas sin ConstraintValidatorContext: null si es válida, si no el mensaje del error.
+    // La usa también UserCsvRowValidator (importación CSV) para no duplicarlas
+    public static String violation(String password) {
+        if (password == null || password.trim().isEmpty()) {
+            return "Password is required";
         }
         if (password.length() < 5) {
-            setMessage(context, "Password must be at least 5 characters long");
-            return false;
+            return "Password must be at least 5 characters long";
         }
-        if (!password.matches(PASSWORD_REGEX)){
-            setMessage(context, "Password must contain at least one uppercase and one lowercase letter");
-            return false;
+        if (!PASSWORD_REGEX.matcher(password).matches()) {
+            return "Password must contain at least one uppercase and one lowercase letter";
         }
-        return true;
+        return null;
     }
 
     // Method to create custom messages
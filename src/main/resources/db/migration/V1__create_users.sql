@@ -0,0 +1,22 @@
+-- Tabla de usuarios con la columna version (bloqueo optimista / ETag) y la secuencia pooled de IDs.
+-- MySQL no tiene secuencias: Hibernate emula users_seq con una tabla de una fila (next_val) y reserva
+-- los IDs de 50 en 50, así que la fila inicial es obligatoria.
+create table users (
+    id bigint not null,
+    version bigint,
+    first_name varchar(30) not null,
+    last_name varchar(30) not null,
+    email varchar(50) not null,
+    address varchar(250) not null,
+    password varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+-- Registro (findExistingEmails, filtro de Bloom) y unicidad del email
+alter table users add constraint uk_users_email unique (email);
+
+create table users_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into users_seq values (1);
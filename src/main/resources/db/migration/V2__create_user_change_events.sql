@@ -0,0 +1,14 @@
+-- Outbox del feed de cambios (GET /api/v1/users/changes). El ID es autoincremental porque sirve de
+-- Last-Event-ID: tiene que seguir el orden de escritura. Un nuevo valor del enum type necesita migración.
+create table user_change_events (
+    id bigint not null auto_increment,
+    type enum ('CREATED','DELETED','UPDATED') not null,
+    user_id bigint not null,
+    user_version bigint,
+    payload varchar(1000),
+    created_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+-- Purga por retención (deleteOlderThan)
+create index idx_user_change_events_created_at on user_change_events (created_at);
@@ -0,0 +1,9 @@
+-- users_seq tiene que ir por delante del MAX(id) de users. Una base de datos que venía de ddl-auto=update
+-- (IDs con AUTO_INCREMENT) se marca como versión 2 sin pasar por V1, y su users_seq empezaba en 1: los
+-- nuevos INSERT chocarían con las claves primarias existentes.
+-- Con el optimizador pooled cada valor V reserva el bloque [V - 49, V], así que el siguiente valor tiene que
+-- ser al menos MAX(id) + 50: el primer múltiplo de 50 que lo cumple. GREATEST: nunca hace retroceder la secuencia.
+insert into users_seq (next_val) select 1 from dual where not exists (select 1 from users_seq);
+
+update users_seq
+set next_val = greatest(next_val, (select (floor((coalesce(max(id), 0) + 49) / 50) + 1) * 50 from users));
@@ -0,0 +1,27 @@
+package com.adriauson.vibecommerce.reactive;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+/*
+ * ⚙️ Perfil "reactive": WebFlux + R2DBC (ver application-reactive.properties). Solo se compila con el perfil
+ * Maven "reactive" y se arranca con ReactiveVibecommerceApplication.
+ * Los repositorios R2DBC se limitan a este paquete y los JPA al paquete repository (JpaConfig),
+ * así ningún módulo de Spring Data intenta crear los repositorios del otro.
+ *
+ * Tomcat también está en el classpath (stack bloqueante) y Spring Boot lo preferiría como servidor reactivo:
+ * declaramos Netty explícitamente para comparar los dos modelos de verdad (event loop frente a hilo por petición).
+ */
+@Configuration
+@Profile("reactive")
+@EnableR2dbcRepositories(basePackageClasses = ReactiveUserRepository.class)
+public class ReactiveConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
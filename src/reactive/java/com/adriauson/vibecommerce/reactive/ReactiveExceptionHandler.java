@@ -0,0 +1,38 @@
+package com.adriauson.vibecommerce.reactive;
+
+import com.adriauson.vibecommerce.handler.GlobalExceptionHandler;
+import com.adriauson.vibecommerce.handler.ProblemBody;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+/*
+ * 🌊 Errores propios de WebFlux, con el mismo cuerpo que GlobalExceptionHandler da a sus equivalentes de Spring MVC.
+ * Va antes que GlobalExceptionHandler, que sigue atendiendo las excepciones de negocio (404, 409...).
+ */
+@RestControllerAdvice
+@Profile("reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveExceptionHandler {
+
+    private static final ProblemBody BAD_REQUEST = ProblemBody.of(HttpStatus.BAD_REQUEST);
+
+    // @Valid sobre el cuerpo (equivale a MethodArgumentNotValidException)
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<?> handleValidation(WebExchangeBindException exception) {
+        return BAD_REQUEST.toResponse(GlobalExceptionHandler.renderValidation(exception));
+    }
+
+    // Parámetro inválido o ausente, cuerpo ilegible
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<?> handleServerWebInput(ServerWebInputException exception) {
+        String reason = exception.getReason() != null ? exception.getReason() : "Invalid request";
+        return BAD_REQUEST.toResponse(BAD_REQUEST.render(reason));
+    }
+}
@@ -0,0 +1,65 @@
+package com.adriauson.vibecommerce.reactive;
+
+import com.adriauson.vibecommerce.dto.RegisterUserDto;
+import com.adriauson.vibecommerce.dto.UpdateUserDto;
+import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.dto.UserPageDto;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/*
+ * 🌊 Las mismas rutas que UserController (POST, GET lista, GET por id, PATCH y DELETE) servidas por WebFlux.
+ * Solo existe con el perfil "reactive"; la validación (@Valid) y los cuerpos de error son los mismos
+ * (GlobalExceptionHandler más ReactiveExceptionHandler para las excepciones propias de WebFlux).
+ */
+@RestController
+@RequestMapping("api/v1/users")
+@Profile("reactive")
+public class ReactiveUserController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserController.class);
+
+    private final ReactiveUserService userService;
+
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<UserDto>> registerUser(@Valid @RequestBody RegisterUserDto registerDto) {
+        logger.debug("POST /api/v1/users - Creating user with email: {}", registerDto.getEmail());
+        return this.userService.registerUser(registerDto)
+                .map(userDto -> ResponseEntity.status(HttpStatus.CREATED).body(userDto));
+    }
+
+    @GetMapping
+    public Mono<UserPageDto> getAllUsers(@RequestParam(name = "after", required = false) Long after,
+                                         @RequestParam(name = "limit", required = false) Integer limit) {
+        logger.debug("GET /api/v1/users - Fetching users after {} (limit {})", after, limit);
+        return this.userService.getAllUsers(after, limit);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<UserDto> getUserById(@PathVariable("id") Long id) {
+        logger.debug("GET /api/v1/users/{} - Fetching user", id);
+        return this.userService.getUserById(id);
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<UserDto> updateUser(@PathVariable Long id, @Valid @RequestBody UpdateUserDto updateDto) {
+        logger.debug("PATCH /api/v1/users/{} - Updating user", id);
+        return this.userService.updateUser(id, updateDto);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id) {
+        logger.debug("DELETE /api/v1/users/{} - Deleting user", id);
+        return this.userService.deleteUser(id).thenReturn(ResponseEntity.noContent().build());
+    }
+}
@@ -0,0 +1,42 @@
+package com.adriauson.vibecommerce.reactive;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/*
+ * 🧮 IDs para los INSERT reactivos con la misma semántica que el optimizador "pooled" de Hibernate:
+ * cada valor V de users_seq reserva el bloque [V - 49, V] (sin bajar de 1), así que ambos stacks pueden
+ * escribir en la misma tabla sin pisarse. Solo se consulta la secuencia una vez cada 50 altas.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveUserIdAllocator {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final ReactiveUserRepository userRepository;
+    private long next;
+    private long limit;
+
+    public ReactiveUserIdAllocator(ReactiveUserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public Mono<Long> nextId() {
+        synchronized (this) {
+            if (this.next < this.limit) {
+                return Mono.just(this.next++);
+            }
+        }
+        return this.userRepository.nextSequenceValue().map(high -> {
+            synchronized (this) {
+                if (this.next >= this.limit) {
+                    this.next = Math.max(1, high - ALLOCATION_SIZE + 1);
+                    this.limit = high + 1;
+                }
+                return this.next++;
+            }
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package com.adriauson.vibecommerce.reactive;
+
+import com.adriauson.vibecommerce.repository.projection.UserSummary;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * 🌊 Equivalente reactivo (R2DBC) de UserRepository para el perfil "reactive".
+ * Mismas consultas que la versión JPA, pero en SQL sobre las columnas de la tabla users.
+ * Vive fuera del paquete repository para que el escaneo de repositorios JPA no lo recoja (ver JpaConfig).
+ */
+public interface ReactiveUserRepository extends R2dbcRepository<UserRow, Long> {
+
+    String SELECT_SUMMARY = "select id, first_name, last_name, email, address, coalesce(version, 0) as version from users";
+
+    Mono<Boolean> existsByEmail(String email);
+
+    @Query(SELECT_SUMMARY + " where id = :id")
+    Mono<UserSummary> findSummaryById(Long id);
+
+    // 📄 Keyset pagination, igual que findSummariesAfter en JPA
+    @Query(SELECT_SUMMARY + " where id > :after order by id limit :limit")
+    Flux<UserSummary> findSummariesAfter(long after, int limit);
+
+    // 🏷️ UPDATE con control optimista a mano: 0 filas = otro PATCH llegó antes (o el usuario ya no existe)
+    @Modifying
+    @Query("update users set first_name = :firstName, last_name = :lastName, email = :email, address = :address, "
+            + "password = :password, version = :expectedVersion + 1 where id = :id and coalesce(version, 0) = :expectedVersion")
+    Mono<Integer> updateIfVersionMatches(Long id, String firstName, String lastName, String email, String address,
+                                         String password, long expectedVersion);
+
+    @Modifying
+    @Query("delete from users where id = :id")
+    Mono<Integer> deleteByIdReturningCount(Long id);
+
+    // Siguiente valor de la secuencia users_seq (la misma que usa Hibernate, de 50 en 50)
+    @Query("select next value for users_seq")
+    Mono<Long> nextSequenceValue();
+}
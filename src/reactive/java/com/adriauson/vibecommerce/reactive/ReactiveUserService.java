@@ -0,0 +1,16 @@
+package com.adriauson.vibecommerce.reactive;
+
+import com.adriauson.vibecommerce.dto.RegisterUserDto;
+import com.adriauson.vibecommerce.dto.UpdateUserDto;
+import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.dto.UserPageDto;
+import reactor.core.publisher.Mono;
+
+// Las cinco operaciones básicas de UserService en versión no bloqueante
+public interface ReactiveUserService {
+    Mono<UserDto> getUserById(Long id);
+    Mono<UserPageDto> getAllUsers(Long after, Integer limit);
+    Mono<UserDto> registerUser(RegisterUserDto registerDto);
+    Mono<UserDto> updateUser(Long id, UpdateUserDto updateDto);
+    Mono<Void> deleteUser(Long id);
+}
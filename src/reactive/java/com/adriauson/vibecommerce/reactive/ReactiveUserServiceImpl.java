@@ -0,0 +1,173 @@
+package com.adriauson.vibecommerce.reactive;
+
+import com.adriauson.vibecommerce.dto.RegisterUserDto;
+import com.adriauson.vibecommerce.dto.UpdateUserDto;
+import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.dto.UserPageDto;
+import com.adriauson.vibecommerce.entity.User;
+import com.adriauson.vibecommerce.exception.EmailAlreadyExistsException;
+import com.adriauson.vibecommerce.exception.UserNotFoundException;
+import com.adriauson.vibecommerce.mapper.UserMapper;
+import com.adriauson.vibecommerce.service.support.PasswordHashingService;
+import com.adriauson.vibecommerce.service.support.UserMessages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.List;
+
+/*
+ * 🌊 Misma lógica que UserServiceImpl para las cinco operaciones básicas, sin bloquear ningún hilo:
+ *  - R2DBC en vez de JPA (ReactiveUserRepository)
+ *  - El hash de la contraseña sigue en el pool de PasswordHashingService (hashAsync), nunca en el event loop
+ *  - Mismos DTOs, mismo UserMapper y mismas excepciones → GlobalExceptionHandler responde igual
+ *
+ * Sin @Transactional: cada operación es una sola sentencia o va protegida por la restricción UNIQUE y por la versión,
+ * y una transacción reactiva retendría la conexión mientras se espera al BCrypt.
+ *
+ * Se lee y escribe UserRow (la entidad JPA no lleva mapeo R2DBC) y la versión se gestiona a mano:
+ *  - Alta con R2dbcEntityTemplate.insert, porque el ID ya viene asignado y save() haría un UPDATE
+ *  - PATCH con updateIfVersionMatches; si otro PATCH ganó la carrera se relee y se reintenta
+ *
+ * No incluye lo que en el stack bloqueante depende de JPA o de la caché (filtro de emails, índice de búsqueda,
+ * outbox de cambios, ETag, lotes): no es un sustituto de la API, solo sirve para comparar los dos modelos de
+ * ejecución con el mismo trabajo por petición. Se compila aparte con el perfil Maven "reactive".
+ */
+@Service
+@Profile("reactive")
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserServiceImpl.class);
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveUserIdAllocator idAllocator;
+    private final R2dbcEntityTemplate entityTemplate;
+    private final UserMapper userMapper;
+    private final UserMessages userMessages;
+    private final PasswordHashingService passwordHashingService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+
+    public ReactiveUserServiceImpl(ReactiveUserRepository userRepository, ReactiveUserIdAllocator idAllocator,
+                                   R2dbcEntityTemplate entityTemplate, UserMapper userMapper, UserMessages userMessages,
+                                   PasswordHashingService passwordHashingService,
+                                   @Value("${vibecommerce.users.page.default-size:20}") int defaultPageSize,
+                                   @Value("${vibecommerce.users.page.max-size:100}") int maxPageSize) {
+        this.userRepository = userRepository;
+        this.idAllocator = idAllocator;
+        this.entityTemplate = entityTemplate;
+        this.userMapper = userMapper;
+        this.userMessages = userMessages;
+        this.passwordHashingService = passwordHashingService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    @Override
+    public Mono<UserDto> getUserById(Long id) {
+        return this.userRepository.findSummaryById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .map(this.userMapper::mapUserSummaryToUserDto);
+    }
+
+    @Override
+    public Mono<UserPageDto> getAllUsers(Long after, Integer limit) {
+        int pageSize = (limit == null || limit < 1) ? this.defaultPageSize : Math.min(limit, this.maxPageSize);
+        long cursor = (after == null) ? 0L : after;
+
+        // Uno de más para saber si hay página siguiente, como en la versión bloqueante
+        return this.userRepository.findSummariesAfter(cursor, pageSize + 1)
+                .map(this.userMapper::mapUserSummaryToUserDto)
+                .collectList()
+                .map(users -> {
+                    boolean hasNext = users.size() > pageSize;
+                    List<UserDto> content = hasNext ? users.subList(0, pageSize) : users;
+                    UserPageDto page = new UserPageDto();
+                    page.setContent(content);
+                    page.setLimit(pageSize);
+                    page.setNextCursor(hasNext ? content.get(content.size() - 1).getId() : null);
+                    return page;
+                });
+    }
+
+    @Override
+    public Mono<UserDto> registerUser(RegisterUserDto registerDto) {
+        logger.debug("Attempting to register user with email: {}", registerDto.getEmail());
+        User user = this.userMapper.mapRegisterDtoToUser(registerDto);
+
+        return this.userRepository.existsByEmail(registerDto.getEmail())
+                .flatMap(exists -> exists
+                        ? Mono.error(new EmailAlreadyExistsException("Email is already in use"))
+                        : Mono.fromFuture(() -> this.passwordHashingService.hashAsync(registerDto.getPassword())))
+                .flatMap(hash -> {
+                    user.setPassword(hash);
+                    return this.idAllocator.nextId();
+                })
+                .flatMap(id -> {
+                    user.setId(id);
+                    user.setVersion(0L);
+                    return this.entityTemplate.insert(UserRow.of(user)).map(UserRow::toUser);
+                })
+                // 🛡️ Carrera entre dos altas con el mismo email: la restricción UNIQUE decide
+                .onErrorMap(DuplicateKeyException.class, exception -> new EmailAlreadyExistsException("Email is already in use"))
+                .map(this.userMapper::mapUserToUserDto);
+    }
+
+    // Lee la entidad, aplica el PATCH con el mismo mapper y la escribe solo si la versión no ha cambiado entretanto
+    @Override
+    public Mono<UserDto> updateUser(Long id, UpdateUserDto updateDto) {
+        logger.debug("Updating user with ID: {}", id);
+        // cache(): si hay que reintentar, el BCrypt no se repite
+        Mono<String> hashedPassword = updateDto.getPassword() == null
+                ? Mono.empty()
+                : Mono.fromFuture(() -> this.passwordHashingService.hashAsync(updateDto.getPassword())).cache();
+
+        return Mono.defer(() -> this.userRepository.findById(id)
+                        .map(UserRow::toUser)
+                        .switchIfEmpty(Mono.error(() -> notFound(id)))
+                        .flatMap(user -> {
+                            this.userMapper.mapUpdateUserDtoToExistingUser(updateDto, user);
+                            return hashedPassword.doOnNext(user::setPassword).thenReturn(user);
+                        })
+                        .flatMap(this::updateIfUnchanged))
+                .retryWhen(Retry.max(MAX_UPDATE_ATTEMPTS - 1)
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .onErrorMap(DuplicateKeyException.class, exception -> new EmailAlreadyExistsException("Email is already in use"))
+                .map(this.userMapper::mapUserToUserDto);
+    }
+
+    private Mono<User> updateIfUnchanged(User user) {
+        long expectedVersion = user.getVersion() == null ? 0L : user.getVersion();
+        return this.userRepository.updateIfVersionMatches(user.getId(), user.getFirstName(), user.getLastName(),
+                        user.getEmail(), user.getAddress(), user.getPassword(), expectedVersion)
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        return Mono.error(new OptimisticLockingFailureException("User " + user.getId() + " was modified concurrently"));
+                    }
+                    user.setVersion(expectedVersion + 1);
+                    return Mono.just(user);
+                });
+    }
+
+    @Override
+    public Mono<Void> deleteUser(Long id) {
+        logger.debug("Deleting user with ID: {}", id);
+        return this.userRepository.deleteByIdReturningCount(id)
+                .flatMap(deleted -> deleted == 0 ? Mono.error(notFound(id)) : Mono.empty());
+    }
+
+    private UserNotFoundException notFound(Long id) {
+        String message = this.userMessages.userNotFound(id);
+        return new UserNotFoundException(message, id);
+    }
+}
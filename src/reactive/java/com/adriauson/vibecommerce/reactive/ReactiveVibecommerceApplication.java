@@ -0,0 +1,37 @@
+package com.adriauson.vibecommerce.reactive;
+
+import com.adriauson.vibecommerce.config.MessageSourceConfig;
+import com.adriauson.vibecommerce.config.MetricsConfig;
+import com.adriauson.vibecommerce.handler.GlobalExceptionHandler;
+import com.adriauson.vibecommerce.mapper.UserMapper;
+import com.adriauson.vibecommerce.metrics.StartupMetrics;
+import com.adriauson.vibecommerce.service.support.PasswordHashingService;
+import com.adriauson.vibecommerce.service.support.UserMessages;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+
+/*
+ * 🌊 Punto de entrada de la variante WebFlux + R2DBC (solo existe al compilar con el perfil Maven "reactive").
+ * Escanea únicamente este paquete y trae del stack bloqueante lo que comparten los dos (DTOs, mapper, mensajes,
+ * hash de contraseñas, errores y métricas), así la aplicación bloqueante no necesita ninguna exclusión.
+ *
+ * ⚠️ No es la misma API: no hay filtro de emails, índice de búsqueda, outbox de cambios, caché, ETags ni lotes.
+ * Con -P reactive este paquete también queda dentro del escaneo de VibecommerceApplication: por eso todo lo de
+ * aquí lleva @Profile("reactive").
+ *
+ * Sirve para comparar los dos modelos de ejecución con el mismo trabajo por petición (ver LoadTestHarness).
+ */
+@SpringBootApplication(scanBasePackageClasses = ReactiveVibecommerceApplication.class)
+@Import({UserMapper.class, UserMessages.class, MessageSourceConfig.class, MetricsConfig.class,
+        PasswordHashingService.class, GlobalExceptionHandler.class, StartupMetrics.class})
+@Profile("reactive")
+public class ReactiveVibecommerceApplication {
+
+	public static void main(String[] args) {
+		new SpringApplicationBuilder(ReactiveVibecommerceApplication.class)
+				.profiles("reactive")
+				.run(args);
+	}
+}
@@ -0,0 +1,53 @@
+package com.adriauson.vibecommerce.reactive;
+
+import com.adriauson.vibecommerce.entity.User;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/*
+ * 🌊 Fila de la tabla users para R2DBC. La entidad JPA (User) no lleva anotaciones de Spring Data relacional:
+ * se convierte en los bordes del servicio para reutilizar UserMapper.
+ * Sin @Version de Spring Data: la versión se comprueba a mano en ReactiveUserServiceImpl.
+ */
+@Table("users")
+@Getter
+@Setter
+@NoArgsConstructor
+public class UserRow {
+
+    @Id
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String password;
+    private String address;
+    private Long version;
+
+    public static UserRow of(User user) {
+        UserRow row = new UserRow();
+        row.setId(user.getId());
+        row.setFirstName(user.getFirstName());
+        row.setLastName(user.getLastName());
+        row.setEmail(user.getEmail());
+        row.setPassword(user.getPassword());
+        row.setAddress(user.getAddress());
+        row.setVersion(user.getVersion());
+        return row;
+    }
+
+    public User toUser() {
+        User user = new User();
+        user.setId(this.id);
+        user.setFirstName(this.firstName);
+        user.setLastName(this.lastName);
+        user.setEmail(this.email);
+        user.setPassword(this.password);
+        user.setAddress(this.address);
+        user.setVersion(this.version);
+        return user;
+    }
+}
@@ -0,0 +1,12 @@
+-- Esquema para el perfil "reactive" (R2DBC no tiene ddl-auto): el mismo que genera Hibernate para User
+create sequence if not exists users_seq start with 1 increment by 50;
+
+create table if not exists users (
+    id bigint not null primary key,
+    first_name varchar(30) not null,
+    last_name varchar(30) not null,
+    email varchar(50) not null unique,
+    password varchar(255) not null,
+    address varchar(250) not null,
+    version bigint
+);
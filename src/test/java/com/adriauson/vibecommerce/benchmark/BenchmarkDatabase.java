@@ -0,0 +1,63 @@
+package com.adriauson.vibecommerce.benchmark;
+
+import com.adriauson.vibecommerce.entity.User;
+import com.adriauson.vibecommerce.metrics.StatementCountingInspector;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+
+/*
+ * 🗄️ H2 en memoria (modo MySQL) con Hibernate a pelo, sin contexto de Spring: los benchmarks de acceso a datos
+ * miden las consultas y el mapeo, no el arranque. Las sentencias y sus bytes los cuenta el mismo
+ * StatementCountingInspector que usa la aplicación.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    private final StatementCountingInspector statementInspector = new StatementCountingInspector();
+    private final SessionFactory sessionFactory;
+
+    BenchmarkDatabase(String name, int users) {
+        this.sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.connection.password", "")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .setProperty("hibernate.jdbc.batch_size", "50")
+                .setProperty("hibernate.order_inserts", "true")
+                .setStatementInspector(this.statementInspector)
+                .buildSessionFactory();
+        insertUsers(users);
+    }
+
+    EntityManager createEntityManager() {
+        return this.sessionFactory.createEntityManager();
+    }
+
+    StatementCountingInspector statementInspector() {
+        return this.statementInspector;
+    }
+
+    private void insertUsers(int users) {
+        EntityManager entityManager = createEntityManager();
+        entityManager.getTransaction().begin();
+        for (int i = 0; i < users; i++) {
+            User user = BenchmarkFixtures.user(0L);
+            user.setId(null);
+            user.setEmail("alice.johnson" + i + "@example.com");
+            user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5FhJ0xPnA2WEXxS7yIGLFoa");
+            entityManager.persist(user);
+            if (i % 50 == 49) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+
+    @Override
+    public void close() {
+        this.sessionFactory.close();
+    }
+}
@@ -0,0 +1,63 @@
+package com.adriauson.vibecommerce.benchmark;
+
+import com.adriauson.vibecommerce.dto.RegisterUserDto;
+import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Datos de prueba compartidos por los benchmarks
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName("Alice");
+        user.setLastName("Johnson");
+        user.setEmail("alice.johnson" + id + "@example.com");
+        user.setPassword("MyPass123");
+        user.setAddress("123 Main Street, New York, NY");
+        return user;
+    }
+
+    static RegisterUserDto validRegisterDto() {
+        RegisterUserDto dto = new RegisterUserDto();
+        dto.setFirstName("Alice");
+        dto.setLastName("Johnson");
+        dto.setEmail("alice.johnson@example.com");
+        dto.setAddress("123 Main Street, New York, NY");
+        dto.setPassword("MyPass123");
+        dto.setConfirmPassword("MyPass123");
+        return dto;
+    }
+
+    static RegisterUserDto invalidRegisterDto() {
+        RegisterUserDto dto = new RegisterUserDto();
+        dto.setFirstName("Al");
+        dto.setLastName("");
+        dto.setEmail("not-an-email");
+        dto.setAddress("short");
+        dto.setPassword("lower");
+        dto.setConfirmPassword("different");
+        return dto;
+    }
+
+    static List<UserDto> userDtos(int size) {
+        List<UserDto> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserDto dto = new UserDto();
+            dto.setId((long) i);
+            dto.setFirstName("Alice");
+            dto.setLastName("Johnson");
+            dto.setEmail("alice.johnson" + i + "@example.com");
+            dto.setPassword("*****");
+            dto.setAddress("123 Main Street, New York, NY");
+            users.add(dto);
+        }
+        return users;
+    }
+}
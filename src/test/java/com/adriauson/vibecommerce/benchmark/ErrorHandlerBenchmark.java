@@ -0,0 +1,88 @@
+package com.adriauson.vibecommerce.benchmark;
+
+import com.adriauson.vibecommerce.config.MessageSourceConfig;
+import com.adriauson.vibecommerce.exception.EmailAlreadyExistsException;
+import com.adriauson.vibecommerce.exception.UserNotFoundException;
+import com.adriauson.vibecommerce.handler.GlobalExceptionHandler;
+import com.adriauson.vibecommerce.service.support.UserMessages;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.MessageSource;
+import org.springframework.http.ResponseEntity;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ⏱️ Camino de error completo tal y como lo paga un 404/409: crear la excepción (con su mensaje
+ * localizado) y obtener los bytes del cuerpo que devuelve GlobalExceptionHandler.
+ *
+ * Los métodos legacy* reproducen el camino anterior para comparar en la misma ejecución: excepción con
+ * traza, messageSource.getMessage por cada 404, HashMap como cuerpo y serialización con Jackson.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorHandlerBenchmark {
+
+    private GlobalExceptionHandler handler;
+    private MessageSource messageSource;
+    private UserMessages userMessages;
+    private ObjectMapper objectMapper;
+    private long id;
+
+    @Setup
+    public void setUp() {
+        handler = new GlobalExceptionHandler();
+        messageSource = new MessageSourceConfig().messageSource();
+        userMessages = new UserMessages(messageSource);
+        objectMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public byte[] userNotFound() {
+        long userId = ++id;
+        ResponseEntity<?> response = handler.handleUserNoSuchElementException(
+                new UserNotFoundException(userMessages.userNotFound(userId), userId));
+        return (byte[]) response.getBody();
+    }
+
+    @Benchmark
+    public byte[] emailAlreadyExists() {
+        ResponseEntity<?> response = handler.handleEmailExists(new EmailAlreadyExistsException("Email is already in use"));
+        return (byte[]) response.getBody();
+    }
+
+    @Benchmark
+    public byte[] legacyUserNotFound() throws JsonProcessingException {
+        long userId = ++id;
+        String message = messageSource.getMessage("entity.not.found", new Object[]{userId}, Locale.getDefault());
+        return legacyBody(404, "Not Found", new LegacyException(message));
+    }
+
+    @Benchmark
+    public byte[] legacyEmailAlreadyExists() throws JsonProcessingException {
+        return legacyBody(409, "Conflict", new LegacyException("Email is already in use"));
+    }
+
+    private byte[] legacyBody(int status, String error, RuntimeException exception) throws JsonProcessingException {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", status);
+        response.put("error", error);
+        response.put("message", exception.getMessage());
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    // Como las excepciones de negocio antes de BusinessException: RuntimeException con traza
+    private static final class LegacyException extends RuntimeException {
+        private LegacyException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.adriauson.vibecommerce.benchmark;
+
+import com.adriauson.vibecommerce.dto.UserDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ⏱️ Serialización con Jackson de listas de UserDto (tamaños típicos de página).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+    @Param({"20", "100"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<UserDto> users;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().writerFor(new TypeReference<List<UserDto>>() { });
+        users = BenchmarkFixtures.userDtos(size);
+    }
+
+    @Benchmark
+    public byte[] serializeUserDtoList() throws JsonProcessingException {
+        return writer.writeValueAsBytes(users);
+    }
+}
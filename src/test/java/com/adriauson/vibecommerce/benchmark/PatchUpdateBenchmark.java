@@ -0,0 +1,104 @@
+package com.adriauson.vibecommerce.benchmark;
+
+import com.adriauson.vibecommerce.dto.UpdateUserDto;
+import com.adriauson.vibecommerce.entity.User;
+import com.adriauson.vibecommerce.mapper.UserMapper;
+import com.adriauson.vibecommerce.metrics.StatementCountingInspector;
+import com.adriauson.vibecommerce.repository.UserRepositoryCustomImpl;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ⏱️ PATCH de una sola columna (address) contra la base de datos: el camino anterior (findById, copiar el DTO
+ * sobre la entidad y saveAndFlush → SELECT + UPDATE de todas las columnas) frente a updateFields (un UPDATE
+ * solo con la columna que cambia y la versión).
+ *
+ * Además de ops/s y bytes asignados por operación (-prof gc), al terminar cada método imprime las sentencias
+ * y los bytes de SQL por PATCH que cuenta StatementCountingInspector, como la métrica por petición.
+ * Hibernate + H2 tardan en compilarse (JIT): con menos de ~30 s de calentamiento el resultado aún sube.
+ * Ejecutar con: mvn -P benchmark verify -DskipTests -Djmh.include=PatchUpdateBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 30, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class PatchUpdateBenchmark {
+
+    private static final int USERS = 1000;
+
+    private final UserMapper userMapper = new UserMapper();
+    private final UpdateUserDto[] updates = {addressUpdate("742 Evergreen Terrace, Springfield"), addressUpdate("221B Baker Street, London")};
+
+    private BenchmarkDatabase database;
+    private EntityManager entityManager;
+    private UserRepositoryCustomImpl userRepository;
+    private long sequence;
+    private long patches;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = new BenchmarkDatabase("patch", USERS);
+        this.entityManager = this.database.createEntityManager();
+        this.userRepository = new UserRepositoryCustomImpl();
+        ReflectionTestUtils.setField(this.userRepository, "entityManager", this.entityManager);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        this.database.statementInspector().reset();
+        this.patches = 0;
+    }
+
+    @Benchmark
+    public User legacyLoadAndSave() {
+        // Cada PATCH alterna la dirección: si no cambiase, Hibernate no llegaría a emitir el UPDATE
+        UpdateUserDto update = nextUpdate();
+        this.entityManager.getTransaction().begin();
+        User user = this.entityManager.find(User.class, nextId());
+        this.userMapper.mapUpdateUserDtoToExistingUser(update, user);
+        this.entityManager.flush();
+        this.entityManager.getTransaction().commit();
+        this.entityManager.clear();
+        return user;
+    }
+
+    @Benchmark
+    public int updateFields() {
+        UpdateUserDto update = nextUpdate();
+        this.entityManager.getTransaction().begin();
+        int updated = this.userRepository.updateFields(nextId(), this.userMapper.mapUpdateUserDtoToChangedFields(update), null);
+        this.entityManager.getTransaction().commit();
+        return updated;
+    }
+
+    // Solo la última iteración de medida: el inspector se reinicia al empezar cada una
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        StatementCountingInspector inspector = this.database.statementInspector();
+        System.out.printf("%nSQL per PATCH: %.2f statements, %.1f bytes%n",
+                (double) inspector.currentCount() / this.patches, (double) inspector.currentBytes() / this.patches);
+        this.entityManager.close();
+        this.database.close();
+    }
+
+    // sequence no se reinicia entre iteraciones: cada vuelta sobre los USERS usuarios cambia de dirección
+    private UpdateUserDto nextUpdate() {
+        return this.updates[(int) (this.sequence / USERS) & 1];
+    }
+
+    private long nextId() {
+        this.patches++;
+        return this.sequence++ % USERS + 1;
+    }
+
+    private static UpdateUserDto addressUpdate(String address) {
+        UpdateUserDto update = new UpdateUserDto();
+        update.setAddress(address);
+        return update;
+    }
+}
@@ -0,0 +1,68 @@
+package com.adriauson.vibecommerce.benchmark;
+
+import com.adriauson.vibecommerce.dto.RegisterUserDto;
+import com.adriauson.vibecommerce.dto.UpdateUserDto;
+import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.entity.User;
+import com.adriauson.vibecommerce.mapper.UserMapper;
+import com.adriauson.vibecommerce.repository.projection.UserSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ⏱️ Microbenchmark de UserMapper: los tres mapeos originales más los de proyección y PATCH dirigido.
+ * Ejecutar con: mvn -P benchmark verify -DskipTests -Djmh.include=UserMapperBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private final UserMapper userMapper = new UserMapper();
+
+    private User user;
+    private UserSummary userSummary;
+    private RegisterUserDto registerDto;
+    private UpdateUserDto updateDto;
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user(42L);
+        userSummary = new UserSummary(42L, user.getFirstName(), user.getLastName(), user.getEmail(), user.getAddress(), 0L);
+        registerDto = BenchmarkFixtures.validRegisterDto();
+        updateDto = new UpdateUserDto();
+        updateDto.setAddress("742 Evergreen Terrace, Springfield");
+    }
+
+    @Benchmark
+    public UserDto mapUserToUserDto() {
+        return userMapper.mapUserToUserDto(user);
+    }
+
+    @Benchmark
+    public UserDto mapUserSummaryToUserDto() {
+        return userMapper.mapUserSummaryToUserDto(userSummary);
+    }
+
+    @Benchmark
+    public User mapRegisterDtoToUser() {
+        return userMapper.mapRegisterDtoToUser(registerDto);
+    }
+
+    @Benchmark
+    public User mapUpdateUserDtoToExistingUser() {
+        User target = BenchmarkFixtures.user(42L);
+        userMapper.mapUpdateUserDtoToExistingUser(updateDto, target);
+        return target;
+    }
+
+    @Benchmark
+    public Map<String, Object> mapUpdateUserDtoToChangedFields() {
+        return userMapper.mapUpdateUserDtoToChangedFields(updateDto);
+    }
+}
@@ -0,0 +1,109 @@
+package com.adriauson.vibecommerce.benchmark;
+
+import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.entity.User;
+import com.adriauson.vibecommerce.mapper.UserMapper;
+import com.adriauson.vibecommerce.repository.UserRepository;
+import com.adriauson.vibecommerce.repository.projection.UserSummary;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/*
+ * ⏱️ Una página del listado (GET /api/v1/users, 20 usuarios + 1 para saber si hay siguiente) contra la base de
+ * datos: entidades User (el camino anterior, findByIdGreaterThanOrderByIdAsc + mapUserToUserDto) frente a la
+ * proyección UserSummary de findSummariesAfter, con la misma consulta que UserRepository.
+ *
+ * Las dos van en una transacción de solo lectura como en la aplicación (sin snapshots ni flush), así que la
+ * diferencia en gc.alloc.rate.norm (bytes por página, -prof gc) es la de materializar entidades gestionadas
+ * con su contraseña frente a un record sin ella. Incluye lo que asigna H2, que corre en el mismo hilo.
+ * Ejecutar con: mvn -P benchmark verify -DskipTests -Djmh.include=UserPageBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 30, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class UserPageBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    private final UserMapper userMapper = new UserMapper();
+
+    private BenchmarkDatabase database;
+    private EntityManager entityManager;
+    private long cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.database = new BenchmarkDatabase("page", USERS);
+        this.entityManager = this.database.createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.entityManager.close();
+        this.database.close();
+    }
+
+    @Benchmark
+    public List<UserDto> legacyEntityPage() {
+        long after = nextCursor();
+        return readOnly(entityManager -> {
+            List<User> users = entityManager.createQuery("select u from User u where u.id > :after order by u.id", User.class)
+                    .setParameter("after", after)
+                    .setMaxResults(PAGE_SIZE + 1)
+                    .getResultList();
+            List<UserDto> page = new ArrayList<>(PAGE_SIZE);
+            for (User user : users.subList(0, Math.min(PAGE_SIZE, users.size()))) {
+                page.add(this.userMapper.mapUserToUserDto(user));
+            }
+            return page;
+        });
+    }
+
+    @Benchmark
+    public List<UserDto> summaryPage() {
+        long after = nextCursor();
+        return readOnly(entityManager -> {
+            List<UserSummary> users = entityManager.createQuery(UserRepository.SELECT_SUMMARY + " where u.id > :after order by u.id", UserSummary.class)
+                    .setParameter("after", after)
+                    .setMaxResults(PAGE_SIZE + 1)
+                    .getResultList();
+            List<UserDto> page = new ArrayList<>(PAGE_SIZE);
+            for (UserSummary user : users.subList(0, Math.min(PAGE_SIZE, users.size()))) {
+                page.add(this.userMapper.mapUserSummaryToUserDto(user));
+            }
+            return page;
+        });
+    }
+
+    // Como @Transactional(readOnly = true) con HibernateJpaDialect: sesión de solo lectura y sin flush
+    private <T> T readOnly(Function<EntityManager, T> query) {
+        Session session = this.entityManager.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        this.entityManager.getTransaction().begin();
+        try {
+            return query.apply(this.entityManager);
+        } finally {
+            this.entityManager.getTransaction().commit();
+            this.entityManager.clear();
+        }
+    }
+
+    // Recorre la tabla página a página y vuelve a empezar
+    private long nextCursor() {
+        long after = this.cursor;
+        this.cursor = (after + PAGE_SIZE) % USERS;
+        return after;
+    }
+}
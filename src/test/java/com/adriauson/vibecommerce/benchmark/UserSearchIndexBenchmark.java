@@ -0,0 +1,77 @@
+package com.adriauson.vibecommerce.benchmark;
+
+import com.adriauson.vibecommerce.service.support.UserSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ⏱️ Búsquedas sobre el índice en memoria con `users` usuarios sintéticos (sin BD: solo la parte del índice).
+ * Al preparar el estado imprime la huella estimada del índice para ese tamaño.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserSearchIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Alice", "José", "María", "Carlos", "Lucía", "Wei", "Olga", "Ahmed", "Emma", "Noah"};
+    private static final String[] LAST_NAMES = {"Johnson", "García", "Fernández", "Smith", "Müller", "Rossi", "Kowalski", "Nakamura", "López", "Brown"};
+    private static final String[] DOMAINS = {"example.com", "mail.es", "corp.io", "gmail.com"};
+
+    @Param({"1000000"})
+    public int users;
+
+    private UserSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new UserSearchIndex(null, null, new SimpleMeterRegistry(), 0.2);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int id = 1; id <= users; id++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            String email = first.toLowerCase() + "." + last.toLowerCase() + id + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+            index.add((long) id, first, last, email);
+        }
+        System.out.printf("%nSearch index for %d users: ~%d MB%n", users, index.getEstimatedBytes() / (1024 * 1024));
+    }
+
+    // Subcadena rara: pocas coincidencias, la lista más corta manda
+    @Benchmark
+    public List<Long> substringSelective() {
+        return index.search("son12345", 0, 21);
+    }
+
+    // Subcadena muy frecuente: se recorre solo hasta llenar la página
+    @Benchmark
+    public List<Long> substringCommon() {
+        return index.search("garc", 0, 21);
+    }
+
+    @Benchmark
+    public List<Long> wordPrefix() {
+        return index.search("ma", 0, 21);
+    }
+
+    @Benchmark
+    public List<Long> multipleTerms() {
+        return index.search("lucia lop", 0, 21);
+    }
+
+    // Página profunda: el cursor se localiza con búsqueda binaria
+    @Benchmark
+    public List<Long> substringCommonDeepPage() {
+        return index.search("garc", users / 2, 21);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return UserSearchIndex.matches("lucia lop", "Lucía", "López", "lucia.lopez7@mail.es");
+    }
+}
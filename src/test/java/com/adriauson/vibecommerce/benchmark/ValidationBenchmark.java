@@ -0,0 +1,93 @@
+package com.adriauson.vibecommerce.benchmark;
+
+import com.adriauson.vibecommerce.dto.RegisterUserDto;
+import com.adriauson.vibecommerce.dto.UpdateUserDto;
+import com.adriauson.vibecommerce.service.support.UserCsvRowValidator;
+import com.adriauson.vibecommerce.validation.groups.OnCreate;
+import com.adriauson.vibecommerce.validation.validators.PasswordValidator;
+import com.adriauson.vibecommerce.validation.validators.PasswordsMatchValidator;
+import com.adriauson.vibecommerce.validation.validators.ValidUpdatedUser;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.groups.Default;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * ⏱️ Coste de la validación: los validadores propios por separado y la validación completa
+ * (Bean Validation) de RegisterUserDto con los grupos Default + OnCreate, válida e inválida.
+ * UserCsvRowValidator aplica las mismas reglas escritas a mano (importación CSV): se compara con la anterior.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private final PasswordValidator passwordValidator = new PasswordValidator();
+    private final PasswordsMatchValidator passwordsMatchValidator = new PasswordsMatchValidator();
+    private final ValidUpdatedUser validUpdatedUser = new ValidUpdatedUser();
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private RegisterUserDto validRegisterDto;
+    private RegisterUserDto invalidRegisterDto;
+    private UpdateUserDto updateDto;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validRegisterDto = BenchmarkFixtures.validRegisterDto();
+        invalidRegisterDto = BenchmarkFixtures.invalidRegisterDto();
+        updateDto = new UpdateUserDto();
+        updateDto.setLastName("Smith");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    // Solo el camino válido: el inválido necesita un ConstraintValidatorContext real (se mide abajo)
+    @Benchmark
+    public boolean passwordValidator() {
+        return passwordValidator.isValid("MyPass123", null);
+    }
+
+    @Benchmark
+    public boolean passwordsMatchValidator() {
+        return passwordsMatchValidator.isValid(validRegisterDto, null);
+    }
+
+    @Benchmark
+    public boolean validUpdatedUser() {
+        return validUpdatedUser.isValid(updateDto, null);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<RegisterUserDto>> beanValidationValidRegisterDto() {
+        return validator.validate(validRegisterDto, Default.class, OnCreate.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<RegisterUserDto>> beanValidationInvalidRegisterDto() {
+        return validator.validate(invalidRegisterDto, Default.class, OnCreate.class);
+    }
+
+    @Benchmark
+    public String csvRowValidatorValidRegisterDto() {
+        return UserCsvRowValidator.validate(validRegisterDto);
+    }
+
+    @Benchmark
+    public String csvRowValidatorInvalidRegisterDto() {
+        return UserCsvRowValidator.validate(invalidRegisterDto);
+    }
+}
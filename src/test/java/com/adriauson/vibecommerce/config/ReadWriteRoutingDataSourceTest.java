@@ -0,0 +1,64 @@
+package com.adriauson.vibecommerce.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Dos H2 embebidas distintas: cada una sabe quién es, así se ve a cuál ha ido cada consulta
+class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.readWrite = new TransactionTemplate(transactionManager);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        String database = this.readOnly.execute(status -> whoAmI());
+        assertThat(database).isEqualTo("replica");
+    }
+
+    @Test
+    void readWriteTransactionsGoToThePrimary() {
+        String database = this.readWrite.execute(status -> whoAmI());
+        assertThat(database).isEqualTo("primary");
+    }
+
+    @Test
+    void callsWithoutTransactionGoToThePrimary() {
+        assertThat(whoAmI()).isEqualTo("primary");
+    }
+
+    private String whoAmI() {
+        return this.jdbcTemplate.queryForObject("select name from whoami", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists whoami (name varchar(20))");
+        jdbcTemplate.execute("delete from whoami");
+        jdbcTemplate.update("insert into whoami (name) values (?)", name);
+        return dataSource;
+    }
+}
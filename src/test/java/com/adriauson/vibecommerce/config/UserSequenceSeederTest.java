@@ -0,0 +1,70 @@
+package com.adriauson.vibecommerce.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Tablas como las deja ddl-auto=update sobre una base de datos con IDs de AUTO_INCREMENT (H2 en modo MySQL)
+class UserSequenceSeederTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        this.dataSource = new DriverManagerDataSource("jdbc:h2:mem:seeder;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+        this.jdbcTemplate.execute("drop all objects");
+        this.jdbcTemplate.execute("create table users (id bigint primary key)");
+        this.jdbcTemplate.execute("create table users_seq (next_val bigint)");
+    }
+
+    // Con el optimizador pooled el valor V reserva [V - 49, V]: el primer bloque tiene que empezar por encima de 1234
+    @Test
+    void sequenceIsMovedPastTheExistingIds() {
+        this.jdbcTemplate.execute("insert into users (id) values (1), (1234)");
+        this.jdbcTemplate.execute("insert into users_seq (next_val) values (1)");
+
+        new UserSequenceSeeder(this.dataSource);
+
+        long nextVal = nextVal();
+        assertThat(nextVal - 49).isGreaterThan(1234);
+        assertThat(nextVal % 50).isZero();
+    }
+
+    @Test
+    void sequenceAheadOfTheTableIsNeverMovedBack() {
+        this.jdbcTemplate.execute("insert into users (id) values (10)");
+        this.jdbcTemplate.execute("insert into users_seq (next_val) values (5001)");
+
+        new UserSequenceSeeder(this.dataSource);
+        new UserSequenceSeeder(this.dataSource);
+
+        assertThat(nextVal()).isEqualTo(5001);
+    }
+
+    @Test
+    void missingRowIsCreated() {
+        new UserSequenceSeeder(this.dataSource);
+
+        assertThat(this.jdbcTemplate.queryForObject("select count(*) from users_seq", Long.class)).isEqualTo(1);
+        assertThat(nextVal()).isEqualTo(50);
+    }
+
+    @Test
+    void nativeSequencesAreLeftAlone() {
+        this.jdbcTemplate.execute("drop table users_seq");
+        this.jdbcTemplate.execute("create sequence users_seq start with 1 increment by 50");
+
+        new UserSequenceSeeder(this.dataSource);
+
+        assertThat(this.jdbcTemplate.queryForObject("select next value for users_seq", Long.class)).isEqualTo(1);
+    }
+
+    private long nextVal() {
+        return this.jdbcTemplate.queryForObject("select next_val from users_seq", Long.class);
+    }
+}
@@ -0,0 +1,179 @@
+package com.adriauson.vibecommerce.controller;
+
+import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.exception.PreconditionFailedException;
+import com.adriauson.vibecommerce.handler.GlobalExceptionHandler;
+import com.adriauson.vibecommerce.service.UserService;
+import com.adriauson.vibecommerce.service.support.UserChangeFeed;
+import com.adriauson.vibecommerce.service.support.UserCsvImporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// La traducción de If-None-Match / If-Match a la versión que recibe el servicio y la lectura acotada de /batch
+// (sin contexto de Spring)
+class UserControllerTest {
+
+    private static final String PATCH_BODY = "{\"address\":\"1 Other Street, New York, NY\"}";
+    private static final String BATCH_ITEM = "{\"firstName\":\"Alice\",\"lastName\":\"Johnson\",\"email\":\"alice@example.com\"}";
+
+    private final UserService userService = mock(UserService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        this.mockMvc = MockMvcBuilders
+                .standaloneSetup(new UserController(this.userService, mock(UserChangeFeed.class), mock(UserCsvImporter.class),
+                        new ObjectMapper(), 3))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        when(this.userService.updateUser(eq(7L), any(), any())).thenReturn(user(7L, 4L));
+        when(this.userService.getUserById(7L)).thenReturn(user(7L, 3L));
+        when(this.userService.getUserVersion(7L)).thenReturn(3L);
+    }
+
+    @Test
+    void getAnswersWithTheVersionAsETag() throws Exception {
+        this.mockMvc.perform(get("/api/v1/users/7"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+        verify(this.userService, never()).getUserVersion(any());
+    }
+
+    @Test
+    void ifNoneMatchWithTheCurrentVersionIsNotModified() throws Exception {
+        this.mockMvc.perform(get("/api/v1/users/7").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""));
+        verify(this.userService, never()).getUserById(any());
+    }
+
+    // En GET la comparación es débil: W/"3" vale igual que "3", y también cualquier elemento de la lista o "*"
+    @Test
+    void ifNoneMatchAcceptsWeakTagsListsAndWildcard() throws Exception {
+        for (String ifNoneMatch : new String[]{"W/\"3\"", "\"1\", \"3\"", "*"}) {
+            this.mockMvc.perform(get("/api/v1/users/7").header("If-None-Match", ifNoneMatch))
+                    .andExpect(status().isNotModified());
+        }
+    }
+
+    @Test
+    void ifNoneMatchWithAnOldVersionReturnsTheUser() throws Exception {
+        this.mockMvc.perform(get("/api/v1/users/7").header("If-None-Match", "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void strongIfMatchIsPassedAsTheExpectedVersion() throws Exception {
+        patchWithIfMatch("\"3\"")
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+        verify(this.userService).updateUser(eq(7L), any(), eq(3L));
+    }
+
+    @Test
+    void missingOrWildcardIfMatchIsUnconditional() throws Exception {
+        this.mockMvc.perform(patch("/api/v1/users/7").contentType(MediaType.APPLICATION_JSON).content(PATCH_BODY))
+                .andExpect(status().isOk());
+        patchWithIfMatch("*").andExpect(status().isOk());
+        verify(this.userService, times(2)).updateUser(eq(7L), any(), isNull());
+    }
+
+    // If-Match compara en fuerte: un ETag débil o que no es nuestro nunca puede coincidir
+    @Test
+    void weakOrForeignIfMatchFailsThePrecondition() throws Exception {
+        for (String ifMatch : new String[]{"W/\"3\"", "3", "\"abc\"", "\"\""}) {
+            patchWithIfMatch(ifMatch)
+                    .andExpect(status().isPreconditionFailed())
+                    .andExpect(header().string("Content-Type", MediaType.APPLICATION_PROBLEM_JSON_VALUE));
+        }
+        verify(this.userService, never()).updateUser(any(), any(), any());
+    }
+
+    @Test
+    void ifMatchListUsesTheCurrentVersionWhenItIsListed() throws Exception {
+        patchWithIfMatch("\"2\", \"3\"").andExpect(status().isOk());
+        verify(this.userService).updateUser(eq(7L), any(), eq(3L));
+    }
+
+    @Test
+    void ifMatchListWithoutTheCurrentVersionFailsThePrecondition() throws Exception {
+        patchWithIfMatch("\"1\", \"2\"").andExpect(status().isPreconditionFailed());
+        verify(this.userService, never()).updateUser(any(), any(), any());
+    }
+
+    @Test
+    void deleteWithAStaleVersionIsRejectedByTheService() throws Exception {
+        doThrow(new PreconditionFailedException("stale", 7L)).when(this.userService).deleteUser(7L, 2L);
+
+        this.mockMvc.perform(delete("/api/v1/users/7").header("If-Match", "\"2\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void batchWithinTheLimitReachesTheService() throws Exception {
+        this.mockMvc.perform(post("/api/v1/users/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + BATCH_ITEM + "," + BATCH_ITEM + "," + BATCH_ITEM + "]"))
+                .andExpect(status().isOk());
+        verify(this.userService).registerUsers(argThat(batch -> batch.size() == 3
+                && "alice@example.com".equals(batch.get(0).getEmail())));
+    }
+
+    // Se corta al llegar al elemento max-size + 1: lo que venga detrás (aquí, un JSON sin cerrar) ni se lee
+    @Test
+    void batchOverTheLimitIsRejectedBeforeReadingTheRest() throws Exception {
+        this.mockMvc.perform(post("/api/v1/users/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + BATCH_ITEM + "," + BATCH_ITEM + "," + BATCH_ITEM + "," + BATCH_ITEM + ",{\"firstName\":"))
+                .andExpect(status().isPayloadTooLarge());
+        verify(this.userService, never()).registerUsers(any());
+    }
+
+    @Test
+    void batchThatIsNotAnArrayIsMalformed() throws Exception {
+        this.mockMvc.perform(post("/api/v1/users/batch").contentType(MediaType.APPLICATION_JSON).content(BATCH_ITEM))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(post("/api/v1/users/batch").contentType(MediaType.APPLICATION_JSON).content("[" + BATCH_ITEM))
+                .andExpect(status().isBadRequest());
+        verify(this.userService, never()).registerUsers(any());
+    }
+
+    private ResultActions patchWithIfMatch(String ifMatch) throws Exception {
+        return this.mockMvc.perform(patch("/api/v1/users/7")
+                .header("If-Match", ifMatch)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(PATCH_BODY));
+    }
+
+    private static UserDto user(Long id, Long version) {
+        UserDto user = new UserDto();
+        user.setId(id);
+        user.setVersion(version);
+        user.setFirstName("Alice");
+        user.setLastName("Johnson");
+        user.setEmail("alice@example.com");
+        user.setAddress("123 Main Street, New York, NY");
+        return user;
+    }
+}
@@ -0,0 +1,148 @@
+package com.adriauson.vibecommerce.exception;
+
+import org.hibernate.JDBCException;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Las excepciones salen del driver (H2) o imitan el mensaje de MySQL, y las convierte el dialecto como en la aplicación
+class ConstraintViolationsTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        this.connection = DriverManager.getConnection("jdbc:h2:mem:constraints;MODE=MySQL", "sa", "");
+        try (Statement statement = this.connection.createStatement()) {
+            statement.execute("create table users (id bigint primary key, email varchar(50), "
+                    + "constraint uk_users_email unique (email))");
+            statement.execute("create table legacy_schema (id bigint primary key, email varchar(50) unique)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        this.connection.close();
+    }
+
+    @Test
+    void namedEmailConstraintOnH2() {
+        DataIntegrityViolationException exception = h2("insert into users values (1, 'a'), (2, 'a')");
+
+        assertThat(isEmailViolation(exception)).isTrue();
+    }
+
+    // Esquemas anteriores: @Column(unique = true) deja un índice CONSTRAINT_INDEX_n
+    @Test
+    void autoNamedEmailIndexOnH2() {
+        DataIntegrityViolationException exception = h2("insert into legacy_schema values (1, 'a'), (2, 'a')");
+
+        assertThat(ConstraintViolations.isUniqueViolationOf(exception, "legacy_schema", "email", "uk_users_email")).isTrue();
+    }
+
+    @Test
+    void primaryKeyOnH2IsNotTheEmail() {
+        DataIntegrityViolationException exception = h2("insert into users values (1, 'a'), (1, 'b')");
+
+        assertThat(isEmailViolation(exception)).isFalse();
+    }
+
+    @Test
+    void mySqlIndexNamedAfterTheColumn() {
+        assertThat(isEmailViolation(mySql("Duplicate entry 'a@example.com' for key 'users.email'"))).isTrue();
+        assertThat(isEmailViolation(mySql("Duplicate entry 'a@example.com' for key 'email_2'"))).isTrue();
+        assertThat(isEmailViolation(mySql("Duplicate entry 'a@example.com' for key 'users.uk_users_email'"))).isTrue();
+    }
+
+    @Test
+    void mySqlPrimaryKeyIsNotTheEmail() {
+        assertThat(isEmailViolation(mySql("Duplicate entry '51' for key 'users.PRIMARY'"))).isFalse();
+        assertThat(isEmailViolation(mySql("Duplicate entry 'x' for key 'users.email_domain'"))).isFalse();
+    }
+
+    // Sin traducir por Hibernate (p. ej. un INSERT nativo): se reconoce por el código 1062 y el mensaje
+    @Test
+    void rawMySqlExceptionIsRecognised() {
+        SQLException sqlException = new SQLIntegrityConstraintViolationException(
+                "Duplicate entry 'a@example.com' for key 'users.email'", "23000", 1062);
+
+        assertThat(isEmailViolation(new DataIntegrityViolationException("duplicate", sqlException))).isTrue();
+    }
+
+    @Test
+    void notNullViolationIsNotAUniqueViolation() {
+        SQLException sqlException = new SQLIntegrityConstraintViolationException("Column 'email' cannot be null", "23000", 1048);
+
+        assertThat(isEmailViolation(translate(new MySQLDialect(), sqlException))).isFalse();
+    }
+
+    // Lo que GlobalExceptionHandler responde con 409: claves únicas, nunca la primaria
+    @Test
+    void uniqueKeysAreConflictsButPrimaryKeysAreNot() {
+        assertThat(ConstraintViolations.isUniqueKeyViolation(h2("insert into users values (1, 'a'), (2, 'a')"))).isTrue();
+        assertThat(ConstraintViolations.isUniqueKeyViolation(mySql("Duplicate entry 'a' for key 'users.email'"))).isTrue();
+        assertThat(ConstraintViolations.isUniqueKeyViolation(h2("insert into users values (1, 'a'), (1, 'b')"))).isFalse();
+        assertThat(ConstraintViolations.isUniqueKeyViolation(mySql("Duplicate entry '51' for key 'users.PRIMARY'"))).isFalse();
+        assertThat(ConstraintViolations.isUniqueKeyViolation(h2("insert into users values (1, null), (null, 'b')"))).isFalse();
+    }
+
+    @Test
+    void valueTooLongIsInvalidData() {
+        DataIntegrityViolationException tooLong = h2("insert into users values (1, '" + "x".repeat(51) + "')");
+        SQLException mySqlTooLong = new SQLException("Data truncation: Data too long for column 'email' at row 1", "22001", 1406);
+
+        assertThat(ConstraintViolations.isInvalidData(tooLong)).isTrue();
+        assertThat(ConstraintViolations.isInvalidData(translate(new MySQLDialect(), mySqlTooLong))).isTrue();
+        assertThat(ConstraintViolations.isInvalidData(mySql("Duplicate entry 'a' for key 'users.email'"))).isFalse();
+    }
+
+    private static boolean isEmailViolation(DataIntegrityViolationException exception) {
+        return ConstraintViolations.isUniqueViolationOf(exception, "users", "email", "uk_users_email");
+    }
+
+    private DataIntegrityViolationException h2(String sql) {
+        SQLException[] thrown = new SQLException[1];
+        assertThatThrownBy(() -> {
+            try (Statement statement = this.connection.createStatement()) {
+                statement.execute(sql);
+            } catch (SQLException exception) {
+                thrown[0] = exception;
+                throw exception;
+            }
+        }).isInstanceOf(SQLException.class);
+        return translate(new H2Dialect(), thrown[0]);
+    }
+
+    private static DataIntegrityViolationException mySql(String message) {
+        return translate(new MySQLDialect(), new SQLIntegrityConstraintViolationException(message, "23000", 1062));
+    }
+
+    // Como HibernateJpaDialect: la JDBCException de Hibernate envuelta en una DataIntegrityViolationException.
+    // Lo que el dialecto no reconoce lo convierte Hibernate por SQLState (clase 23 → violación sin tipo ni nombre,
+    // clase 22 → DataException)
+    private static DataIntegrityViolationException translate(Dialect dialect, SQLException sqlException) {
+        JDBCException converted = dialect.buildSQLExceptionConversionDelegate().convert(sqlException, "could not execute statement", "insert");
+        if (converted == null && sqlException.getSQLState().startsWith("22")) {
+            converted = new DataException("could not execute statement", sqlException, "insert");
+        }
+        if (converted == null) {
+            converted = new ConstraintViolationException("could not execute statement", sqlException, "insert", (String) null);
+        }
+        return new DataIntegrityViolationException(converted.getMessage(), converted);
+    }
+}
@@ -0,0 +1,63 @@
+package com.adriauson.vibecommerce.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, 0, 10_000, this.meterRegistry);
+
+    @Test
+    void asyncResponseKeepsThePermitUntilItCompletes() throws Exception {
+        MockHttpServletRequest export = request("/api/v1/users/export");
+        AsyncContext[] async = new AsyncContext[1];
+        this.filter.doFilter(export, new MockHttpServletResponse(),
+                (request, response) -> async[0] = request.startAsync());
+
+        // El hilo de Tomcat ya ha vuelto, pero el export sigue escribiendo: no hay hueco
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        this.filter.doFilter(request("/api/v1/users/1"), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(this.meterRegistry.get("users.concurrency.rejected").counter().count()).isEqualTo(1);
+
+        async[0].complete();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        this.filter.doFilter(request("/api/v1/users/1"), admitted, new MockFilterChain());
+        assertThat(admitted.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void synchronousRequestReleasesThePermitOnReturn() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            this.filter.doFilter(request("/api/v1/users/1"), response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+        assertThat(this.meterRegistry.get("users.concurrency.available").gauge().value()).isEqualTo(1);
+    }
+
+    // Las conexiones SSE pueden durar horas sin usar la BD: no ocupan permiso
+    @Test
+    void changeFeedSubscriptionsDoNotTakeAPermit() throws Exception {
+        this.filter.doFilter(request("/api/v1/users/changes"), new MockHttpServletResponse(),
+                (request, response) -> request.startAsync());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        this.filter.doFilter(request("/api/v1/users/1"), response, new MockFilterChain());
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setAsyncSupported(true);
+        return request;
+    }
+}
@@ -0,0 +1,263 @@
+package com.adriauson.vibecommerce.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"email\":\"alice@example.com\"}";
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void retryWithTheSameKeyAndBodyGetsTheStoredResponse() throws Exception {
+        IdempotencyFilter filter = filter(100);
+
+        MockHttpServletResponse first = post(filter, "key-1", BODY, "10.0.0.1", created());
+        MockHttpServletResponse retry = post(filter, "key-1", BODY, "10.0.0.1", created());
+
+        assertThat(this.executions).hasValue(1);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getHeader("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(retry.getHeader("Location")).isEqualTo("/api/v1/users/1");
+    }
+
+    @Test
+    void sameKeyWithAnotherBodyIsRejectedWithoutExecuting() throws Exception {
+        IdempotencyFilter filter = filter(100);
+        post(filter, "key-1", BODY, "10.0.0.1", created());
+
+        MockHttpServletResponse mismatch = post(filter, "key-1", "{\"email\":\"bob@example.com\"}", "10.0.0.1", created());
+
+        assertThat(mismatch.getStatus()).isEqualTo(422);
+        assertThat(mismatch.getContentType()).isEqualTo("application/problem+json");
+        assertThat(this.executions).hasValue(1);
+    }
+
+    // El reintento de un móvil que ha cambiado de red (otra IP) recibe el 201 guardado, no un segundo registro
+    @Test
+    void retryFromAnotherIpGetsTheStoredResponse() throws Exception {
+        IdempotencyFilter filter = filter(100);
+
+        MockHttpServletResponse first = post(filter, "key-1", BODY, "10.0.0.1", created());
+        MockHttpServletResponse retry = post(filter, "key-1", BODY, "100.64.7.9", created());
+
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(this.executions).hasValue(1);
+    }
+
+    // Las API keys dadas de alta separan las claves de cada cliente; una desconocida cuenta como anónima
+    @Test
+    void keysAreScopedPerRegisteredApiKey() throws Exception {
+        IdempotencyFilter filter = filter(100);
+
+        post(filter, "key-1", "client-a", BODY, "10.0.0.1", created());
+        MockHttpServletResponse otherClient = post(filter, "key-1", "client-b", BODY, "10.0.0.1", created());
+        assertThat(otherClient.getHeader("Idempotent-Replayed")).isNull();
+        assertThat(this.executions).hasValue(2);
+
+        post(filter, "key-2", "unknown", BODY, "10.0.0.1", created());
+        MockHttpServletResponse anonymous = post(filter, "key-2", BODY, "10.0.0.2", created());
+        assertThat(anonymous.getHeader("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(this.executions).hasValue(3);
+    }
+
+    // Conocer la clave de otro cliente anónimo no da su respuesta: con otro cuerpo la huella no coincide
+    @Test
+    void anotherClientWithTheSameKeyButAnotherBodyGetsNoStoredResponse() throws Exception {
+        IdempotencyFilter filter = filter(100);
+
+        post(filter, "key-1", BODY, "10.0.0.1", created());
+        MockHttpServletResponse otherClient = post(filter, "key-1", "{\"email\":\"bob@example.com\"}", "10.0.0.2", created());
+
+        assertThat(otherClient.getStatus()).isEqualTo(422);
+        assertThat(otherClient.getHeader("Location")).isNull();
+        assertThat(this.executions).hasValue(1);
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheOriginalAndReplayIt() throws Exception {
+        IdempotencyFilter filter = filter(100);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            await(release);
+            created().doFilter(request, response);
+        };
+
+        // Cualquiera de las seis puede reclamar la clave primero: solo esa se ejecuta, el resto la reproduce
+        List<Future<MockHttpServletResponse>> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(this.executor.submit(() -> post(filter, "key-1", BODY, "10.0.0.1", slow)));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        int replayed = 0;
+        for (Future<MockHttpServletResponse> request : requests) {
+            MockHttpServletResponse response = request.get(5, TimeUnit.SECONDS);
+            assertThat(response.getStatus()).isEqualTo(201);
+            if ("true".equals(response.getHeader("Idempotent-Replayed"))) {
+                replayed++;
+            }
+        }
+        assertThat(replayed).isEqualTo(5);
+        assertThat(this.executions).hasValue(1);
+    }
+
+    // max-entries = 1: las respuestas terminadas se expulsan entre sí, pero la petición en curso sigue reclamada
+    @Test
+    void inFlightRequestIsNotEvictedByOtherKeys() throws Exception {
+        IdempotencyFilter filter = filter(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            await(release);
+            created().doFilter(request, response);
+        };
+        Future<MockHttpServletResponse> original = this.executor.submit(() -> post(filter, "key-1", BODY, "10.0.0.1", slow));
+        Thread.sleep(100);
+
+        for (int i = 0; i < 50; i++) {
+            post(filter, "other-" + i, BODY, "10.0.0.1", created());
+        }
+        Future<MockHttpServletResponse> duplicate = this.executor.submit(() -> post(filter, "key-1", BODY, "10.0.0.1", slow));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(original.get(5, TimeUnit.SECONDS).getHeader("Idempotent-Replayed")).isNull();
+        assertThat(duplicate.get(5, TimeUnit.SECONDS).getHeader("Idempotent-Replayed")).isEqualTo("true");
+        assertThat(this.executions).hasValue(51);
+    }
+
+    @Test
+    void serverErrorsAreNotStoredAndTheRetryRunsAgain() throws Exception {
+        IdempotencyFilter filter = filter(100);
+        FilterChain failing = (request, response) -> {
+            this.executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(503);
+        };
+
+        post(filter, "key-1", BODY, "10.0.0.1", failing);
+        MockHttpServletResponse retry = post(filter, "key-1", BODY, "10.0.0.1", created());
+
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader("Idempotent-Replayed")).isNull();
+        assertThat(this.executions).hasValue(2);
+    }
+
+    // El controlador puede leer el cuerpo ya leído por el filtro también en modo no bloqueante
+    @Test
+    void bufferedBodyCanBeReadWithAReadListener() throws Exception {
+        IdempotencyFilter filter = filter(100);
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicInteger allDataRead = new AtomicInteger();
+
+        post(filter, "key-1", BODY, "10.0.0.1", (request, response) -> {
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[8];
+                    while (input.isReady() && !input.isFinished()) {
+                        int n = input.read(buffer);
+                        if (n > 0) {
+                            read.write(buffer, 0, n);
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    throw new AssertionError(throwable);
+                }
+            });
+            created().doFilter(request, response);
+        });
+
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+        assertThat(allDataRead).hasValue(1);
+    }
+
+    private IdempotencyFilter filter(long maxEntries) {
+        IdempotencyProperties properties = new IdempotencyProperties(true, "Idempotency-Key", "X-API-Key", Set.of("client-a", "client-b"),
+                Duration.ofHours(1), maxEntries, Duration.ofSeconds(5), 16384);
+        return new IdempotencyFilter(properties, new StaticListableBeanFactory().getBeanProvider(IdempotencyStore.class),
+                new SimpleMeterRegistry());
+    }
+
+    private FilterChain created() {
+        return (request, response) -> {
+            int id = this.executions.incrementAndGet();
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(201);
+            http.setContentType("application/json");
+            http.setHeader("Location", "/api/v1/users/1");
+            http.getOutputStream().write(("{\"id\":1,\"execution\":" + id + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static MockHttpServletResponse post(IdempotencyFilter filter, String key, String body, String remoteAddr,
+                                                FilterChain chain) throws Exception {
+        return post(filter, key, null, body, remoteAddr, chain);
+    }
+
+    private static MockHttpServletResponse post(IdempotencyFilter filter, String key, String apiKey, String body,
+                                                String remoteAddr, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/users");
+        request.addHeader("Idempotency-Key", key);
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        request.setRemoteAddr(remoteAddr);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
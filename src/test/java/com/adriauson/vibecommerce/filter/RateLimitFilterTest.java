@@ -0,0 +1,161 @@
+package com.adriauson.vibecommerce.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // capacity 5, 1 por segundo: una ráfaga de 5 entra de golpe y la sexta espera 1 s
+    @Test
+    void burstUpToCapacityThenRejectsUntilTheNextToken() {
+        RateLimitFilter.EndpointLimiter limiter = limiter(5, 1);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("ip:1", now)).isNotNegative();
+        }
+        long rejected = limiter.tryAcquire("ip:1", now);
+        assertThat(rejected).isNegative();
+        assertThat(-rejected).isEqualTo(SECOND);
+
+        // Otro cliente tiene su propio bucket
+        assertThat(limiter.tryAcquire("ip:2", now)).isNotNegative();
+    }
+
+    @Test
+    void tokensRefillAtTheConfiguredRate() {
+        RateLimitFilter.EndpointLimiter limiter = limiter(2, 4);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("ip:1", now);
+        limiter.tryAcquire("ip:1", now);
+        assertThat(limiter.tryAcquire("ip:1", now)).isNegative();
+
+        // 4 por segundo → un token cada 250 ms
+        assertThat(limiter.tryAcquire("ip:1", now + SECOND / 4)).isNotNegative();
+        assertThat(limiter.tryAcquire("ip:1", now + SECOND / 4)).isNegative();
+
+        // Mucho después el bucket vuelve a estar lleno, pero no pasa de capacity
+        long later = now + 10 * SECOND;
+        assertThat(limiter.tryAcquire("ip:1", later)).isNotNegative();
+        assertThat(limiter.tryAcquire("ip:1", later)).isNotNegative();
+        assertThat(limiter.tryAcquire("ip:1", later)).isNegative();
+    }
+
+    @Test
+    void remainingCountsDownWithEachAdmittedRequest() {
+        RateLimitFilter.EndpointLimiter limiter = limiter(3, 1);
+        long now = 1_000 * SECOND;
+
+        assertThat(limiter.remaining(limiter.tryAcquire("ip:1", now))).isEqualTo(2);
+        assertThat(limiter.remaining(limiter.tryAcquire("ip:1", now))).isEqualTo(1);
+        assertThat(limiter.remaining(limiter.tryAcquire("ip:1", now))).isZero();
+    }
+
+    @Test
+    void rejectedRequestGets429WithRetryAfterAndRateLimitHeaders() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(properties(Map.of("register",
+                new RateLimitProperties.Endpoint("POST", "/api/v1/users", 1, 0.5))), this.meterRegistry);
+
+        MockHttpServletResponse first = register(filter);
+        assertThat(first.getStatus()).isEqualTo(200);
+        assertThat(first.getHeader("RateLimit-Limit")).isEqualTo("1");
+        assertThat(first.getHeader("RateLimit-Remaining")).isEqualTo("0");
+
+        MockHttpServletResponse second = register(filter);
+        assertThat(second.getStatus()).isEqualTo(429);
+        assertThat(second.getHeader("Retry-After")).isEqualTo("2");
+        assertThat(this.meterRegistry.get("users.ratelimit.rejected").tag("endpoint", "register").counter().count()).isEqualTo(1);
+
+        // Las demás rutas van por default-limit
+        MockHttpServletResponse list = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/users"), list, new MockFilterChain());
+        assertThat(list.getStatus()).isEqualTo(200);
+        assertThat(list.getHeader("RateLimit-Limit")).isEqualTo("100");
+    }
+
+    // Solo una clave dada de alta tiene bucket propio: una inventada en cada petición sigue en el de la IP
+    @Test
+    void onlyRegisteredApiKeysIdentifyTheClient() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(properties(Map.of("register",
+                new RateLimitProperties.Endpoint("POST", "/api/v1/users", 1, 0.5))), this.meterRegistry);
+
+        assertThat(register(filter, "random-1").getStatus()).isEqualTo(200);
+        assertThat(register(filter, "random-2").getStatus()).isEqualTo(429);
+        assertThat(register(filter, null).getStatus()).isEqualTo(429);
+        assertThat(register(filter, "known-key").getStatus()).isEqualTo(200);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/users");
+        request.addHeader("X-API-Key", "random-3");
+        assertThat(filter.clientOf(request)).isEqualTo("ip:127.0.0.1");
+    }
+
+    @Test
+    void nonPositiveRatesAndCapacitiesFailAtBindTime() {
+        ApplicationContextRunner runner = new ApplicationContextRunner().withUserConfiguration(PropertiesConfig.class);
+
+        runner.withPropertyValues("vibecommerce.rate-limit.default-limit.refill-per-second=0")
+                .run(context -> assertThat(context).hasFailed());
+        runner.withPropertyValues("vibecommerce.rate-limit.endpoints.register.path=/api/v1/users",
+                        "vibecommerce.rate-limit.endpoints.register.capacity=-1")
+                .run(context -> assertThat(context).hasFailed());
+        runner.withPropertyValues("vibecommerce.rate-limit.endpoints.register.capacity=5")
+                .run(context -> assertThat(context).hasFailed());
+        runner.withPropertyValues("vibecommerce.rate-limit.endpoints.register.path=/api/v1/users",
+                        "vibecommerce.rate-limit.endpoints.register.refill-per-second=0.1")
+                .run(context -> assertThat(context).hasNotFailed());
+    }
+
+    @Test
+    void apiKeysBindFromACommaSeparatedList() {
+        ApplicationContextRunner runner = new ApplicationContextRunner().withUserConfiguration(PropertiesConfig.class);
+
+        runner.withPropertyValues("vibecommerce.rate-limit.api-keys=")
+                .run(context -> assertThat(context.getBean(RateLimitProperties.class).apiKeys()).isEmpty());
+        runner.withPropertyValues("vibecommerce.rate-limit.api-keys=key-a,key-b")
+                .run(context -> assertThat(context.getBean(RateLimitProperties.class).apiKeys())
+                        .containsExactlyInAnyOrder("key-a", "key-b"));
+    }
+
+    private RateLimitFilter.EndpointLimiter limiter(int capacity, double refillPerSecond) {
+        return new RateLimitFilter.EndpointLimiter("test", null, null, capacity, refillPerSecond, 1000, this.meterRegistry);
+    }
+
+    private static MockHttpServletResponse register(RateLimitFilter filter) throws Exception {
+        return register(filter, null);
+    }
+
+    private static MockHttpServletResponse register(RateLimitFilter filter, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/users");
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static RateLimitProperties properties(Map<String, RateLimitProperties.Endpoint> endpoints) {
+        return new RateLimitProperties(true, "X-API-Key", Set.of("known-key"), new RateLimitProperties.Limit(100, 50), endpoints, 1000);
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(RateLimitProperties.class)
+    static class PropertiesConfig {
+    }
+}
@@ -0,0 +1,55 @@
+package com.adriauson.vibecommerce.handler;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.DataException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void uniqueKeyViolationIsAConflict() {
+        DataIntegrityViolationException exception = constraintViolation(
+                "Duplicate entry 'a@example.com' for key 'users.uk_users_email'", 1062,
+                ConstraintViolationException.ConstraintKind.UNIQUE, "users.uk_users_email");
+
+        assertThat(this.handler.handleDataIntegrityViolation(exception).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    // Ni la clave primaria ni un NOT NULL son culpa del cliente: no se devuelven como conflicto
+    @Test
+    void otherConstraintViolationsAreServerErrors() {
+        DataIntegrityViolationException primaryKey = constraintViolation("Duplicate entry '51' for key 'users.PRIMARY'", 1062,
+                ConstraintViolationException.ConstraintKind.UNIQUE, "users.PRIMARY");
+        DataIntegrityViolationException notNull = constraintViolation("Column 'email' cannot be null", 1048,
+                ConstraintViolationException.ConstraintKind.OTHER, null);
+
+        assertThat(this.handler.handleDataIntegrityViolation(primaryKey).getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(this.handler.handleDataIntegrityViolation(notNull).getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    void valueTooLongIsABadRequest() {
+        SQLException sqlException = new SQLException("Data truncation: Data too long for column 'email' at row 1", "22001", 1406);
+        DataIntegrityViolationException exception = new DataIntegrityViolationException("too long",
+                new DataException("could not execute statement", sqlException, "insert"));
+
+        assertThat(this.handler.handleDataIntegrityViolation(exception).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private static DataIntegrityViolationException constraintViolation(String message, int errorCode,
+                                                                       ConstraintViolationException.ConstraintKind kind,
+                                                                       String constraintName) {
+        SQLException sqlException = new SQLIntegrityConstraintViolationException(message, "23000", errorCode);
+        return new DataIntegrityViolationException(message,
+                new ConstraintViolationException(message, sqlException, "insert", kind, constraintName));
+    }
+}
@@ -0,0 +1,53 @@
+package com.adriauson.vibecommerce.handler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProblemBodyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Los clientes del formato anterior ({status,error,message}) siguen encontrando sus campos
+    @Test
+    void keepsTheLegacyFieldsNextToTheProblemMembers() throws IOException {
+        JsonNode body = parse(ProblemBody.of(HttpStatus.CONFLICT).render("Email is already in use"));
+
+        assertThat(body.get("title").asText()).isEqualTo("Conflict");
+        assertThat(body.get("status").asInt()).isEqualTo(409);
+        assertThat(body.get("detail").asText()).isEqualTo("Email is already in use");
+        assertThat(body.get("error").asText()).isEqualTo("Conflict");
+        assertThat(body.get("message").asText()).isEqualTo("Email is already in use");
+    }
+
+    @Test
+    void escapesDetailAndExtensionName() throws IOException {
+        JsonNode body = parse(ProblemBody.of(HttpStatus.PAYLOAD_TOO_LARGE).render("Too \"big\"\n", "max\"Size", 1000));
+
+        assertThat(body.get("detail").asText()).isEqualTo("Too \"big\"\n");
+        assertThat(body.get("message").asText()).isEqualTo("Too \"big\"\n");
+        assertThat(body.get("max\"Size").asLong()).isEqualTo(1000);
+    }
+
+    @Test
+    void invalidParamsFollowTheLegacyFields() throws IOException {
+        JsonNode body = parse(ProblemBody.of(HttpStatus.BAD_REQUEST).render("Validation failed",
+                List.of(new ProblemBody.InvalidParam("email", "Must be a valid email"),
+                        new ProblemBody.InvalidParam("firstName", null))));
+
+        assertThat(body.get("message").asText()).isEqualTo("Validation failed");
+        assertThat(body.get("invalid-params")).hasSize(2);
+        assertThat(body.get("invalid-params").get(0).get("reason").asText()).isEqualTo("Must be a valid email");
+        assertThat(body.get("invalid-params").get(1).get("reason").asText()).isEmpty();
+    }
+
+    private JsonNode parse(byte[] body) throws IOException {
+        return this.objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,94 @@
+package com.adriauson.vibecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Latencias y códigos de respuesta de una operación.
+ *
+ *  - latency: desde el instante en que la petición DEBÍA salir según el ritmo fijado hasta la respuesta.
+ *    Si el sistema (o el propio harness) se retrasa, ese retraso cuenta: no hay coordinated omission.
+ *  - serviceTime: desde que la petición salió de verdad. La diferencia entre ambas es la cola.
+ *
+ * Histogramas HdrHistogram en microsegundos, 3 dígitos significativos.
+ */
+final class EndpointRecorder {
+
+    private final Histogram latency = new ConcurrentHistogram(3);
+    private final Histogram serviceTime = new ConcurrentHistogram(3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    void record(long intendedNanos, long sentNanos, long doneNanos, int status, long bytes) {
+        record(intendedNanos, sentNanos, doneNanos);
+        this.outcomes.computeIfAbsent(String.valueOf(status), key -> new LongAdder()).increment();
+        this.responseBytes.add(bytes);
+        if (status >= 500) {
+            this.failures.increment();
+        }
+    }
+
+    void recordError(long intendedNanos, long sentNanos, long doneNanos, Throwable error) {
+        record(intendedNanos, sentNanos, doneNanos);
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        this.outcomes.computeIfAbsent("error:" + cause.getClass().getSimpleName(), key -> new LongAdder()).increment();
+        this.failures.increment();
+    }
+
+    private void record(long intendedNanos, long sentNanos, long doneNanos) {
+        this.latency.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(doneNanos - intendedNanos)));
+        this.serviceTime.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(doneNanos - sentNanos)));
+    }
+
+    long count() {
+        return this.latency.getTotalCount();
+    }
+
+    // 5xx y errores de red/timeout. Los 404 de un GET sobre un usuario recién borrado son parte de la mezcla, no fallos
+    double failureRate() {
+        long count = count();
+        return count == 0 ? 0 : (double) this.failures.sum() / count;
+    }
+
+    ObjectNode toJson(double elapsedSeconds) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        long count = count();
+        node.put("count", count);
+        node.put("throughputPerSecond", round(count / elapsedSeconds));
+        node.put("failureRate", round(failureRate()));
+        node.put("responseBytesPerRequest", count == 0 ? 0 : this.responseBytes.sum() / count);
+        ObjectNode statuses = node.putObject("outcomes");
+        new TreeMap<>(this.outcomes).forEach((outcome, total) -> statuses.put(outcome, total.sum()));
+        node.set("latencyMs", percentiles(this.latency));
+        node.set("serviceTimeMs", percentiles(this.serviceTime));
+        return node;
+    }
+
+    private static ObjectNode percentiles(Histogram histogram) {
+        ObjectNode node = JsonNodeFactory.instance.objectNode();
+        node.put("mean", round(histogram.getMean() / 1000.0));
+        node.put("p50", millis(histogram, 50));
+        node.put("p90", millis(histogram, 90));
+        node.put("p99", millis(histogram, 99));
+        node.put("p999", millis(histogram, 99.9));
+        node.put("max", round(histogram.getMaxValue() / 1000.0));
+        return node;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return round(histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,44 @@
+package com.adriauson.vibecommerce.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/*
+ * IDs de usuarios que existen (los sembrados más los registrados durante la prueba) para elegir al azar
+ * a quién hacer GET, PATCH o DELETE. Borrar es un swap con el último: O(1) y sin huecos.
+ */
+final class LiveUserIds {
+
+    private long[] ids = new long[1024];
+    private int size;
+
+    synchronized void add(long id) {
+        if (this.size == this.ids.length) {
+            this.ids = Arrays.copyOf(this.ids, this.size * 2);
+        }
+        this.ids[this.size++] = id;
+    }
+
+    // Sin usuarios vivos devuelve un ID que no existe: la petición acaba en 404 y así se contabiliza
+    synchronized long pick(SplittableRandom random) {
+        return this.size == 0 ? Long.MAX_VALUE : this.ids[random.nextInt(this.size)];
+    }
+
+    synchronized long remove(SplittableRandom random) {
+        if (this.size == 0) {
+            return Long.MAX_VALUE;
+        }
+        int index = random.nextInt(this.size);
+        long id = this.ids[index];
+        this.ids[index] = this.ids[--this.size];
+        return id;
+    }
+
+    synchronized long max() {
+        long max = 0;
+        for (int i = 0; i < this.size; i++) {
+            max = Math.max(max, this.ids[i]);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,85 @@
+package com.adriauson.vibecommerce.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Parámetros del harness, leídos de propiedades de sistema -Dloadtest.* (el perfil "loadtest" del pom
+ * las reenvía desde la línea de mvn). Los valores por defecto son los del pom.
+ */
+record LoadTestConfig(
+        String profiles,
+        int users,
+        int registrationSample,
+        double rate,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        int maxInFlight,
+        Duration timeout,
+        int probeRequests,
+        long seed,
+        Path report,
+        Path baseline,
+        double tolerance,
+        double slackMillis,
+        boolean updateBaseline,
+        List<String> appArgs) {
+
+    static LoadTestConfig fromSystemProperties() {
+        String profiles = property("profile", "local");
+        return new LoadTestConfig(
+                profiles,
+                Integer.parseInt(property("users", "10000")),
+                Integer.parseInt(property("registrationSample", "500")),
+                Double.parseDouble(property("rate", "200")),
+                Duration.ofSeconds(Long.parseLong(property("warmup", "15"))),
+                Duration.ofSeconds(Long.parseLong(property("duration", "60"))),
+                parseMix(property("mix", "get=60,list=15,patch=15,register=5,delete=5")),
+                Integer.parseInt(property("maxInFlight", "1000")),
+                Duration.ofSeconds(Long.parseLong(property("timeout", "30"))),
+                Integer.parseInt(property("probeRequests", "200")),
+                Long.parseLong(property("seed", "42")),
+                Path.of(property("report", "target/loadtest-report.json")),
+                Path.of(property("baseline", "loadtest/baseline-" + profiles.replace(',', '-') + ".json")),
+                Double.parseDouble(property("tolerance", "0.25")),
+                Double.parseDouble(property("slackMillis", "2")),
+                Boolean.parseBoolean(property("updateBaseline", "false")),
+                Arrays.stream(property("appArgs", "").trim().split("\\s+")).filter(arg -> !arg.isEmpty()).toList());
+    }
+
+    // "get=60,list=15,..." → pesos relativos (no tienen por qué sumar 100)
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry '" + entry + "', expected operation=weight");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromKey(parts[0]), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix must contain at least one operation with a positive weight");
+        }
+        return weights;
+    }
+
+    String mixDescription() {
+        StringBuilder description = new StringBuilder();
+        this.mix.forEach((operation, weight) -> description.append(description.isEmpty() ? "" : ",")
+                .append(operation.key()).append('=').append(weight));
+        return description.toString();
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty("loadtest." + name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,592 @@
+package com.adriauson.vibecommerce.loadtest;
+
+import com.adriauson.vibecommerce.VibecommerceApplication;
+import com.adriauson.vibecommerce.service.support.EmailBloomFilter;
+import com.adriauson.vibecommerce.service.support.PasswordHashingService;
+import com.adriauson.vibecommerce.service.support.UserSearchIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/*
+ * 🏋️ Harness de carga: arranca VibecommerceApplication en este mismo proceso contra la BD embebida (H2),
+ * siembra N usuarios y lanza una mezcla de register / get / patch / delete / list a ritmo fijo.
+ *
+ *   mvn -P loadtest verify -DskipTests
+ *   mvn -P loadtest verify -DskipTests -Dloadtest.rate=1000 -Dloadtest.mix=get=80,patch=20
+ *   mvn -P loadtest verify -DskipTests -Dloadtest.updateBaseline=true    (guarda la línea base)
+ *
+ * Fases:
+ *  1. Siembra: INSERTs multi-fila directos en la BD con un único hash BCrypt (sembrar 100k usuarios por HTTP
+ *     serían 100k hashes) y después se reconstruyen el filtro de emails y el índice de búsqueda.
+ *  2. Registro: loadtest.registrationSample altas uno a uno y otras tantas por POST /batch (filas/s de cada camino).
+ *  3. Calentamiento (JIT, pools, cachés) y medición con el modelo abierto: cada petición tiene su instante
+ *     previsto (i / rate) y la latencia se mide desde ahí, también si sale tarde porque el sistema va saturado.
+ *     Así no hay coordinated omission: una pausa de 1 s cuenta como 1 s para todas las peticiones que retrasó.
+ *  4. Sondeo: loadtest.probeRequests peticiones secuenciales por operación para medir sentencias SQL
+ *     (users.request.statements), bytes de SQL (users.request.statement.bytes) y bytes asignados en la JVM
+ *     por petición, sin el ruido de la concurrencia.
+ *  5. Informe JSON (loadtest.report) y comparación con la línea base (loadtest.baseline): si p50/p99 o la tasa
+ *     de fallos empeoran más de loadtest.tolerance, termina con código 1 y el build falla.
+ *
+ * Comparativas que dependían de este harness:
+ *  - Registro por lotes frente a uno a uno: "registration" del informe
+ *  - Sentencias por PATCH dirigido y por lecturas con proyección: "probe.<op>.statementsPerRequest"
+ *  - Bytes de SQL por PATCH dirigido frente al UPDATE de todas las columnas: "probe.<op>.sqlBytesPerRequest"
+ *  - Asignación en el heap por petición (proyecciones sin password): "probe.<op>.allocatedBytesPerRequest"
+ *  - Hilos virtuales (Java 21+): -Dloadtest.profile=local,virtual con -Dloadtest.maxInFlight=200 / 2000 / 20000
+ *  - Logging: -Dloadtest.appArgs="--vibecommerce.access-log.sample-rate=1 --logging.level.com.adriauson=DEBUG"
+ *  - Bloqueante frente a reactivo: -Dloadtest.profile=reactive con el mismo -Dloadtest.heap, compilando con
+ *    -P loadtest,reactive (la variante reactiva no está en el build normal); "jvm" da el heap y los hilos pico
+ *    para el mismo ritmo
+ *
+ * El generador comparte CPU con la aplicación: sirve para comparar versiones en la misma máquina, no para
+ * dimensionar producción. HdrHistogram llega con micrometer-core.
+ */
+public final class LoadTestHarness {
+
+    private static final String PASSWORD = "MyPass123";
+    private static final int SEED_CHUNK = 500;
+    private static final int BATCH_CHUNK = 500;
+    private static final int ID_BLOCK = 50;
+    private static final String STATEMENTS = "users.request.statements";
+    private static final String STATEMENT_BYTES = "users.request.statement.bytes";
+    private static final Consumer<HttpResponse<byte[]>> IGNORE = response -> {
+    };
+
+    private final LoadTestConfig config;
+    private final ConfigurableApplicationContext context;
+    private final boolean reactive;
+    private final URI baseUri;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final MeterRegistry meterRegistry;
+    private final LiveUserIds liveIds = new LiveUserIds();
+    private final AtomicLong emailSequence = new AtomicLong();
+    // Solo lo usa el hilo principal (el que planifica las peticiones)
+    private final SplittableRandom random;
+    private final Operation[] operationTable;
+    private long listCursorBound;
+
+    private LoadTestHarness(LoadTestConfig config, ConfigurableApplicationContext context) {
+        this.config = config;
+        this.context = context;
+        this.reactive = isReactive(config);
+        this.baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.meterRegistry = context.getBeanProvider(MeterRegistry.class).getIfAvailable();
+        this.random = new SplittableRandom(config.seed());
+
+        // Tabla de 100 huecos repartidos según los pesos: elegir operación es un acceso aleatorio
+        int totalWeight = config.mix().values().stream().mapToInt(Integer::intValue).sum();
+        List<Operation> table = new ArrayList<>();
+        config.mix().forEach((operation, weight) -> {
+            for (int i = 0; i < Math.max(1, Math.round(100f * weight / totalWeight)); i++) {
+                table.add(operation);
+            }
+        });
+        this.operationTable = table.toArray(Operation[]::new);
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        // Con devtools en el classpath la aplicación se relanzaría en un hilo "restartedMain" que se traga el código de
+        // salida. Solo se puede desactivar como propiedad de sistema: como argumento de la aplicación llega tarde
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        int exitCode;
+        try (ConfigurableApplicationContext context = startApplication(config)) {
+            exitCode = new LoadTestHarness(config, context).run();
+        }
+        // El HttpClient deja hilos vivos: salimos explícitamente para devolver el código al build
+        System.exit(exitCode);
+    }
+
+    private static ConfigurableApplicationContext startApplication(LoadTestConfig config) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                // Un solo cliente (una IP) a cientos de peticiones/s: el rate limiter solo se mediría a sí mismo
+                "--vibecommerce.rate-limit.enabled=false"));
+        args.addAll(config.appArgs());
+        return new SpringApplicationBuilder(applicationClass(config))
+                .profiles(config.profiles().split(","))
+                .run(args.toArray(String[]::new));
+    }
+
+    private static boolean isReactive(LoadTestConfig config) {
+        return List.of(config.profiles().split(",")).contains("reactive");
+    }
+
+    // La variante reactiva tiene su propia clase principal y solo existe si se compiló con -P reactive
+    private static Class<?> applicationClass(LoadTestConfig config) {
+        if (!isReactive(config)) {
+            return VibecommerceApplication.class;
+        }
+        try {
+            return Class.forName("com.adriauson.vibecommerce.reactive.ReactiveVibecommerceApplication");
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("The reactive variant is not on the classpath: build with -P loadtest,reactive", e);
+        }
+    }
+
+    private int run() throws Exception {
+        ObjectNode report = this.objectMapper.createObjectNode();
+        report.put("startedAt", Instant.now().toString());
+        report.set("config", configJson());
+        report.set("startup", startupJson());
+
+        seedDatabase();
+        report.set("registration", measureRegistration());
+
+        log("Warming up for %d s at %.0f req/s", this.config.warmup().toSeconds(), this.config.rate());
+        runOpenModel(this.config.warmup());
+
+        log("Measuring for %d s at %.0f req/s (mix %s)", this.config.duration().toSeconds(), this.config.rate(), this.config.mixDescription());
+        JvmSnapshot jvmBefore = JvmSnapshot.take();
+        Map<String, double[]> statementsBefore = statementTotals(STATEMENTS);
+        long start = System.nanoTime();
+        Map<Operation, EndpointRecorder> recorders = runOpenModel(this.config.duration());
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        Map<String, double[]> statementsAfter = statementTotals(STATEMENTS);
+
+        ObjectNode endpoints = report.putObject("endpoints");
+        long totalRequests = 0;
+        for (Map.Entry<Operation, EndpointRecorder> entry : recorders.entrySet()) {
+            ObjectNode endpoint = entry.getValue().toJson(elapsedSeconds);
+            Double statements = perRequest(entry.getKey(), statementsBefore, statementsAfter);
+            if (statements != null) {
+                endpoint.put("statementsPerRequest", EndpointRecorder.round(statements));
+            }
+            endpoints.set(entry.getKey().key(), endpoint);
+            totalRequests += entry.getValue().count();
+        }
+        report.set("jvm", JvmSnapshot.take().since(jvmBefore, totalRequests));
+        report.set("probe", probe());
+
+        Path reportPath = this.config.report();
+        if (reportPath.getParent() != null) {
+            Files.createDirectories(reportPath.getParent());
+        }
+        this.objectMapper.writeValue(reportPath.toFile(), report);
+        printSummary(report);
+        log("Report written to %s", reportPath.toAbsolutePath());
+
+        return compareWithBaseline(report);
+    }
+
+    // 1️⃣ Siembra directa en la BD, siempre por JDBC (en el reactivo, a la misma H2 en memoria que usa R2DBC)
+    private void seedDatabase() {
+        long start = System.nanoTime();
+        String passwordHash = this.context.getBean(PasswordHashingService.class).hash(PASSWORD);
+        Consumer<String> sql = sqlExecutor();
+        for (int from = 0; from < this.config.users(); from += SEED_CHUNK) {
+            int to = Math.min(from + SEED_CHUNK, this.config.users());
+            StringBuilder insert = new StringBuilder(
+                    "insert into users (id, first_name, last_name, email, password, address, version) values ");
+            for (int i = from; i < to; i++) {
+                long id = i + 1;
+                insert.append(i > from ? "," : "")
+                        .append('(').append(id).append(",'Alice','Johnson','seed").append(id).append("@example.com','")
+                        .append(passwordHash).append("','123 Main Street, New York, NY',0)");
+                this.liveIds.add(id);
+            }
+            sql.accept(insert.toString());
+        }
+        // Hibernate (pooled) y ReactiveUserIdAllocator usan los IDs del bloque que termina en el valor de la secuencia
+        sql.accept("alter sequence users_seq restart with " + (this.config.users() + 1 + ID_BLOCK));
+        this.listCursorBound = Math.max(1, this.liveIds.max());
+
+        this.context.getBeanProvider(EmailBloomFilter.class).ifAvailable(EmailBloomFilter::rebuild);
+        this.context.getBeanProvider(UserSearchIndex.class).ifAvailable(UserSearchIndex::rebuild);
+        log("Seeded %d users in %d ms", this.config.users(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private Consumer<String> sqlExecutor() {
+        JdbcTemplate jdbcTemplate = this.context.getBeanProvider(JdbcTemplate.class).getIfAvailable();
+        if (jdbcTemplate != null) {
+            return jdbcTemplate::execute;
+        }
+        // r2dbc:h2:mem:///vibecommerce;... → jdbc:h2:mem:vibecommerce;...
+        String r2dbcUrl = this.context.getEnvironment().getRequiredProperty("spring.r2dbc.url");
+        String jdbcUrl = "jdbc:h2:" + r2dbcUrl.substring("r2dbc:h2:".length()).replace(":///", ":");
+        String username = this.context.getEnvironment().getProperty("spring.r2dbc.username", "sa");
+        String password = this.context.getEnvironment().getProperty("spring.r2dbc.password", "");
+        return statement -> {
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password);
+                 Statement jdbcStatement = connection.createStatement()) {
+                jdbcStatement.execute(statement);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Seeding failed: " + e.getMessage(), e);
+            }
+        };
+    }
+
+    // 2️⃣ Filas por segundo: alta a alta (tantas a la vez como núcleos) frente a POST /batch
+    private ObjectNode measureRegistration() throws Exception {
+        ObjectNode node = this.objectMapper.createObjectNode();
+        int sample = this.config.registrationSample();
+        if (sample <= 0) {
+            return node;
+        }
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> pending = new ArrayList<>(sample);
+            for (int i = 0; i < sample; i++) {
+                pending.add(pool.submit(() -> {
+                    onRegistered(this.client.send(registerRequest(), HttpResponse.BodyHandlers.ofByteArray()));
+                    return null;
+                }));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            node.put("singleUsersPerSecond", EndpointRecorder.round(sample / seconds));
+            node.put("singleParallelism", parallelism);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // El stack reactivo no tiene registro por lotes
+        if (!this.reactive) {
+            long start = System.nanoTime();
+            for (int from = 0; from < sample; from += BATCH_CHUNK) {
+                int size = Math.min(BATCH_CHUNK, sample - from);
+                StringBuilder body = new StringBuilder("[");
+                for (int i = 0; i < size; i++) {
+                    body.append(i > 0 ? "," : "").append(registerBody());
+                }
+                HttpResponse<byte[]> response = this.client.send(jsonRequest("/api/v1/users/batch")
+                        .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString())).build(),
+                        HttpResponse.BodyHandlers.ofByteArray());
+                for (JsonNode result : this.objectMapper.readTree(response.body())) {
+                    if ("CREATED".equals(result.path("status").asText())) {
+                        this.liveIds.add(result.path("user").path("id").asLong());
+                    }
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            node.put("batchUsersPerSecond", EndpointRecorder.round(sample / seconds));
+            node.put("batchSize", BATCH_CHUNK);
+        }
+        log("Registration: %s", node);
+        return node;
+    }
+
+    // 3️⃣ Modelo abierto a ritmo fijo
+    private Map<Operation, EndpointRecorder> runOpenModel(Duration length) {
+        Map<Operation, EndpointRecorder> recorders = new EnumMap<>(Operation.class);
+        this.config.mix().keySet().forEach(operation -> recorders.put(operation, new EndpointRecorder()));
+        Semaphore inFlight = new Semaphore(this.config.maxInFlight());
+        double intervalNanos = 1e9 / this.config.rate();
+        long total = (long) (length.toNanos() / intervalNanos);
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + (long) (i * intervalNanos);
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = this.operationTable[this.random.nextInt(this.operationTable.length)];
+            EndpointRecorder recorder = recorders.get(operation);
+            PlannedRequest planned = plan(operation);
+
+            // Con maxInFlight agotado se espera aquí: el retraso cuenta en la latencia de las que vienen detrás
+            inFlight.acquireUninterruptibly();
+            long sent = System.nanoTime();
+            this.client.sendAsync(planned.request(), HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, error) -> {
+                        long done = System.nanoTime();
+                        try {
+                            if (error != null) {
+                                recorder.recordError(intended, sent, done, error);
+                            } else {
+                                recorder.record(intended, sent, done, response.statusCode(), response.body().length);
+                                planned.onResponse().accept(response);
+                            }
+                        } finally {
+                            inFlight.release();
+                        }
+                    });
+        }
+
+        try {
+            if (inFlight.tryAcquire(this.config.maxInFlight(), this.config.timeout().toSeconds() + 5, TimeUnit.SECONDS)) {
+                inFlight.release(this.config.maxInFlight());
+            } else {
+                log("Some requests were still in flight after the timeout");
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        return recorders;
+    }
+
+    // 4️⃣ Peticiones secuenciales por operación: sentencias SQL, bytes de SQL y bytes asignados por petición
+    private ObjectNode probe() throws IOException, InterruptedException {
+        ObjectNode node = this.objectMapper.createObjectNode();
+        int requests = this.config.probeRequests();
+        if (requests <= 0) {
+            return node;
+        }
+        for (Operation operation : this.config.mix().keySet()) {
+            Map<String, double[]> statementsBefore = statementTotals(STATEMENTS);
+            Map<String, double[]> sqlBytesBefore = statementTotals(STATEMENT_BYTES);
+            long allocatedBefore = JvmSnapshot.currentAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                PlannedRequest planned = plan(operation);
+                planned.onResponse().accept(this.client.send(planned.request(), HttpResponse.BodyHandlers.ofByteArray()));
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            long allocated = JvmSnapshot.currentAllocatedBytes() - allocatedBefore;
+
+            ObjectNode result = node.putObject(operation.key());
+            result.put("meanServiceTimeMs", EndpointRecorder.round(elapsedNanos / 1e6 / requests));
+            // De toda la JVM: servidor y también el cliente HTTP del harness (igual en todas las ejecuciones)
+            result.put("allocatedBytesPerRequest", allocated / requests);
+            Double statements = perRequest(operation, statementsBefore, statementTotals(STATEMENTS));
+            if (statements != null) {
+                result.put("statementsPerRequest", EndpointRecorder.round(statements));
+            }
+            Double sqlBytes = perRequest(operation, sqlBytesBefore, statementTotals(STATEMENT_BYTES));
+            if (sqlBytes != null) {
+                result.put("sqlBytesPerRequest", EndpointRecorder.round(sqlBytes));
+            }
+        }
+        return node;
+    }
+
+    private PlannedRequest plan(Operation operation) {
+        return switch (operation) {
+            case REGISTER -> new PlannedRequest(registerRequest(), this::onRegistered);
+            case GET -> new PlannedRequest(request("/api/v1/users/" + this.liveIds.pick(this.random)).GET().build(), IGNORE);
+            case PATCH -> new PlannedRequest(jsonRequest("/api/v1/users/" + this.liveIds.pick(this.random))
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                            "{\"address\":\"" + (100 + this.random.nextInt(900)) + " Load Street, New York, NY\"}"))
+                    .build(), IGNORE);
+            case DELETE -> new PlannedRequest(request("/api/v1/users/" + this.liveIds.remove(this.random)).DELETE().build(), IGNORE);
+            case LIST -> new PlannedRequest(request("/api/v1/users?after=" + this.random.nextLong(this.listCursorBound) + "&limit=20")
+                    .GET().build(), IGNORE);
+        };
+    }
+
+    private HttpRequest registerRequest() {
+        return jsonRequest("/api/v1/users").POST(HttpRequest.BodyPublishers.ofString(registerBody())).build();
+    }
+
+    private String registerBody() {
+        return "{\"firstName\":\"Alice\",\"lastName\":\"Johnson\",\"email\":\"load" + this.emailSequence.incrementAndGet()
+                + "@example.com\",\"address\":\"123 Main Street, New York, NY\",\"password\":\"" + PASSWORD
+                + "\",\"confirmPassword\":\"" + PASSWORD + "\"}";
+    }
+
+    private void onRegistered(HttpResponse<byte[]> response) {
+        if (response.statusCode() == 201) {
+            try {
+                this.liveIds.add(this.objectMapper.readTree(response.body()).path("id").asLong());
+            } catch (IOException exception) {
+                throw new IllegalStateException("Unexpected registration response", exception);
+            }
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(this.baseUri.resolve(path)).timeout(this.config.timeout());
+    }
+
+    private HttpRequest.Builder jsonRequest(String path) {
+        return request(path).header("Content-Type", "application/json");
+    }
+
+    // users.request.statements[.bytes] (RequestMetricsFilter) acumulado por "METHOD /ruta": {peticiones, total}
+    private Map<String, double[]> statementTotals(String meterName) {
+        Map<String, double[]> totals = new HashMap<>();
+        if (this.meterRegistry == null) {
+            return totals;
+        }
+        for (DistributionSummary summary : this.meterRegistry.find(meterName).summaries()) {
+            String uri = summary.getId().getTag("uri");
+            String route = uri != null && !uri.startsWith("/") ? "/" + uri : uri;
+            totals.put(summary.getId().getTag("method") + " " + route, new double[]{summary.count(), summary.totalAmount()});
+        }
+        return totals;
+    }
+
+    private static Double perRequest(Operation operation, Map<String, double[]> before, Map<String, double[]> after) {
+        String key = operation.method + " " + operation.route;
+        double[] end = after.get(key);
+        if (end == null) {
+            return null;
+        }
+        double[] begin = before.getOrDefault(key, new double[2]);
+        double requests = end[0] - begin[0];
+        return requests == 0 ? null : (end[1] - begin[1]) / requests;
+    }
+
+    // 5️⃣ Línea base
+    private int compareWithBaseline(ObjectNode report) throws IOException {
+        Path baseline = this.config.baseline();
+        if (this.config.updateBaseline()) {
+            if (baseline.getParent() != null) {
+                Files.createDirectories(baseline.getParent());
+            }
+            this.objectMapper.writeValue(baseline.toFile(), report);
+            log("Baseline updated: %s", baseline.toAbsolutePath());
+            return 0;
+        }
+        if (!Files.exists(baseline)) {
+            log("No baseline at %s, run with -Dloadtest.updateBaseline=true to store this run as the baseline", baseline);
+            return 0;
+        }
+        JsonNode baselineReport = this.objectMapper.readTree(baseline.toFile());
+        if (!LoadTestReport.comparable(report, baselineReport)) {
+            log("Baseline %s was recorded with a different load (profile, rate, mix or users): not compared", baseline);
+            return 0;
+        }
+        List<String> regressions = LoadTestReport.regressions(report, baselineReport, this.config.tolerance(), this.config.slackMillis());
+        if (regressions.isEmpty()) {
+            log("No regressions against %s (tolerance %.0f%% + %.1f ms)", baseline, this.config.tolerance() * 100, this.config.slackMillis());
+            return 0;
+        }
+        log("REGRESSIONS against %s:", baseline);
+        regressions.forEach(regression -> log("  - %s", regression));
+        return 1;
+    }
+
+    private ObjectNode configJson() {
+        ObjectNode node = this.objectMapper.createObjectNode();
+        node.put("profiles", this.config.profiles());
+        node.put("users", this.config.users());
+        node.put("rate", this.config.rate());
+        node.put("mix", this.config.mixDescription());
+        node.put("warmupSeconds", this.config.warmup().toSeconds());
+        node.put("durationSeconds", this.config.duration().toSeconds());
+        node.put("maxInFlight", this.config.maxInFlight());
+        node.put("appArgs", String.join(" ", this.config.appArgs()));
+        node.put("javaVersion", Runtime.version().toString());
+        node.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        node.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+        return node;
+    }
+
+    // application.ready.time lo publica Spring Boot; en proceso incluye también el arranque del harness
+    private ObjectNode startupJson() {
+        ObjectNode node = this.objectMapper.createObjectNode();
+        TimeGauge readyTime = this.meterRegistry == null ? null : this.meterRegistry.find("application.ready.time").timeGauge();
+        if (readyTime != null) {
+            node.put("readyTimeMs", Math.round(readyTime.value(TimeUnit.MILLISECONDS)));
+        }
+        node.put("jvmUptimeMs", ManagementFactory.getRuntimeMXBean().getUptime());
+        return node;
+    }
+
+    private void printSummary(ObjectNode report) {
+        log("%-9s %8s %9s %9s %9s %9s %9s %8s", "endpoint", "count", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "fail %");
+        report.path("endpoints").properties().forEach(entry -> {
+            JsonNode endpoint = entry.getValue();
+            JsonNode latency = endpoint.path("latencyMs");
+            log("%-9s %8d %9.2f %9.2f %9.2f %9.2f %9.2f %8.2f", entry.getKey(), endpoint.path("count").asLong(),
+                    latency.path("p50").asDouble(), latency.path("p90").asDouble(), latency.path("p99").asDouble(),
+                    latency.path("p999").asDouble(), latency.path("max").asDouble(), endpoint.path("failureRate").asDouble() * 100);
+        });
+        log("jvm: %s", report.path("jvm"));
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.println("[loadtest] " + String.format(format, args));
+    }
+
+    private record PlannedRequest(HttpRequest request, Consumer<HttpResponse<byte[]>> onResponse) {
+    }
+
+    // Heap, hilos, GC y bytes asignados por toda la JVM durante la medición
+    private record JvmSnapshot(long allocatedBytes, long gcCount, long gcMillis) {
+
+        static JvmSnapshot take() {
+            long gcCount = 0;
+            long gcMillis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(0, collector.getCollectionCount());
+                gcMillis += Math.max(0, collector.getCollectionTime());
+            }
+            // Los picos de heap e hilos se cuentan desde aquí
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                }
+            }
+            ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+            return new JvmSnapshot(currentAllocatedBytes(), gcCount, gcMillis);
+        }
+
+        ObjectNode since(JvmSnapshot before, long requests) {
+            ObjectNode node = new ObjectMapper().createObjectNode();
+            long heapPeak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                    heapPeak += pool.getPeakUsage().getUsed();
+                }
+            }
+            node.put("heapPeakBytes", heapPeak);
+            node.put("peakThreads", ManagementFactory.getThreadMXBean().getPeakThreadCount());
+            node.put("gcCount", this.gcCount - before.gcCount);
+            node.put("gcMillis", this.gcMillis - before.gcMillis);
+            node.put("allocatedBytesPerRequest", requests == 0 ? 0 : (this.allocatedBytes - before.allocatedBytes) / requests);
+            return node;
+        }
+
+        static long currentAllocatedBytes() {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long total = 0;
+            for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                total += Math.max(0, bytes);
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.adriauson.vibecommerce.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Comparación del informe JSON con la línea base guardada.
+ *
+ * Una métrica empeora si supera base × (1 + tolerance) + slackMillis: el margen absoluto evita falsas
+ * alarmas en latencias de décimas de milisegundo, donde un poco de ruido ya es un +50 %.
+ * Solo se comparan informes con la misma carga (perfil, ritmo, mezcla y usuarios sembrados).
+ */
+final class LoadTestReport {
+
+    private static final String[] COMPARED_PERCENTILES = {"p50", "p99"};
+    private static final double FAILURE_RATE_SLACK = 0.01;
+
+    private LoadTestReport() {
+    }
+
+    static boolean comparable(JsonNode current, JsonNode baseline) {
+        JsonNode currentConfig = current.path("config");
+        JsonNode baselineConfig = baseline.path("config");
+        for (String field : new String[]{"profiles", "rate", "mix", "users"}) {
+            if (!currentConfig.path(field).equals(baselineConfig.path(field))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static List<String> regressions(JsonNode current, JsonNode baseline, double tolerance, double slackMillis) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> entry : baseline.path("endpoints").properties()) {
+            String endpoint = entry.getKey();
+            JsonNode before = entry.getValue();
+            JsonNode after = current.path("endpoints").path(endpoint);
+            if (after.isMissingNode()) {
+                regressions.add(endpoint + ": missing from the current run");
+                continue;
+            }
+            for (String percentile : COMPARED_PERCENTILES) {
+                double limit = before.path("latencyMs").path(percentile).asDouble() * (1 + tolerance) + slackMillis;
+                double value = after.path("latencyMs").path(percentile).asDouble();
+                if (value > limit) {
+                    regressions.add(String.format("%s: latency %s %.3f ms > %.3f ms allowed (baseline %.3f ms)",
+                            endpoint, percentile, value, limit, before.path("latencyMs").path(percentile).asDouble()));
+                }
+            }
+            double failureLimit = before.path("failureRate").asDouble() + FAILURE_RATE_SLACK;
+            double failureRate = after.path("failureRate").asDouble();
+            if (failureRate > failureLimit) {
+                regressions.add(String.format("%s: failure rate %.3f > %.3f allowed", endpoint, failureRate, failureLimit));
+            }
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,28 @@
+package com.adriauson.vibecommerce.loadtest;
+
+import java.util.Locale;
+
+// Operaciones que puede mezclar el harness. route coincide con el tag uri/method de users.request.statements
+enum Operation {
+    REGISTER("POST", "/api/v1/users"),
+    GET("GET", "/api/v1/users/{id}"),
+    PATCH("PATCH", "/api/v1/users/{id}"),
+    DELETE("DELETE", "/api/v1/users/{id}"),
+    LIST("GET", "/api/v1/users");
+
+    final String method;
+    final String route;
+
+    Operation(String method, String route) {
+        this.method = method;
+        this.route = route;
+    }
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    static Operation fromKey(String key) {
+        return valueOf(key.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,35 @@
+package com.adriauson.vibecommerce.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementCountingInspectorTest {
+
+    private final StatementCountingInspector inspector = new StatementCountingInspector();
+
+    @Test
+    void countsStatementsAndSqlBytesUntilReset() {
+        this.inspector.reset();
+        String update = "update users set address=? where id=?";
+
+        assertThat(this.inspector.inspect(update)).isSameAs(update);
+        this.inspector.inspect("select u1_0.id from users u1_0 where u1_0.id=?");
+
+        assertThat(this.inspector.currentCount()).isEqualTo(2);
+        assertThat(this.inspector.currentBytes()).isEqualTo(update.length() + 46);
+
+        this.inspector.reset();
+        assertThat(this.inspector.currentCount()).isZero();
+        assertThat(this.inspector.currentBytes()).isZero();
+    }
+
+    @Test
+    void byteLengthMatchesUtf8Encoding() {
+        for (String sql : new String[]{"select 1", "select 'Muñoz'", "select '€'", "select '😀'"}) {
+            assertThat(StatementCountingInspector.utf8Length(sql)).isEqualTo(sql.getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.adriauson.vibecommerce.metrics;
+
+import com.adriauson.vibecommerce.exception.BatchTooLargeException;
+import com.adriauson.vibecommerce.exception.EmailAlreadyExistsException;
+import com.adriauson.vibecommerce.exception.PasswordHashingOverloadedException;
+import com.adriauson.vibecommerce.exception.PreconditionFailedException;
+import com.adriauson.vibecommerce.exception.UserNotFoundException;
+import com.adriauson.vibecommerce.mapper.UserMapper;
+import com.adriauson.vibecommerce.repository.projection.UserSummary;
+import com.adriauson.vibecommerce.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserMetricsAspectTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserMetricsAspect aspect = new UserMetricsAspect(this.meterRegistry);
+
+    // 412, 413 y 503 son respuestas previstas: solo lo inesperado cuenta como error del servidor
+    @Test
+    void clientAndOverloadRejectionsAreNotReportedAsErrors() {
+        assertThat(UserMetricsAspect.outcomeOf(new UserNotFoundException("missing", 1L))).isEqualTo("not_found");
+        assertThat(UserMetricsAspect.outcomeOf(new EmailAlreadyExistsException("taken"))).isEqualTo("conflict");
+        assertThat(UserMetricsAspect.outcomeOf(new PreconditionFailedException("stale", 1L))).isEqualTo("precondition_failed");
+        assertThat(UserMetricsAspect.outcomeOf(new BatchTooLargeException("too many", 1000))).isEqualTo("rejected");
+        assertThat(UserMetricsAspect.outcomeOf(new PasswordHashingOverloadedException("busy", 1))).isEqualTo("rejected");
+        assertThat(UserMetricsAspect.outcomeOf(new IllegalStateException("bug"))).isEqualTo("error");
+    }
+
+    @Test
+    void serviceCallsAreTimedPerMethodAndOutcome() {
+        UserService target = mock(UserService.class);
+        when(target.updateUser(anyLong(), isNull(), anyLong())).thenThrow(new PreconditionFailedException("stale", 1L));
+        UserService service = proxy(target);
+
+        assertThatThrownBy(() -> service.updateUser(1L, null, 3L)).isInstanceOf(PreconditionFailedException.class);
+        service.getUserById(1L);
+
+        assertThat(this.meterRegistry.get("users.service").tag("method", "updateUser")
+                .tag("outcome", "precondition_failed").timer().count()).isEqualTo(1);
+        assertThat(this.meterRegistry.get("users.service").tag("method", "getUserById")
+                .tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    // Por fila (exportación, lotes, CSV) solo se graba en un Timer ya registrado
+    @Test
+    void mapperTimerIsRegisteredOnceAndReused() throws Exception {
+        UserMapper target = mock(UserMapper.class);
+        UserMapper mapper = proxy(target);
+        UserSummary summary = new UserSummary(1L, "Ana", "García", "ana@example.com", "Main Street 1", 0L);
+
+        for (int i = 0; i < 1000; i++) {
+            mapper.mapUserSummaryToUserDto(summary);
+        }
+
+        assertThat(this.meterRegistry.get("users.mapper").tag("method", "mapUserSummaryToUserDto").timer().count())
+                .isEqualTo(1000);
+        assertThat(this.aspect.mapperTimer(UserMapper.class.getMethod("mapUserSummaryToUserDto", UserSummary.class)))
+                .isSameAs(this.aspect.mapperTimer(UserMapper.class.getMethod("mapUserSummaryToUserDto", UserSummary.class)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        // UserService por su interfaz (como en la aplicación), UserMapper es una clase
+        factory.setProxyTargetClass(!(target instanceof UserService));
+        factory.addAspect(this.aspect);
+        return (T) factory.getProxy();
+    }
+}
@@ -0,0 +1,111 @@
+package com.adriauson.vibecommerce.repository;
+
+import com.adriauson.vibecommerce.entity.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// SQL nativo de updateFields contra H2, con la misma estrategia de nombres que Spring Boot (firstName → first_name)
+class UserRepositoryCustomImplTest {
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+    private UserRepositoryCustomImpl userRepository;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        this.sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:update-fields;MODE=MySQL;DATABASE_TO_LOWER=TRUE")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.connection.password", "")
+                .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+                .buildSessionFactory();
+        this.entityManager = this.sessionFactory.createEntityManager();
+        this.userRepository = new UserRepositoryCustomImpl();
+        ReflectionTestUtils.setField(this.userRepository, "entityManager", this.entityManager);
+
+        User user = new User();
+        user.setFirstName("Alice");
+        user.setLastName("Johnson");
+        user.setEmail("alice@example.com");
+        user.setPassword("$2a$10$hash");
+        user.setAddress("123 Main Street, New York, NY");
+        inTransaction(() -> {
+            this.entityManager.persist(user);
+            return null;
+        });
+        this.userId = user.getId();
+        this.entityManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.entityManager.close();
+        this.sessionFactory.close();
+    }
+
+    @Test
+    void updatesOnlyTheGivenColumnsAndBumpsTheVersion() {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("firstName", "Alicia");
+        changes.put("address", "742 Evergreen Terrace, Springfield");
+
+        int updated = inTransaction(() -> this.userRepository.updateFields(this.userId, changes, null));
+
+        User user = this.entityManager.find(User.class, this.userId);
+        assertThat(updated).isEqualTo(1);
+        assertThat(user.getFirstName()).isEqualTo("Alicia");
+        assertThat(user.getAddress()).isEqualTo("742 Evergreen Terrace, Springfield");
+        assertThat(user.getLastName()).isEqualTo("Johnson");
+        assertThat(user.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void staleExpectedVersionUpdatesNothing() {
+        int updated = inTransaction(() -> this.userRepository.updateFields(this.userId, Map.of("lastName", "Smith"), 5L));
+
+        assertThat(updated).isZero();
+        assertThat(this.entityManager.find(User.class, this.userId).getLastName()).isEqualTo("Johnson");
+    }
+
+    @Test
+    void unknownUserUpdatesNothing() {
+        assertThat(inTransaction(() -> this.userRepository.updateFields(this.userId + 1, Map.of("lastName", "Smith"), null))).isZero();
+    }
+
+    // Las claves acaban en el texto del SQL: solo se aceptan atributos de User
+    @Test
+    void rejectsAnythingThatIsNotAnAttribute() {
+        assertThatThrownBy(() -> inTransaction(() -> this.userRepository.updateFields(this.userId,
+                Map.of("address = 'x', password", "y"), null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private <T> T inTransaction(Supplier<T> action) {
+        this.entityManager.getTransaction().begin();
+        try {
+            T result = action.get();
+            this.entityManager.getTransaction().commit();
+            return result;
+        } finally {
+            if (this.entityManager.getTransaction().isActive()) {
+                this.entityManager.getTransaction().rollback();
+            }
+        }
+    }
+}
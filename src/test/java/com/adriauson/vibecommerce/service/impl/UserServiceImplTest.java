@@ -0,0 +1,244 @@
+package com.adriauson.vibecommerce.service.impl;
+
+import com.adriauson.vibecommerce.dto.RegisterUserDto;
+import com.adriauson.vibecommerce.dto.UpdateUserDto;
+import com.adriauson.vibecommerce.dto.UserDto;
+import com.adriauson.vibecommerce.entity.User;
+import com.adriauson.vibecommerce.exception.EmailAlreadyExistsException;
+import com.adriauson.vibecommerce.mapper.UserMapper;
+import com.adriauson.vibecommerce.repository.UserRepository;
+import com.adriauson.vibecommerce.repository.projection.UserSummary;
+import com.adriauson.vibecommerce.service.support.EmailBloomFilter;
+import com.adriauson.vibecommerce.service.support.PasswordHashingService;
+import com.adriauson.vibecommerce.service.support.UserChangeOutbox;
+import com.adriauson.vibecommerce.service.support.UserMessages;
+import com.adriauson.vibecommerce.service.support.UserSearchIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+// Colaboradores simulados: solo se comprueba qué consultas lanza el servicio en cada caso
+class UserServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final EmailBloomFilter emailBloomFilter = mock(EmailBloomFilter.class);
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+    private final CacheManager cacheManager = mock(CacheManager.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final UserSearchIndex userSearchIndex = mock(UserSearchIndex.class);
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        this.userService = new UserServiceImpl(this.userRepository, new UserMapper(), mock(UserMessages.class),
+                20, 100, mock(EntityManager.class), new ObjectMapper(), 1000, mock(Validator.class),
+                50_000, 1000, 50, this.emailBloomFilter, this.cacheManager, 1000,
+                this.passwordHashingService, this.userSearchIndex, mock(UserChangeOutbox.class),
+                1000, 500, this.transactionManager);
+        when(this.passwordHashingService.hash(any())).thenReturn("$2a$10$hash");
+        when(this.userRepository.saveAndFlush(any(User.class))).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(1L);
+            return user;
+        });
+    }
+
+    @Test
+    void newEmailGoesStraightToTheInsert() {
+        when(this.emailBloomFilter.mightContain("new@example.com")).thenReturn(false);
+
+        UserDto created = this.userService.registerUser(registerDto("new@example.com"));
+
+        assertThat(created.getId()).isEqualTo(1L);
+        verify(this.userRepository, never()).existsByEmail(any());
+        verify(this.emailBloomFilter).put("new@example.com");
+    }
+
+    // Falso positivo del filtro: cuesta un existsByEmail, pero el alta sigue adelante
+    @Test
+    void falsePositiveFallsThroughToTheDatabaseCheck() {
+        when(this.emailBloomFilter.mightContain("maybe@example.com")).thenReturn(true);
+        when(this.userRepository.existsByEmail("maybe@example.com")).thenReturn(false);
+
+        UserDto created = this.userService.registerUser(registerDto("maybe@example.com"));
+
+        assertThat(created.getEmail()).isEqualTo("maybe@example.com");
+        verify(this.userRepository).existsByEmail("maybe@example.com");
+        verify(this.userRepository).saveAndFlush(any(User.class));
+    }
+
+    @Test
+    void existingEmailIsRejectedWithoutInsert() {
+        when(this.emailBloomFilter.mightContain("taken@example.com")).thenReturn(true);
+        when(this.userRepository.existsByEmail("taken@example.com")).thenReturn(true);
+
+        assertThatThrownBy(() -> this.userService.registerUser(registerDto("taken@example.com")))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+        verify(this.userRepository, never()).saveAndFlush(any(User.class));
+    }
+
+    // Carrera entre dos altas: el filtro y existsByEmail dicen que está libre, pero el índice único salta en el INSERT
+    @Test
+    void emailConstraintOnInsertIsReportedAsEmailTaken() {
+        when(this.userRepository.saveAndFlush(any(User.class))).thenThrow(uniqueViolation(
+                "Duplicate entry 'race@example.com' for key 'users.uk_users_email'", "users.uk_users_email"));
+
+        assertThatThrownBy(() -> this.userService.registerUser(registerDto("race@example.com")))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+        verify(this.emailBloomFilter, never()).put(any());
+        verify(this.userSearchIndex, never()).add(any(), any(), any(), any());
+    }
+
+    // Un choque de clave primaria (p. ej. users_seq desfasada) no es un email repetido y sigue hacia arriba
+    @Test
+    void primaryKeyCollisionIsNotReportedAsEmailTaken() {
+        DataIntegrityViolationException primaryKey = uniqueViolation("Duplicate entry '51' for key 'users.PRIMARY'", "users.PRIMARY");
+        when(this.userRepository.saveAndFlush(any(User.class))).thenThrow(primaryKey);
+
+        assertThatThrownBy(() -> this.userService.registerUser(registerDto("pk@example.com")))
+                .isSameAs(primaryKey);
+    }
+
+    // Un getUserById concurrente no debe poder volver a cachear un usuario que el borrado aún no ha confirmado
+    @Test
+    void bulkDeleteEvictsTheCacheOnlyAfterCommit() {
+        Cache usersCache = mock(Cache.class);
+        when(this.cacheManager.getCache("users")).thenReturn(usersCache);
+        when(this.userRepository.findExistingIds(any())).thenReturn(List.of(1L, 2L));
+        when(this.userRepository.deleteAllByIdReturningCount(any())).thenReturn(2);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            this.userService.deleteUsers(List.of(1L, 2L, 3L));
+            verify(usersCache, never()).evict(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(usersCache).evict(1L);
+            verify(usersCache).evict(2L);
+            verify(usersCache).evict(3L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // Si el outbox o el commit fallan, el índice no puede quedarse con un usuario que nunca se guardó
+    @Test
+    void searchIndexIsUpdatedOnlyAfterCommit() {
+        when(this.emailBloomFilter.mightContain("new@example.com")).thenReturn(false);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            this.userService.registerUser(registerDto("new@example.com"));
+            verify(this.userSearchIndex, never()).add(any(), any(), any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(this.userSearchIndex).add(1L, "Alice", "Johnson", "new@example.com");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void renamedUserReachesTheSearchIndexOnlyAfterCommit() {
+        when(this.userRepository.updateFields(eq(1L), anyMap(), any())).thenReturn(1);
+        when(this.userRepository.findSummaryById(1L)).thenReturn(Optional.of(
+                new UserSummary(1L, "Alicia", "Johnson", "alice@example.com", "123 Main Street, New York, NY", 2L)));
+        UpdateUserDto updateDto = new UpdateUserDto();
+        updateDto.setFirstName("Alicia");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            this.userService.updateUser(1L, updateDto, null);
+            verify(this.userSearchIndex, never()).update(any(), any(), any(), any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(this.userSearchIndex).update(1L, "Alicia", "Johnson", "alice@example.com");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // Sin LazyConnectionDataSourceProxy la conexión se toma al abrir la transacción: el BCrypt (y la espera
+    // del pool de hashing) tiene que terminar antes, o un pico de altas vacía el pool de Hikari
+    @Test
+    void registrationHashesBeforeOpeningTheTransaction() {
+        when(this.passwordHashingService.hash(any())).thenAnswer(invocation -> {
+            verifyNoInteractions(this.transactionManager);
+            return "$2a$10$hash";
+        });
+
+        this.userService.registerUser(registerDto("new@example.com"));
+
+        InOrder inOrder = inOrder(this.passwordHashingService, this.transactionManager, this.userRepository);
+        inOrder.verify(this.passwordHashingService).hash("MyPass123");
+        inOrder.verify(this.transactionManager).getTransaction(any());
+        inOrder.verify(this.userRepository).saveAndFlush(any(User.class));
+        inOrder.verify(this.transactionManager).commit(any());
+    }
+
+    @Test
+    void passwordUpdateHashesBeforeOpeningTheTransaction() {
+        when(this.passwordHashingService.hash(any())).thenAnswer(invocation -> {
+            verifyNoInteractions(this.transactionManager);
+            return "$2a$10$hash";
+        });
+        when(this.userRepository.updateFields(eq(1L), anyMap(), any())).thenReturn(1);
+        when(this.userRepository.findSummaryById(1L)).thenReturn(Optional.of(
+                new UserSummary(1L, "Alice", "Johnson", "alice@example.com", "123 Main Street, New York, NY", 2L)));
+        UpdateUserDto updateDto = new UpdateUserDto();
+        updateDto.setPassword("NewPass123");
+
+        this.userService.updateUser(1L, updateDto, null);
+
+        InOrder inOrder = inOrder(this.passwordHashingService, this.transactionManager, this.userRepository);
+        inOrder.verify(this.passwordHashingService).hash("NewPass123");
+        inOrder.verify(this.transactionManager).getTransaction(any());
+        inOrder.verify(this.userRepository).updateFields(eq(1L), anyMap(), any());
+        inOrder.verify(this.transactionManager).commit(any());
+    }
+
+    // Como la deja HibernateJpaDialect: la ConstraintViolationException de Hibernate envuelta por Spring
+    private static DataIntegrityViolationException uniqueViolation(String message, String constraintName) {
+        SQLException sqlException = new SQLIntegrityConstraintViolationException(message, "23000", 1062);
+        return new DataIntegrityViolationException(message, new ConstraintViolationException(message, sqlException,
+                "insert", ConstraintViolationException.ConstraintKind.UNIQUE, constraintName));
+    }
+
+    private static RegisterUserDto registerDto(String email) {
+        RegisterUserDto dto = new RegisterUserDto();
+        dto.setFirstName("Alice");
+        dto.setLastName("Johnson");
+        dto.setEmail(email);
+        dto.setAddress("123 Main Street, New York, NY");
+        dto.setPassword("MyPass123");
+        dto.setConfirmPassword("MyPass123");
+        return dto;
+    }
+}
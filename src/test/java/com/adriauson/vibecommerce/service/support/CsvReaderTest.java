@@ -0,0 +1,111 @@
+package com.adriauson.vibecommerce.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvReaderTest {
+
+    private final List<String> fields = new ArrayList<>();
+
+    @Test
+    void splitsUnquotedFieldsAndKeepsEmptyOnes() throws IOException {
+        CsvReader csv = reader("a,b,,d\n");
+
+        assertThat(csv.readRecord(this.fields)).isTrue();
+        assertThat(this.fields).containsExactly("a", "b", "", "d");
+        assertThat(csv.error()).isNull();
+        assertThat(csv.readRecord(this.fields)).isFalse();
+    }
+
+    @Test
+    void quotedFieldsKeepSeparatorsEscapedQuotesAndLineBreaks() throws IOException {
+        CsvReader csv = reader("\"Main St, 1\",\"say \"\"hi\"\"\",\"two\nlines\"\n");
+
+        assertThat(csv.readRecord(this.fields)).isTrue();
+        assertThat(this.fields).containsExactly("Main St, 1", "say \"hi\"", "two\nlines");
+        assertThat(csv.error()).isNull();
+    }
+
+    // La línea de cada registro es la física donde empieza, contando los saltos dentro de comillas
+    @Test
+    void recordLineCountsLineBreaksInsideQuotes() throws IOException {
+        CsvReader csv = reader("h1,h2\r\n\"multi\r\nline\",x\r\nlast,y");
+
+        csv.readRecord(this.fields);
+        assertThat(csv.recordLine()).isEqualTo(1);
+        csv.readRecord(this.fields);
+        assertThat(csv.recordLine()).isEqualTo(2);
+        assertThat(csv.readRecord(this.fields)).isTrue();
+        assertThat(csv.recordLine()).isEqualTo(4);
+        assertThat(this.fields).containsExactly("last", "y");
+    }
+
+    @Test
+    void leadingBomIsSkipped() throws IOException {
+        CsvReader csv = reader("﻿firstName,lastName\n");
+
+        csv.readRecord(this.fields);
+        assertThat(this.fields).containsExactly("firstName", "lastName");
+    }
+
+    @Test
+    void unterminatedQuoteIsReportedOnItsRecord() throws IOException {
+        CsvReader csv = reader("ok,1\n\"open,2\n");
+
+        csv.readRecord(this.fields);
+        assertThat(csv.error()).isNull();
+        assertThat(csv.readRecord(this.fields)).isTrue();
+        assertThat(csv.error()).isEqualTo("Unterminated quoted field");
+        assertThat(csv.recordLine()).isEqualTo(2);
+    }
+
+    @Test
+    void characterAfterClosingQuoteIsAnError() throws IOException {
+        CsvReader csv = reader("\"a\"b,c\nnext,row\n");
+
+        csv.readRecord(this.fields);
+        assertThat(csv.error()).isEqualTo("Unexpected character after closing quote");
+
+        // El siguiente registro se lee con normalidad
+        csv.readRecord(this.fields);
+        assertThat(csv.error()).isNull();
+        assertThat(this.fields).containsExactly("next", "row");
+    }
+
+    @Test
+    void oversizedFieldsAndRecordsAreConsumedAndFlagged() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("abcdefghij,x\na,b,c,d\nok,ok\n"), 5, 3);
+
+        csv.readRecord(this.fields);
+        assertThat(csv.error()).isEqualTo("Field longer than 5 characters");
+        assertThat(this.fields.get(0)).hasSize(5);
+
+        csv.readRecord(this.fields);
+        assertThat(csv.error()).isEqualTo("More than 3 fields");
+        assertThat(this.fields).hasSize(3);
+
+        csv.readRecord(this.fields);
+        assertThat(csv.error()).isNull();
+        assertThat(this.fields).containsExactly("ok", "ok");
+    }
+
+    // Registros más largos que el buffer de 8 KB
+    @Test
+    void recordsSpanningSeveralBuffersAreReadWhole() throws IOException {
+        String longField = "x".repeat(20_000);
+        CsvReader csv = new CsvReader(new StringReader(longField + ",end\n"), 30_000, 10);
+
+        csv.readRecord(this.fields);
+        assertThat(this.fields).containsExactly(longField, "end");
+    }
+
+    private static CsvReader reader(String content) {
+        return new CsvReader(new StringReader(content), 1000, 64);
+    }
+}
@@ -0,0 +1,98 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmailBloomFilterTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    void everyEmailMightExistUntilTheInitialLoadFinishes() {
+        EmailBloomFilter filter = filter(1000, 0.01);
+
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain("anyone@example.com")).isTrue();
+    }
+
+    @Test
+    void loadedAndAddedEmailsAreAlwaysFoundIgnoringCase() {
+        when(this.userRepository.streamAllEmails()).thenReturn(emails(0, 5000));
+        EmailBloomFilter filter = filter(10_000, 0.01);
+        filter.rebuild();
+        filter.put("New.User@Example.com");
+
+        // Sin falsos negativos: es lo que permite saltarse el existsByEmail
+        for (int i = 0; i < 5000; i++) {
+            assertThat(filter.mightContain("user" + i + "@example.com")).isTrue();
+        }
+        assertThat(filter.mightContain("USER42@EXAMPLE.COM")).isTrue();
+        assertThat(filter.mightContain("new.user@example.com")).isTrue();
+    }
+
+    @Test
+    void falsePositivesStayCloseToTheConfiguredRate() {
+        when(this.userRepository.streamAllEmails()).thenReturn(emails(0, 10_000));
+        EmailBloomFilter filter = filter(10_000, 0.01);
+        filter.rebuild();
+
+        long falsePositives = IntStream.range(10_000, 110_000)
+                .filter(i -> filter.mightContain("user" + i + "@example.com"))
+                .count();
+
+        // 1 % configurado; margen para la variación de los hashes
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void initialLoadRunsOffTheApplicationReadyThread() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.userRepository.streamAllEmails()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return emails(0, 10);
+        });
+        EmailBloomFilter filter = filter(1000, 0.01);
+
+        filter.onApplicationReady();
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain("user1@example.com")).isTrue();
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!filter.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(filter.isReady()).isTrue();
+        assertThat(filter.mightContain("user1@example.com")).isTrue();
+    }
+
+    @Test
+    void failedInitialLoadKeepsTheSafeAnswer() throws InterruptedException {
+        when(this.userRepository.streamAllEmails()).thenThrow(new IllegalStateException("database down"));
+        EmailBloomFilter filter = filter(1000, 0.01);
+
+        filter.onApplicationReady();
+        Thread.sleep(100);
+
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightContain("anyone@example.com")).isTrue();
+    }
+
+    private EmailBloomFilter filter(long expectedInsertions, double falsePositiveRate) {
+        return new EmailBloomFilter(this.userRepository, mock(PlatformTransactionManager.class), expectedInsertions, falsePositiveRate);
+    }
+
+    private static Stream<String> emails(int from, int to) {
+        return IntStream.range(from, to).mapToObj(i -> "user" + i + "@example.com");
+    }
+}
@@ -0,0 +1,54 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.exception.PasswordHashingOverloadedException;
+import com.adriauson.vibecommerce.repository.UserRepository;
+import com.adriauson.vibecommerce.repository.projection.StoredPassword;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LegacyPasswordMigratorTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+    private final LegacyPasswordMigrator migrator = new LegacyPasswordMigrator(this.userRepository, this.passwordHashingService, 2);
+
+    @Test
+    void walksTheTableInBatchesAndRewritesOnlyUnchangedPasswords() throws InterruptedException {
+        when(this.userRepository.findLegacyPasswordsAfter(0L, Limit.of(2)))
+                .thenReturn(List.of(new StoredPassword(1L, "plain1"), new StoredPassword(5L, "plain5")));
+        when(this.userRepository.findLegacyPasswordsAfter(5L, Limit.of(2)))
+                .thenReturn(List.of(new StoredPassword(9L, "plain9")));
+        when(this.passwordHashingService.hash(anyString())).thenAnswer(invocation -> "$2a$10$" + invocation.getArgument(0));
+        when(this.userRepository.replacePasswordIfUnchanged(1L, "plain1", "$2a$10$plain1")).thenReturn(1);
+        // El usuario 5 cambió su contraseña mientras tanto: el UPDATE condicional no toca la fila
+        when(this.userRepository.replacePasswordIfUnchanged(5L, "plain5", "$2a$10$plain5")).thenReturn(0);
+        when(this.userRepository.replacePasswordIfUnchanged(9L, "plain9", "$2a$10$plain9")).thenReturn(1);
+
+        assertThat(this.migrator.migrate()).isEqualTo(2);
+        verify(this.userRepository, times(2)).findLegacyPasswordsAfter(anyLong(), any());
+    }
+
+    @Test
+    void overloadedPoolIsRetriedInsteadOfSkippingTheRow() throws InterruptedException {
+        when(this.userRepository.findLegacyPasswordsAfter(0L, Limit.of(2)))
+                .thenReturn(List.of(new StoredPassword(1L, "plain1")));
+        when(this.passwordHashingService.hash("plain1"))
+                .thenThrow(new PasswordHashingOverloadedException("busy", 0))
+                .thenReturn("$2a$10$hash");
+        when(this.userRepository.replacePasswordIfUnchanged(1L, "plain1", "$2a$10$hash")).thenReturn(1);
+
+        assertThat(this.migrator.migrate()).isEqualTo(1);
+        verify(this.passwordHashingService, times(2)).hash("plain1");
+    }
+}
@@ -0,0 +1,65 @@
+package com.adriauson.vibecommerce.service.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutboxGapTrackerTest {
+
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+
+    private final OutboxGapTracker tracker = new OutboxGapTracker(TIMEOUT);
+
+    @Test
+    void contiguousIdsAreReadyAtOnce() {
+        assertThat(this.tracker.ready(10, List.of(11L, 12L, 13L), 0)).isEqualTo(3);
+        assertThat(this.tracker.heldBack()).isZero();
+    }
+
+    // La transacción del 2 hace commit después que la del 3: el 3 espera y los dos salen en orden
+    @Test
+    void laterIdWaitsForAnEarlierCommitThatIsStillRunning() {
+        assertThat(this.tracker.ready(0, List.of(1L, 3L), 0)).isEqualTo(1);
+        assertThat(this.tracker.ready(1, List.of(3L), TimeUnit.SECONDS.toNanos(1))).isZero();
+
+        assertThat(this.tracker.ready(1, List.of(2L, 3L), TimeUnit.SECONDS.toNanos(2))).isEqualTo(2);
+        assertThat(this.tracker.heldBack()).isZero();
+    }
+
+    // Rollback: el 2 no aparecerá nunca, pasado el timeout se publica el 3 igualmente
+    @Test
+    void gapIsGivenUpAfterTheTimeout() {
+        assertThat(this.tracker.ready(1, List.of(3L, 4L), 0)).isZero();
+        assertThat(this.tracker.ready(1, List.of(3L, 4L), TIMEOUT - 1)).isZero();
+
+        assertThat(this.tracker.ready(1, List.of(3L, 4L), TIMEOUT)).isEqualTo(2);
+        assertThat(this.tracker.heldBack()).isZero();
+    }
+
+    // El timeout cuenta desde que se vio cada evento, no desde que se resolvió el hueco anterior
+    @Test
+    void consecutiveGapsDoNotStackTheirTimeouts() {
+        assertThat(this.tracker.ready(0, List.of(1L, 3L, 5L), 0)).isEqualTo(1);
+        assertThat(this.tracker.heldBack()).isEqualTo(2);
+
+        assertThat(this.tracker.ready(1, List.of(3L, 5L), TIMEOUT)).isEqualTo(2);
+    }
+
+    // Un evento que llega tarde se cuela entre los retenidos sin reiniciar su espera
+    @Test
+    void lateCommitInsideTheGapOnlyUnblocksUpToTheNextGap() {
+        assertThat(this.tracker.ready(0, List.of(2L, 4L), 0)).isZero();
+
+        assertThat(this.tracker.ready(0, List.of(1L, 2L, 4L), TimeUnit.SECONDS.toNanos(1))).isEqualTo(2);
+        assertThat(this.tracker.ready(2, List.of(4L), TIMEOUT - 1)).isZero();
+        assertThat(this.tracker.ready(2, List.of(4L), TIMEOUT)).isEqualTo(1);
+    }
+
+    @Test
+    void emptyBatchIsNeverReady() {
+        assertThat(this.tracker.ready(7, List.of(), 0)).isZero();
+    }
+}
@@ -0,0 +1,30 @@
+package com.adriauson.vibecommerce.service.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PasswordHashingServiceTest {
+
+    // Coste 12 (~200 ms por hash) y 1 s de timeout con un hilo: caben unos pocos en cola, no 1000
+    @Test
+    void queueIsCappedToWhatTheThreadsCanDrainWithinTheTimeout() {
+        PasswordHashingService service = new PasswordHashingService(12, 1, 1000, 1000, 1, new SimpleMeterRegistry());
+        try {
+            assertThat(service.queueCapacity()).isBetween(1, 20);
+        } finally {
+            service.destroy();
+        }
+    }
+
+    @Test
+    void configuredQueueIsKeptWhenItFitsTheTimeout() {
+        PasswordHashingService service = new PasswordHashingService(4, 2, 10, 5000, 1, new SimpleMeterRegistry());
+        try {
+            assertThat(service.queueCapacity()).isEqualTo(10);
+        } finally {
+            service.destroy();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.dto.BatchRegisterResultDto;
+import com.adriauson.vibecommerce.dto.RegisterUserDto;
+import com.adriauson.vibecommerce.dto.UserImportStatusDto;
+import com.adriauson.vibecommerce.exception.UploadTooLargeException;
+import com.adriauson.vibecommerce.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCsvImporterTest {
+
+    private static final String HEADER = "firstName,lastName,email,address,password,confirmPassword\n";
+
+    @TempDir
+    Path directory;
+
+    private final UserService userService = mock(UserService.class);
+    private UserCsvImporter importer;
+
+    @AfterEach
+    void tearDown() {
+        if (this.importer != null) {
+            this.importer.destroy();
+        }
+    }
+
+    // Cuerpo chunked sin Content-Length: el límite salta durante la copia y no queda nada en disco
+    @Test
+    void streamOverTheCapIsRejectedWhileCopying() throws IOException {
+        this.importer = importer(DataSize.ofKilobytes(100));
+
+        assertThatThrownBy(() -> this.importer.submit(endless(), -1))
+                .isInstanceOf(UploadTooLargeException.class)
+                .satisfies(exception -> assertThat(((UploadTooLargeException) exception).getMaxBytes()).isEqualTo(100 * 1024));
+        assertThat(files()).isEmpty();
+        verify(this.userService, never()).registerValidatedUsers(anyList());
+    }
+
+    @Test
+    void declaredLengthOverTheCapIsRejectedBeforeReading() {
+        this.importer = importer(DataSize.ofKilobytes(1));
+        InputStream body = mock(InputStream.class);
+
+        assertThatThrownBy(() -> this.importer.submit(body, 4096))
+                .isInstanceOf(UploadTooLargeException.class);
+        verify(body, never()).markSupported();
+    }
+
+    @Test
+    void multipartOverTheCapIsRejected() throws IOException {
+        this.importer = importer(DataSize.ofBytes(10));
+        MockMultipartFile file = new MockMultipartFile("file", "users.csv", "text/csv", HEADER.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> this.importer.submit(file))
+                .isInstanceOf(UploadTooLargeException.class);
+        assertThat(files()).isEmpty();
+    }
+
+    @Test
+    void validRowsAreWrittenAndRejectedOnesGoToTheErrorReport() throws Exception {
+        when(this.userService.registerValidatedUsers(anyList())).thenAnswer(invocation -> {
+            List<RegisterUserDto> rows = invocation.getArgument(0);
+            List<BatchRegisterResultDto> results = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                boolean taken = rows.get(i).getEmail().equals("taken@example.com");
+                results.add(result(i, taken ? BatchRegisterResultDto.Status.CONFLICT : BatchRegisterResultDto.Status.CREATED,
+                        taken ? "Email is already in use" : null));
+            }
+            return results;
+        });
+        this.importer = importer(DataSize.ofMegabytes(1));
+        String csv = HEADER
+                + row("alice@example.com") + "\n"
+                + row("not-an-email") + "\n"
+                + row("taken@example.com") + "\n"
+                + "\"unterminated,x\n";
+
+        UserImportStatusDto queued = this.importer.submit(body(csv), csv.length());
+        UserImportStatusDto status = awaitFinished(queued.getJobId());
+
+        assertThat(status.getStatus()).isEqualTo(UserImportStatusDto.Status.COMPLETED);
+        assertThat(status.getRowsRead()).isEqualTo(4);
+        assertThat(status.getRowsWritten()).isEqualTo(1);
+        assertThat(status.getRowsRejected()).isEqualTo(3);
+        // chunk-size 2: el conflicto se escribe al guardar el bloque, antes de leer la línea 5
+        assertThat(Files.readAllLines(this.importer.getErrorReport(queued.getJobId()))).containsExactly(
+                "line,email,error",
+                "3,not-an-email,email: Must be a valid email",
+                "4,taken@example.com,Email is already in use",
+                "5,,Unterminated quoted field");
+        // Solo queda el informe: el fichero subido se borra al terminar
+        assertThat(files()).containsExactly(this.directory.resolve(queued.getJobId() + "-errors.csv"));
+    }
+
+    @Test
+    void missingColumnsFailTheJob() throws Exception {
+        this.importer = importer(DataSize.ofMegabytes(1));
+        String csv = "firstName,email\nAlice,alice@example.com\n";
+
+        UserImportStatusDto status = awaitFinished(this.importer.submit(body(csv), -1).getJobId());
+
+        assertThat(status.getStatus()).isEqualTo(UserImportStatusDto.Status.FAILED);
+        assertThat(status.getMessage()).startsWith("Missing required columns: lastName, address, password");
+        verify(this.userService, never()).registerValidatedUsers(any());
+    }
+
+    private UserCsvImporter importer(DataSize maxUploadSize) {
+        return new UserCsvImporter(this.userService, this.directory.toString(), 2, 1, 4, 1000, maxUploadSize,
+                24, 1000, 60, new SimpleMeterRegistry());
+    }
+
+    private UserImportStatusDto awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        UserImportStatusDto status = this.importer.getStatus(jobId);
+        while (status.getFinishedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = this.importer.getStatus(jobId);
+        }
+        return status;
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.toList();
+        }
+    }
+
+    private static String row(String email) {
+        return "Alice,Johnson," + email + ",\"123 Main Street, New York, NY\",MyPass123,MyPass123";
+    }
+
+    private static InputStream body(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Flujo que no termina nunca, como un cliente que sigue enviando trozos
+    private static InputStream endless() {
+        return new InputStream() {
+            @Override
+            public int read() {
+                return 'x';
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                return length;
+            }
+        };
+    }
+
+    private static BatchRegisterResultDto result(int index, BatchRegisterResultDto.Status status, String message) {
+        BatchRegisterResultDto result = new BatchRegisterResultDto();
+        result.setIndex(index);
+        result.setStatus(status);
+        result.setMessage(message);
+        return result;
+    }
+}
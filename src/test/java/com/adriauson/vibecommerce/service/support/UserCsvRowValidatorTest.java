@@ -0,0 +1,71 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.dto.RegisterUserDto;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCsvRowValidatorTest {
+
+    @Test
+    void validRowHasNoViolations() {
+        assertThat(UserCsvRowValidator.validate(row())).isNull();
+    }
+
+    // Sin columna confirmPassword (null) no se compara con la contraseña
+    @Test
+    void missingConfirmPasswordIsNotChecked() {
+        RegisterUserDto row = row();
+        row.setConfirmPassword(null);
+
+        assertThat(UserCsvRowValidator.validate(row)).isNull();
+    }
+
+    @Test
+    void violationsAreSortedAndJoinedLikeTheBatchEndpoint() {
+        RegisterUserDto row = row();
+        row.setFirstName("");
+        row.setEmail("not-an-email");
+
+        assertThat(UserCsvRowValidator.validate(row)).isEqualTo(
+                "email: Must be a valid email; firstName: Firstname is required; firstName: size must be between 3 and 30");
+    }
+
+    @Test
+    void addressLengthIsChecked() {
+        RegisterUserDto row = row();
+        row.setAddress("Short");
+
+        assertThat(UserCsvRowValidator.validate(row)).isEqualTo("address: Address size must be between 10 to 250 characters");
+    }
+
+    @Test
+    void passwordRulesAndMismatchAreReported() {
+        RegisterUserDto row = row();
+        row.setPassword("weakpass");
+
+        assertThat(UserCsvRowValidator.validate(row)).isEqualTo(
+                "Passwords do not match; password: Password must contain at least one uppercase and one lowercase letter");
+    }
+
+    @Test
+    void blankConfirmPasswordIsReported() {
+        RegisterUserDto row = row();
+        row.setConfirmPassword(" ");
+
+        assertThat(UserCsvRowValidator.validate(row))
+                .contains("confirmPassword: Password confirmation is required")
+                .contains("Passwords do not match");
+    }
+
+    private static RegisterUserDto row() {
+        RegisterUserDto row = new RegisterUserDto();
+        row.setFirstName("Alice");
+        row.setLastName("Johnson");
+        row.setEmail("alice@example.com");
+        row.setAddress("123 Main Street, New York, NY");
+        row.setPassword("MyPass123");
+        row.setConfirmPassword("MyPass123");
+        return row;
+    }
+}
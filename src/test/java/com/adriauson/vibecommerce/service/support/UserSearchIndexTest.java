@@ -0,0 +1,189 @@
+package com.adriauson.vibecommerce.service.support;
+
+import com.adriauson.vibecommerce.repository.UserRepository;
+import com.adriauson.vibecommerce.repository.projection.UserSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserSearchIndexTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserSearchIndex index = new UserSearchIndex(this.userRepository, mock(PlatformTransactionManager.class),
+            this.meterRegistry, 0.2);
+    // Lo que devuelve la "base de datos" en cada reconstrucción
+    private final Map<Long, UserSummary> stored = new TreeMap<>();
+
+    @AfterEach
+    void tearDown() {
+        this.index.shutdown();
+    }
+
+    @Test
+    void substringTermsIntersectTheirTrigramsIgnoringCaseAndAccents() {
+        load(user(1, "José", "García", "jose@example.com"),
+                user(2, "Ana", "Garcés", "ana@example.com"),
+                user(3, "Marc", "Smith", "marc@example.com"));
+
+        assertThat(this.index.search("garc", 0, 10)).containsExactly(1L, 2L);
+        assertThat(this.index.search("GARCÍA", 0, 10)).containsExactly(1L);
+        assertThat(this.index.search("jose", 0, 10)).containsExactly(1L);
+        assertThat(this.index.search("xyz", 0, 10)).isEmpty();
+    }
+
+    // 1 o 2 caracteres: solo al principio de una palabra ("an" está dentro de "juan", pero no empieza ninguna)
+    @Test
+    void shortTermsMatchWordPrefixesOnly() {
+        load(user(1, "Juan", "Pérez", "juan@example.com"),
+                user(2, "Ana", "López", "lopez.ana@example.com"),
+                user(3, "Luis", "Andrade", "luis@example.com"));
+
+        assertThat(this.index.search("an", 0, 10)).containsExactly(2L, 3L);
+        assertThat(this.index.search("a", 0, 10)).containsExactly(2L, 3L);
+        assertThat(this.index.search("@e", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void everyTermMustMatchSomeField() {
+        load(user(1, "Ana", "García", "ana@example.com"),
+                user(2, "Ana", "Smith", "ana.smith@example.com"),
+                user(3, "Bob", "García", "bob@example.com"));
+
+        assertThat(this.index.search("ana garc", 0, 10)).containsExactly(1L);
+        assertThat(this.index.search("garcia bo", 0, 10)).containsExactly(3L);
+    }
+
+    @Test
+    void resultsArePagedByIdCursor() {
+        load(user(1, "Ana", "A", "a1@example.com"), user(4, "Ana", "B", "a4@example.com"),
+                user(9, "Ana", "C", "a9@example.com"), user(12, "Ana", "D", "a12@example.com"));
+
+        assertThat(this.index.search("ana", 0, 2)).containsExactly(1L, 4L);
+        assertThat(this.index.search("ana", 4, 2)).containsExactly(9L, 12L);
+        assertThat(this.index.search("ana", 12, 2)).isEmpty();
+    }
+
+    // Sin falsos negativos: tras un cambio de nombre el usuario aparece con el nuevo, y el viejo queda como candidato
+    // obsoleto que matches() descarta con los valores actuales
+    @Test
+    void updatesAddNewKeysAndOldOnesAreFilteredByMatches() {
+        load(user(1, "Ana", "García", "ana@example.com"), user(2, "Bob", "Smith", "bob@example.com"),
+                user(3, "Eva", "Smith", "eva@example.com"), user(4, "Luis", "Smith", "luis@example.com"),
+                user(5, "Marc", "Smith", "marc@example.com"), user(6, "Pau", "Smith", "pau@example.com"));
+
+        this.index.update(1L, "Ana", "Martínez", "ana@example.com");
+
+        assertThat(this.index.search("martinez", 0, 10)).containsExactly(1L);
+        assertThat(this.index.search("garcia", 0, 10)).containsExactly(1L);
+        assertThat(UserSearchIndex.matches("garcia", "Ana", "Martínez", "ana@example.com")).isFalse();
+        assertThat(UserSearchIndex.matches("martinez an", "Ana", "Martínez", "ana@example.com")).isTrue();
+    }
+
+    // Más obsoletas que rebuild-stale-ratio: la reconstrucción en segundo plano relee la base de datos y las
+    // claves antiguas desaparecen
+    @Test
+    void staleEntriesAboveTheRatioTriggerABackgroundRebuild() throws InterruptedException {
+        load(user(1, "Ana", "García", "ana@example.com"), user(2, "Bob", "Smith", "bob@example.com"));
+
+        // La escritura ya está confirmada cuando se actualiza el índice
+        this.stored.put(1L, user(1, "Ana", "Martínez", "ana@example.com"));
+        this.index.update(1L, "Ana", "Martínez", "ana@example.com");
+
+        awaitNoStaleEntries();
+        assertThat(this.index.search("garcia", 0, 10)).isEmpty();
+        assertThat(this.index.search("martinez", 0, 10)).containsExactly(1L);
+        assertThat(this.index.search("smith", 0, 10)).containsExactly(2L);
+        verify(this.userRepository, times(2)).streamAllSummaries();
+    }
+
+    @Test
+    void idsOutsideTheIntRangeAreNotIndexed() {
+        load(user(1, "Ana", "García", "ana@example.com"));
+
+        this.index.add(Integer.MAX_VALUE + 1L, "Ana", "García", "big@example.com");
+
+        assertThat(this.index.search("garcia", 0, 10)).containsExactly(1L);
+    }
+
+    // Las altas confirmadas durante la reconstrucción no se pierden al publicar el índice nuevo
+    @Test
+    void usersAddedWhileRebuildingEndUpInTheNewIndex() throws InterruptedException {
+        CountDownLatch streaming = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.userRepository.streamAllSummaries()).thenAnswer(invocation -> {
+            streaming.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Stream.of(user(1, "Ana", "García", "ana@example.com"));
+        });
+
+        this.index.onApplicationReady();
+        assertThat(streaming.await(5, TimeUnit.SECONDS)).isTrue();
+        this.index.add(2L, "Bob", "García", "bob@example.com");
+        release.countDown();
+
+        awaitReady();
+        assertThat(this.index.search("garcia", 0, 10)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void initialBuildRunsOffTheApplicationReadyThread() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.userRepository.streamAllSummaries()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Stream.of(user(1, "Ana", "García", "ana@example.com"));
+        });
+
+        this.index.onApplicationReady();
+        assertThat(this.index.isReady()).isFalse();
+
+        release.countDown();
+        awaitReady();
+        assertThat(this.index.search("ana", 0, 10)).containsExactly(1L);
+    }
+
+    // Un stream nuevo por llamada: las reconstrucciones en segundo plano que dispara markStale también leen
+    private void load(UserSummary... users) {
+        for (UserSummary user : users) {
+            this.stored.put(user.id(), user);
+        }
+        when(this.userRepository.streamAllSummaries()).thenAnswer(invocation -> List.copyOf(this.stored.values()).stream());
+        this.index.rebuild();
+    }
+
+    private void awaitNoStaleEntries() throws InterruptedException {
+        Gauge stale = this.meterRegistry.get("users.search.index.stale").gauge();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (stale.value() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(stale.value()).isZero();
+    }
+
+    private void awaitReady() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!this.index.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(this.index.isReady()).isTrue();
+    }
+
+    private static UserSummary user(long id, String firstName, String lastName, String email) {
+        return new UserSummary(id, firstName, lastName, email, "123 Main Street", 0L);
+    }
+}